@@ -0,0 +1,776 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Micro-benchmark suite for the collections, the search indexes and the persistence paths.
+ * <p>
+ * Every benchmark runs once per corpus size. Each iteration repeats the benchmark until a minimum
+ * time has passed; warm-up iterations are discarded. Results are printed as a table and written
+ * as JSON in the same layout as JMH's {@code -rf json} output (benchmark, mode, params,
+ * primaryMetric with score, scoreError at 99.9% and rawData), so runs of different versions can
+ * be compared with the usual JMH tooling.
+ * <p>
+ * Benchmarks of the concurrent structures also run once per thread count, splitting the same
+ * work among the threads, and report throughput (mode {@code thrpt}, operations per microsecond
+ * summed over all threads) so the scaling with the number of threads can be read directly.
+ * <p>
+ * Console output printed by the measured code is discarded while the suite runs.
+ * <pre>
+ *   java BenchmarkMetroMendeley [--tamanios 1000,10000,100000,1000000] [--hilos 1,2,4,8]
+ *        [--calentamiento 3] [--iteraciones 5] [--tiempo-ms 500] [--filtro MyMap] [--salida benchmark.json]
+ * </pre>
+ */
+public class BenchmarkMetroMendeley {
+
+    /**
+     * A benchmark over a corpus of a given size.
+     */
+    private interface Caso {
+        String nombre();
+
+        /**
+         * Unit of the reported score: "ns/op" per element operation, "ms/op" per invocation, or
+         * "ops/us" element operations per microsecond.
+         */
+        String unidad();
+
+        /** Builds the state for a corpus of {@code tamanio} elements. Not measured. */
+        void preparar(int tamanio) throws IOException;
+
+        /**
+         * Runs the measured work once.
+         *
+         * @return A value derived from the work, consumed so the JIT cannot drop it.
+         */
+        long ejecutar() throws IOException;
+
+        /** Number of element operations performed by one call to {@link #ejecutar()}. */
+        int operaciones();
+
+        /** Releases the state built by {@link #preparar(int)}. */
+        default void liberar() throws IOException {
+        }
+    }
+
+    private static volatile long sumidero;
+
+    private static final String[] SILABAS = {"ra", "quel", "san", "do", "val", "i", "van", "los", "cher",
+        "chris", "tian", "gui", "llen", "dri", "ja", "fun", "da", "cio", "nes", "auto", "cad", "gra", "ph", "rest"};
+
+    public static void main(String[] args) throws IOException {
+        int[] tamanios = {1_000, 10_000, 100_000, 1_000_000};
+        int[] hilos = {1, 2, 4, 8};
+        int calentamiento = 3;
+        int iteraciones = 5;
+        long tiempoMinimoNanos = 500_000_000L;
+        String filtro = "";
+        Path salida = Paths.get("benchmark.json");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--tamanios":
+                    tamanios = enteros(args[i + 1]);
+                    break;
+                case "--hilos":
+                    hilos = enteros(args[i + 1]);
+                    break;
+                case "--calentamiento":
+                    calentamiento = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--iteraciones":
+                    iteraciones = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--tiempo-ms":
+                    tiempoMinimoNanos = Long.parseLong(args[i + 1]) * 1_000_000L;
+                    break;
+                case "--filtro":
+                    filtro = args[i + 1];
+                    break;
+                case "--salida":
+                    salida = Paths.get(args[i + 1]);
+                    break;
+                default:
+                    System.out.println("Opción desconocida: " + args[i]);
+                    return;
+            }
+        }
+
+        PrintStream consola = System.out;
+        StringBuilder json = new StringBuilder("[\n");
+        boolean primero = true;
+        consola.printf("%-52s %10s %6s %16s %14s  %s%n", "Benchmark", "tamanio", "hilos", "score", "error", "unidad");
+        for (Caso caso : casos()) {
+            if (!caso.nombre().contains(filtro)) {
+                continue;
+            }
+            int[] hilosCaso = caso instanceof CasoConcurrente ? hilos : new int[] {1};
+            for (int tamanio : tamanios) {
+                for (int cantidadHilos : hilosCaso) {
+                    if (caso instanceof CasoConcurrente) {
+                        ((CasoConcurrente) caso).hilos = cantidadHilos;
+                    }
+                    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                    double[] resultados;
+                    try {
+                        caso.preparar(tamanio);
+                        for (int i = 0; i < calentamiento; i++) {
+                            medir(caso, tiempoMinimoNanos);
+                        }
+                        resultados = new double[iteraciones];
+                        for (int i = 0; i < iteraciones; i++) {
+                            resultados[i] = medir(caso, tiempoMinimoNanos);
+                        }
+                        caso.liberar();
+                    } finally {
+                        System.setOut(consola);
+                    }
+                    double media = media(resultados);
+                    double error = error(resultados, media);
+                    consola.printf("%-52s %10d %6d %16.3f %14.3f  %s%n", caso.nombre(), tamanio, cantidadHilos,
+                            media, error, caso.unidad());
+                    if (!primero) {
+                        json.append(",\n");
+                    }
+                    primero = false;
+                    agregarJson(json, caso, tamanio, cantidadHilos, calentamiento, resultados, media, error);
+                }
+            }
+        }
+        json.append("\n]\n");
+        Files.write(salida, json.toString().getBytes(StandardCharsets.UTF_8));
+        consola.println("Resultados escritos en " + salida.toAbsolutePath());
+    }
+
+    private static int[] enteros(String lista) {
+        String[] partes = lista.split(",");
+        int[] valores = new int[partes.length];
+        for (int j = 0; j < partes.length; j++) {
+            valores[j] = Integer.parseInt(partes[j].trim());
+        }
+        return valores;
+    }
+
+    /**
+     * Runs the benchmark repeatedly for at least the given time and returns the score:
+     * nanoseconds per element operation, milliseconds per invocation, or element operations
+     * per microsecond.
+     */
+    private static double medir(Caso caso, long tiempoMinimoNanos) throws IOException {
+        long invocaciones = 0;
+        long acumulado = 0;
+        long inicio = System.nanoTime();
+        long transcurrido;
+        do {
+            acumulado += caso.ejecutar();
+            invocaciones++;
+            transcurrido = System.nanoTime() - inicio;
+        } while (transcurrido < tiempoMinimoNanos);
+        sumidero += acumulado;
+        if (caso.unidad().equals("ms/op")) {
+            return transcurrido / 1e6 / invocaciones;
+        }
+        if (caso.unidad().equals("ops/us")) {
+            return (double) invocaciones * caso.operaciones() / (transcurrido / 1e3);
+        }
+        return (double) transcurrido / (invocaciones * caso.operaciones());
+    }
+
+    private static double media(double[] valores) {
+        double suma = 0;
+        for (double valor : valores) {
+            suma += valor;
+        }
+        return suma / valores.length;
+    }
+
+    /**
+     * Half-width of the 99.9% confidence interval of the mean, as JMH reports it.
+     */
+    private static double error(double[] valores, double media) {
+        int n = valores.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double suma = 0;
+        for (double valor : valores) {
+            suma += (valor - media) * (valor - media);
+        }
+        double desviacion = Math.sqrt(suma / (n - 1));
+        return tStudent999(n - 1) * desviacion / Math.sqrt(n);
+    }
+
+    /**
+     * Two-sided 99.9% Student's t quantile. Exact up to 10 degrees of freedom, then approximated
+     * within 1% by the normal quantile plus a 1/df correction.
+     */
+    private static double tStudent999(int gradosLibertad) {
+        double[] tabla = {636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587};
+        if (gradosLibertad <= tabla.length) {
+            return tabla[gradosLibertad - 1];
+        }
+        return 3.291 + 12.0 / gradosLibertad;
+    }
+
+    private static void agregarJson(StringBuilder json, Caso caso, int tamanio, int hilos, int calentamiento,
+                                    double[] resultados, double media, double error) {
+        json.append("  {\n");
+        json.append("    \"benchmark\": \"").append(caso.nombre()).append("\",\n");
+        json.append("    \"mode\": \"").append(caso.unidad().equals("ops/us") ? "thrpt" : "avgt").append("\",\n");
+        json.append("    \"threads\": ").append(hilos).append(",\n");
+        json.append("    \"forks\": 1,\n");
+        json.append("    \"jdkVersion\": \"").append(System.getProperty("java.version")).append("\",\n");
+        json.append("    \"vmName\": \"").append(System.getProperty("java.vm.name")).append("\",\n");
+        json.append("    \"warmupIterations\": ").append(calentamiento).append(",\n");
+        json.append("    \"measurementIterations\": ").append(resultados.length).append(",\n");
+        json.append("    \"params\": {\"tamanio\": \"").append(tamanio).append("\"},\n");
+        json.append("    \"primaryMetric\": {\n");
+        json.append("      \"score\": ").append(numero(media)).append(",\n");
+        json.append("      \"scoreError\": ").append(numero(error)).append(",\n");
+        json.append("      \"scoreConfidence\": [").append(numero(media - error)).append(", ")
+                .append(numero(media + error)).append("],\n");
+        json.append("      \"scoreUnit\": \"").append(caso.unidad()).append("\",\n");
+        json.append("      \"rawData\": [[");
+        for (int i = 0; i < resultados.length; i++) {
+            json.append(i == 0 ? "" : ", ").append(numero(resultados[i]));
+        }
+        json.append("]]\n    }\n  }");
+    }
+
+    private static String numero(double valor) {
+        return Double.isNaN(valor) ? "\"NaN\"" : Double.toString(valor);
+    }
+
+    // ------------------------------------------------------------------ corpus
+
+    private static String palabra(Random random) {
+        int silabas = 2 + random.nextInt(3);
+        StringBuilder palabra = new StringBuilder();
+        for (int i = 0; i < silabas; i++) {
+            palabra.append(SILABAS[random.nextInt(SILABAS.length)]);
+        }
+        return palabra.toString();
+    }
+
+    /**
+     * Builds {@code tamanio} summaries with distinct titles, three authors drawn from
+     * {@code tamanio / 5} names and two keywords drawn from {@code tamanio / 10} terms.
+     */
+    private static Resumen[] corpus(int tamanio) {
+        Random random = new Random(42);
+        String[] autores = new String[Math.max(1, tamanio / 5)];
+        for (int i = 0; i < autores.length; i++) {
+            autores[i] = palabra(random) + " " + palabra(random) + " " + i;
+        }
+        String[] palabrasClave = new String[Math.max(1, tamanio / 10)];
+        for (int i = 0; i < palabrasClave.length; i++) {
+            palabrasClave[i] = palabra(random) + i;
+        }
+        Resumen[] resumenes = new Resumen[tamanio];
+        for (int i = 0; i < tamanio; i++) {
+            StringBuilder cuerpo = new StringBuilder();
+            for (int j = 0; j < 30; j++) {
+                cuerpo.append(palabra(random)).append(' ');
+            }
+            resumenes[i] = new Resumen("Resumen " + i + " " + palabra(random),
+                    new String[] {autores[random.nextInt(autores.length)], autores[random.nextInt(autores.length)],
+                        autores[random.nextInt(autores.length)]},
+                    cuerpo.toString(),
+                    new String[] {palabrasClave[random.nextInt(palabrasClave.length)],
+                        palabrasClave[random.nextInt(palabrasClave.length)]},
+                    "");
+        }
+        return resumenes;
+    }
+
+    private static String[] claves(int tamanio, String prefijo) {
+        String[] claves = new String[tamanio];
+        for (int i = 0; i < tamanio; i++) {
+            claves[i] = prefijo + i;
+        }
+        return claves;
+    }
+
+    private static void mezclar(String[] arreglo, Random random) {
+        for (int i = arreglo.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String t = arreglo[i];
+            arreglo[i] = arreglo[j];
+            arreglo[j] = t;
+        }
+    }
+
+    private static void borrarDirectorio(Path directorio) throws IOException {
+        if (directorio == null || !Files.exists(directorio)) {
+            return;
+        }
+        try (Stream<Path> rutas = Files.walk(directorio)) {
+            Path[] ordenadas = rutas.sorted(Comparator.reverseOrder()).toArray(Path[]::new);
+            for (Path ruta : ordenadas) {
+                Files.delete(ruta);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------ benchmarks
+
+    private static Caso[] casos() {
+        return new Caso[] {
+            new Caso() {
+                String[] claves;
+
+                public String nombre() { return "MyMap.put"; }
+                public String unidad() { return "ns/op"; }
+                public int operaciones() { return claves.length; }
+
+                public void preparar(int tamanio) {
+                    claves = claves(tamanio, "clave");
+                }
+
+                public long ejecutar() {
+                    MyMap<String, Integer> mapa = new MyMap<>();
+                    for (int i = 0; i < claves.length; i++) {
+                        mapa.put(claves[i], i);
+                    }
+                    return mapa.size();
+                }
+            },
+            new Caso() {
+                String[] consultas;
+                MyMap<String, Integer> mapa;
+
+                public String nombre() { return "MyMap.get"; }
+                public String unidad() { return "ns/op"; }
+                public int operaciones() { return consultas.length; }
+
+                public void preparar(int tamanio) {
+                    String[] claves = claves(tamanio, "clave");
+                    mapa = new MyMap<>();
+                    for (int i = 0; i < tamanio; i++) {
+                        mapa.put(claves[i], i);
+                    }
+                    consultas = claves(tamanio, "clave");
+                    mezclar(consultas, new Random(7));
+                }
+
+                public long ejecutar() {
+                    long suma = 0;
+                    for (String clave : consultas) {
+                        suma += mapa.get(clave);
+                    }
+                    return suma;
+                }
+            },
+            new Caso() {
+                String[] consultas;
+                MyMap<String, Integer> mapa;
+
+                public String nombre() { return "MyMap.containsKey"; }
+                public String unidad() { return "ns/op"; }
+                public int operaciones() { return consultas.length; }
+
+                public void preparar(int tamanio) {
+                    String[] claves = claves(tamanio, "clave");
+                    mapa = new MyMap<>();
+                    for (int i = 0; i < tamanio; i++) {
+                        mapa.put(claves[i], i);
+                    }
+                    // Half of the lookups hit, half miss.
+                    consultas = new String[tamanio];
+                    for (int i = 0; i < tamanio; i++) {
+                        consultas[i] = (i % 2 == 0 ? "clave" : "ausente") + i;
+                    }
+                    mezclar(consultas, new Random(7));
+                }
+
+                public long ejecutar() {
+                    long encontrados = 0;
+                    for (String clave : consultas) {
+                        if (mapa.containsKey(clave)) {
+                            encontrados++;
+                        }
+                    }
+                    return encontrados;
+                }
+            },
+            new Caso() {
+                int tamanio;
+
+                public String nombre() { return "MyLinkedList.add"; }
+                public String unidad() { return "ns/op"; }
+                public int operaciones() { return tamanio; }
+
+                public void preparar(int tamanio) {
+                    this.tamanio = tamanio;
+                }
+
+                public long ejecutar() {
+                    MyLinkedList<Integer> lista = new MyLinkedList<>();
+                    Integer elemento = 1;
+                    for (int i = 0; i < tamanio; i++) {
+                        lista.add(elemento);
+                    }
+                    return lista.size();
+                }
+            },
+            new Caso() {
+                MyLinkedList<Integer> lista;
+
+                public String nombre() { return "MyLinkedList.get"; }
+                public String unidad() { return "ns/op"; }
+                public int operaciones() { return lista.size(); }
+
+                public void preparar(int tamanio) {
+                    lista = new MyLinkedList<>();
+                    for (int i = 0; i < tamanio; i++) {
+                        lista.add(i);
+                    }
+                }
+
+                public long ejecutar() {
+                    long suma = 0;
+                    for (int i = 0; i < lista.size(); i++) {
+                        suma += lista.get(i);
+                    }
+                    return suma;
+                }
+            },
+            new Caso() {
+                MyLinkedList<Integer> lista;
+
+                public String nombre() { return "MyLinkedList.iterator"; }
+                public String unidad() { return "ns/op"; }
+                public int operaciones() { return lista.size(); }
+
+                public void preparar(int tamanio) {
+                    lista = new MyLinkedList<>();
+                    for (int i = 0; i < tamanio; i++) {
+                        lista.add(i);
+                    }
+                }
+
+                public long ejecutar() {
+                    long suma = 0;
+                    Iterator<Integer> it = lista.iterator();
+                    while (it.hasNext()) {
+                        suma += it.next();
+                    }
+                    return suma;
+                }
+            },
+            new Caso() {
+                Resumen[] resumenes;
+                Investigacion[] investigaciones;
+
+                public String nombre() { return "BusquedaResumen.agregarInvestigacion"; }
+                public String unidad() { return "ns/op"; }
+                public int operaciones() { return resumenes.length; }
+
+                public void preparar(int tamanio) {
+                    resumenes = corpus(tamanio);
+                    investigaciones = new Investigacion[tamanio];
+                    for (int i = 0; i < tamanio; i++) {
+                        investigaciones[i] = new Investigacion(resumenes[i]);
+                    }
+                }
+
+                public long ejecutar() {
+                    BusquedaResumen busqueda = new BusquedaResumen();
+                    for (int i = 0; i < resumenes.length; i++) {
+                        busqueda.agregarInvestigacion(resumenes[i].getPalabrasClave()[0], investigaciones[i]);
+                    }
+                    return busqueda.buscarPorPalabraClave(resumenes[0].getPalabrasClave()[0]).size();
+                }
+            },
+            new CasoBusqueda("BusquedaResumen.buscarPorPalabraClave") {
+                String[] terminos(Resumen resumen) { return resumen.getPalabrasClave(); }
+                MyLinkedList<Investigacion> buscar(String termino) { return busqueda.buscarPorPalabraClave(termino); }
+            },
+            new CasoBusqueda("BusquedaResumen.buscarPorAutor") {
+                String[] terminos(Resumen resumen) { return resumen.getAutores(); }
+                MyLinkedList<Investigacion> buscar(String termino) { return busqueda.buscarPorAutor(termino); }
+            },
+            new CasoPersistencia("ResumenManager.guardarResumenesComoJson") {
+                public long ejecutar() {
+                    manager.guardarResumenesComoJson();
+                    return 1;
+                }
+            },
+            new CasoPersistencia("ResumenManager.cargarResumenesDesdeJson") {
+                public long ejecutar() {
+                    manager.cargarResumenesDesdeJson();
+                    return manager.listarTitulosResumenes().length;
+                }
+            },
+            new CasoConcurrente("MyConcurrentMap.put") {
+                String[] claves;
+                MyConcurrentMap<String, Integer> mapa;
+
+                public int operaciones() { return claves.length; }
+
+                void prepararDatos(int tamanio) {
+                    claves = claves(tamanio, "clave");
+                }
+
+                void iniciar() {
+                    mapa = new MyConcurrentMap<>();
+                }
+
+                long trabajar(int hilo) {
+                    for (int i = hilo; i < claves.length; i += hilos) {
+                        mapa.put(claves[i], i);
+                    }
+                    return 1;
+                }
+            },
+            new CasoConcurrente("MyMap.put.sincronizado") {
+                String[] claves;
+                MyMap<String, Integer> mapa;
+
+                public int operaciones() { return claves.length; }
+
+                void prepararDatos(int tamanio) {
+                    claves = claves(tamanio, "clave");
+                }
+
+                void iniciar() {
+                    mapa = new MyMap<>();
+                }
+
+                long trabajar(int hilo) {
+                    // Baseline: the single-threaded map behind one lock.
+                    for (int i = hilo; i < claves.length; i += hilos) {
+                        synchronized (mapa) {
+                            mapa.put(claves[i], i);
+                        }
+                    }
+                    return 1;
+                }
+            },
+            new CasoConcurrente("MyConcurrentMap.get") {
+                String[] consultas;
+                MyConcurrentMap<String, Integer> mapa;
+
+                public int operaciones() { return consultas.length; }
+
+                void prepararDatos(int tamanio) {
+                    String[] claves = claves(tamanio, "clave");
+                    mapa = new MyConcurrentMap<>();
+                    for (int i = 0; i < tamanio; i++) {
+                        mapa.put(claves[i], i);
+                    }
+                    consultas = claves(tamanio, "clave");
+                    mezclar(consultas, new Random(7));
+                }
+
+                long trabajar(int hilo) {
+                    long suma = 0;
+                    for (int i = hilo; i < consultas.length; i += hilos) {
+                        suma += mapa.get(consultas[i]);
+                    }
+                    return suma;
+                }
+            },
+            new CasoConcurrente("BusquedaResumen.agregarInvestigaciones.concurrente") {
+                MyLinkedList<Investigacion>[] lotes;
+                int tamanio;
+                BusquedaResumen busqueda;
+
+                public int operaciones() { return tamanio; }
+
+                @SuppressWarnings("unchecked")
+                void prepararDatos(int tamanio) {
+                    this.tamanio = tamanio;
+                    Resumen[] resumenes = corpus(tamanio);
+                    lotes = (MyLinkedList<Investigacion>[]) new MyLinkedList<?>[(tamanio + ImportadorMasivo.TAMANIO_LOTE - 1) / ImportadorMasivo.TAMANIO_LOTE];
+                    for (int i = 0; i < tamanio; i++) {
+                        int lote = i / ImportadorMasivo.TAMANIO_LOTE;
+                        if (lotes[lote] == null) {
+                            lotes[lote] = new MyLinkedList<>();
+                        }
+                        lotes[lote].add(new Investigacion(resumenes[i]));
+                    }
+                }
+
+                void iniciar() {
+                    busqueda = new BusquedaResumen();
+                }
+
+                long trabajar(int hilo) {
+                    for (int i = hilo; i < lotes.length; i += hilos) {
+                        busqueda.agregarInvestigaciones(lotes[i]);
+                    }
+                    return 1;
+                }
+            },
+            new CasoConcurrente("BusquedaResumen.buscarPorAutor.concurrente") {
+                CasoBusqueda consultas = new CasoBusqueda("") {
+                    String[] terminos(Resumen resumen) { return resumen.getAutores(); }
+                    MyLinkedList<Investigacion> buscar(String termino) { return busqueda.buscarPorAutor(termino); }
+                };
+
+                public int operaciones() { return consultas.consultas.length; }
+
+                void prepararDatos(int tamanio) {
+                    consultas.preparar(tamanio);
+                }
+
+                long trabajar(int hilo) {
+                    long encontrados = 0;
+                    for (int i = hilo; i < consultas.consultas.length; i += hilos) {
+                        encontrados += consultas.buscar(consultas.consultas[i]).size();
+                    }
+                    return encontrados;
+                }
+            }
+        };
+    }
+
+    /**
+     * A benchmark whose work is split among {@link #hilos} threads of a fixed pool. Each invocation
+     * starts with {@link #iniciar()} on the benchmark thread, then every thread runs its share and
+     * the invocation ends when all of them are done; both parts are measured.
+     */
+    private abstract static class CasoConcurrente implements Caso {
+        private final String nombre;
+        int hilos = 1;
+        private ExecutorService ejecutor;
+
+        CasoConcurrente(String nombre) {
+            this.nombre = nombre;
+        }
+
+        /** Builds the state shared by the threads. Not measured. */
+        abstract void prepararDatos(int tamanio);
+
+        /** Resets the state written by an invocation. */
+        void iniciar() {
+        }
+
+        /** Runs the share of thread {@code hilo}, usually the elements {@code hilo, hilo + hilos, ...}. */
+        abstract long trabajar(int hilo);
+
+        public String nombre() { return nombre; }
+        public String unidad() { return "ops/us"; }
+
+        public void preparar(int tamanio) {
+            prepararDatos(tamanio);
+            ejecutor = Executors.newFixedThreadPool(hilos);
+        }
+
+        public long ejecutar() throws IOException {
+            iniciar();
+            @SuppressWarnings("unchecked")
+            Future<Long>[] partes = (Future<Long>[]) new Future<?>[hilos];
+            for (int i = 0; i < hilos; i++) {
+                int hilo = i;
+                partes[i] = ejecutor.submit(() -> trabajar(hilo));
+            }
+            long total = 0;
+            try {
+                for (Future<Long> parte : partes) {
+                    total += parte.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Benchmark interrumpido.", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Error en un hilo del benchmark.", e.getCause());
+            }
+            return total;
+        }
+
+        public void liberar() {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Looks up random terms of one kind in an index of {@code tamanio} summaries.
+     */
+    private abstract static class CasoBusqueda implements Caso {
+        private static final int CONSULTAS = 10_000;
+        private final String nombre;
+        BusquedaResumen busqueda;
+        String[] consultas;
+
+        CasoBusqueda(String nombre) {
+            this.nombre = nombre;
+        }
+
+        abstract String[] terminos(Resumen resumen);
+
+        abstract MyLinkedList<Investigacion> buscar(String termino);
+
+        public String nombre() { return nombre; }
+        public String unidad() { return "ns/op"; }
+        public int operaciones() { return consultas.length; }
+
+        public void preparar(int tamanio) {
+            Resumen[] resumenes = corpus(tamanio);
+            MyLinkedList<Investigacion> investigaciones = new MyLinkedList<>();
+            for (Resumen resumen : resumenes) {
+                investigaciones.add(new Investigacion(resumen));
+            }
+            busqueda = new BusquedaResumen();
+            busqueda.agregarInvestigaciones(investigaciones);
+            Random random = new Random(7);
+            consultas = new String[CONSULTAS];
+            for (int i = 0; i < CONSULTAS; i++) {
+                String[] terminos = terminos(resumenes[random.nextInt(resumenes.length)]);
+                consultas[i] = terminos[random.nextInt(terminos.length)];
+            }
+        }
+
+        public long ejecutar() {
+            long encontrados = 0;
+            for (String consulta : consultas) {
+                encontrados += buscar(consulta).size();
+            }
+            return encontrados;
+        }
+    }
+
+    /**
+     * Saves or loads {@code tamanio} summaries in a temporary data directory.
+     */
+    private abstract static class CasoPersistencia implements Caso {
+        private final String nombre;
+        Path directorio;
+        ResumenManager manager;
+
+        CasoPersistencia(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String nombre() { return nombre; }
+        public String unidad() { return "ms/op"; }
+        public int operaciones() { return 1; }
+
+        public void preparar(int tamanio) throws IOException {
+            directorio = Files.createTempDirectory("metromendeley-bench");
+            manager = new ResumenManager(directorio);
+            MyLinkedList<Resumen> lote = new MyLinkedList<>();
+            for (Resumen resumen : corpus(tamanio)) {
+                lote.add(resumen);
+            }
+            manager.agregarResumenes(lote);
+            manager.guardarResumenesComoJson();
+        }
+
+        public void liberar() throws IOException {
+            manager = null;
+            borrarDirectorio(directorio);
+        }
+    }
+}
\ No newline at end of file
@@ -1,21 +1,209 @@
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 /**
  * Manages the search functionality for summaries (resumenes) by keyword and author.
  * It allows adding new investigations to the search index and searching for investigations by keyword or author.
+ * <p>
+ * Investigations are identified by the document ID of their summary, which {@link ResumenManager}
+ * assigns densely as summaries are added; an investigation without one is numbered after the
+ * last document. Keywords and authors map to compressed {@link ListaPostings} of those IDs in
+ * increasing order, which lets {@link #buscar(String)} combine them with {@link ConsultaBooleana}.
+ * <p>
+ * Investigations may be added from several threads while others search. Keyword and author
+ * lookups never block: the indexes are {@link MyConcurrentMap}s of postings lists that readers
+ * access without locking. The completion tries and the fuzzy author index are restructured in
+ * place, so they sit behind a read-write lock; writers take it once per batch.
  */
 public class BusquedaResumen {
-    private MyMap<String, MyLinkedList<Investigacion>> resumenesPorPalabraClave;
-    private MyMap<String, MyLinkedList<Investigacion>> resumenesPorAutor;
+    /** Outcomes of {@link #agregarA}. */
+    private static final int OMITIDA = 0;
+    private static final int AGREGADA = 1;
+    private static final int CLAVE_NUEVA = 2;
+
+    private static final Histograma LATENCIA_PALABRA_CLAVE = Metricas.global().histograma("busqueda.palabraClave");
+    private static final Histograma LATENCIA_AUTOR = Metricas.global().histograma("busqueda.autor");
+    private static final Histograma LATENCIA_BOOLEANA = Metricas.global().histograma("busqueda.booleana");
+    /** Fuzzy author queries whose matches are kept between searches. */
+    private static final int CONSULTAS_EN_CACHE = 256;
+
+    /** Words the term filters are sized for before they grow. */
+    private static final int CAPACIDAD_FILTROS = 1024;
+    private static final LongAdder DESCARTES = Metricas.global().contador("filtros.descartes");
+
+    /** Indexed investigations, by ID. */
+    private final MyConcurrentList<Investigacion> documentos;
+    /** IDs of every indexed investigation. */
+    private final ListaPostings todos;
+    private MyConcurrentMap<String, ListaPostings> resumenesPorPalabraClave;
+    private MyConcurrentMap<String, ListaPostings> resumenesPorAutor;
+    /**
+     * Words of every keyword and of every author, so a term that is not one of them is known to
+     * match nothing without walking the completion tries. A word is added before the first key
+     * having it is published, so a reader never finds a key whose words the filter lacks.
+     */
+    private final FiltroBloom filtroPalabrasClave;
+    private final FiltroBloom filtroAutores;
+    private TrieAutocompletado sugerenciasPalabrasClave = new TrieAutocompletado();
+    private TrieAutocompletado sugerenciasAutores = new TrieAutocompletado();
+    private IndiceDifusoAutores autoresAproximados = new IndiceDifusoAutores();
+    /** Guards {@link #sugerenciasPalabrasClave}, {@link #sugerenciasAutores} and {@link #autoresAproximados}. */
+    private final ReadWriteLock cerrojoSugerencias = new ReentrantReadWriteLock();
+    /**
+     * Recent fuzzy author matches, keyed by the query and tagged with the authors found. Adding
+     * investigations of a listed author invalidates an entry, since its count changes; a new
+     * author may match any query, so it invalidates them all. Exact keyword and author lookups
+     * need no cache: they return a snapshot of the posting list in constant time.
+     */
+    private final CacheConsultas<MyLinkedList<Sugerencia>> cacheAutoresSimilares =
+            new CacheConsultas<>("autoresSimilares", CONSULTAS_EN_CACHE);
 
     /**
      * Initializes the search manager with empty search indexes for keywords and authors.
      */
     public BusquedaResumen() {
+        this.documentos = new MyConcurrentList<>();
+        this.todos = new ListaPostings();
         if (this.resumenesPorPalabraClave == null) {
-            this.resumenesPorPalabraClave = new MyMap<>();
+            this.resumenesPorPalabraClave = new MyConcurrentMap<>();
         }
         if (this.resumenesPorAutor == null) {
-            this.resumenesPorAutor = new MyMap<>();
+            this.resumenesPorAutor = new MyConcurrentMap<>();
+        }
+        this.filtroPalabrasClave = new FiltroBloom(CAPACIDAD_FILTROS);
+        this.filtroAutores = new FiltroBloom(CAPACIDAD_FILTROS);
+    }
+
+    /**
+     * Initializes the search manager with indexes that were already built, for example loaded
+     * by {@link SegmentoBusqueda}.
+     *
+     * @param documentos The indexed investigations, each at the position of its ID.
+     * @param resumenesPorPalabraClave Investigation IDs by normalized keyword.
+     * @param resumenesPorAutor Investigation IDs by normalized author.
+     * @param filtroPalabrasClave The words of every keyword, or {@code null} to gather them from the keywords.
+     * @param filtroAutores The words of every author, or {@code null} to gather them from the authors.
+     */
+    BusquedaResumen(MyConcurrentList<Investigacion> documentos,
+                    MyConcurrentMap<String, ListaPostings> resumenesPorPalabraClave,
+                    MyConcurrentMap<String, ListaPostings> resumenesPorAutor,
+                    FiltroBloom filtroPalabrasClave, FiltroBloom filtroAutores) {
+        this.documentos = documentos;
+        int[] ids = new int[documentos.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        this.todos = new ListaPostings(ids, ids.length);
+        this.resumenesPorPalabraClave = resumenesPorPalabraClave;
+        this.resumenesPorAutor = resumenesPorAutor;
+        this.filtroPalabrasClave = filtroPalabrasClave != null ? filtroPalabrasClave : filtroDe(resumenesPorPalabraClave);
+        this.filtroAutores = filtroAutores != null ? filtroAutores : filtroDe(resumenesPorAutor);
+        llenarSugerencias(resumenesPorPalabraClave, sugerenciasPalabrasClave);
+        llenarSugerencias(resumenesPorAutor, sugerenciasAutores);
+        Iterator<MyMap.Entry<String, ListaPostings>> it = resumenesPorAutor.entryList().iterator();
+        while (it.hasNext()) {
+            autoresAproximados.agregar(it.next().getKey());
+        }
+    }
+
+    private static FiltroBloom filtroDe(MyConcurrentMap<String, ListaPostings> indice) {
+        FiltroBloom filtro = new FiltroBloom(Math.max(CAPACIDAD_FILTROS, 2 * indice.size()));
+        Iterator<MyMap.Entry<String, ListaPostings>> it = indice.entryList().iterator();
+        while (it.hasNext()) {
+            agregarPalabras(filtro, it.next().getKey());
+        }
+        return filtro;
+    }
+
+    /**
+     * Adds to a filter the words of a key: its runs of letters and digits. A term found in a key
+     * at word boundaries, as {@link #expandir} looks for it, has each of its own runs among them.
+     */
+    static void agregarPalabras(FiltroBloom filtro, String clave) {
+        int inicio = -1;
+        for (int i = 0; i <= clave.length(); i++) {
+            boolean letra = i < clave.length() && Character.isLetterOrDigit(clave.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                filtro.agregar(clave.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a filter may hold every word of a term, that is, whether some key may
+     * contain the term. A term without letters or digits cannot be ruled out.
+     */
+    static boolean puedeContenerPalabras(FiltroBloom filtro, String termino) {
+        int inicio = -1;
+        for (int i = 0; i <= termino.length(); i++) {
+            boolean letra = i < termino.length() && Character.isLetterOrDigit(termino.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                if (!filtro.puedeContener(termino.substring(inicio, i))) {
+                    return false;
+                }
+                inicio = -1;
+            }
+        }
+        return true;
+    }
+
+    private static void llenarSugerencias(MyConcurrentMap<String, ListaPostings> indice,
+                                          TrieAutocompletado sugerencias) {
+        Iterator<MyMap.Entry<String, ListaPostings>> it = indice.entryList().iterator();
+        while (it.hasNext()) {
+            MyMap.Entry<String, ListaPostings> entrada = it.next();
+            sugerencias.agregar(entrada.getKey(), entrada.getValue().size());
+        }
+    }
+
+    /**
+     * Records an investigation under its ID, numbering it first if it has none. Another
+     * investigation of the same summary is the same document and keeps its place.
+     *
+     * @return The ID of the investigation.
+     * @throws IllegalArgumentException If the ID already belongs to another summary.
+     */
+    private int numerar(Investigacion investigacion) {
+        int id;
+        // Recorded before any posting refers to it, so every ID a reader sees resolves
+        synchronized (investigacion) {
+            id = investigacion.getId();
+            if (id < 0) {
+                id = documentos.add(investigacion);
+                investigacion.setId(id);
+            } else {
+                synchronized (documentos) {
+                    Investigacion existente = id < documentos.size() ? documentos.get(id) : null;
+                    if (existente == null) {
+                        documentos.colocar(id, investigacion);
+                    } else if (existente.getResumen() != investigacion.getResumen()) {
+                        throw new IllegalArgumentException("El ID " + id + " ya pertenece a otra investigación.");
+                    }
+                }
+            }
         }
+        todos.agregar(id);
+        return id;
+    }
+
+    /**
+     * Returns the key under which a keyword is indexed.
+     */
+    static String normalizarPalabraClave(String palabraClave) {
+        return palabraClave.trim().toLowerCase();
+    }
+
+    /**
+     * Returns the key under which an author is indexed.
+     */
+    static String normalizarAutor(String autor) {
+        return autor.trim().toLowerCase();
     }
 
     /**
@@ -25,51 +213,453 @@ public class BusquedaResumen {
      * @param investigacion The investigation object to be added.
      */
     public void agregarInvestigacion(String palabraClave, Investigacion investigacion) {
-        palabraClave = palabraClave.toLowerCase(); // Ensure consistency in keyword case
+        palabraClave = normalizarPalabraClave(palabraClave); // Ensure consistency in keyword case
+        int id = numerar(investigacion);
         // Add investigation by keyword
-        if (!resumenesPorPalabraClave.containsKey(palabraClave)) {
-            resumenesPorPalabraClave.put(palabraClave, new MyLinkedList<>());
-        }
-        resumenesPorPalabraClave.get(palabraClave).add(investigacion);
+        boolean palabraClaveAgregada = agregarA(resumenesPorPalabraClave, filtroPalabrasClave, palabraClave, id) != OMITIDA;
 
         // Update resumenesPorAutor
-        MyLinkedList<String> autores = investigacion.getAutores();
-        Iterator<String> autoresIterator = autores.iterator();
+        MyLinkedList<String> autoresNuevos = new MyLinkedList<>();
+        MyLinkedList<String> autoresAfectados = new MyLinkedList<>();
+        Iterator<String> autoresIterator = investigacion.getAutores().iterator();
         while (autoresIterator.hasNext()) {
-            String autor = autoresIterator.next().toLowerCase(); // Ensure consistency in author name case
-            if (!resumenesPorAutor.containsKey(autor)) {
-                resumenesPorAutor.put(autor, new MyLinkedList<>());
+            String autor = normalizarAutor(autoresIterator.next()); // Ensure consistency in author name case
+            int resultado = agregarA(resumenesPorAutor, filtroAutores, autor, id);
+            if (resultado == CLAVE_NUEVA) {
+                autoresNuevos.add(autor);
+            }
+            // Completions count investigations, so one already indexed under this key is not counted again.
+            if (resultado != OMITIDA) {
+                autoresAfectados.add(autor);
+            }
+        }
+
+        cerrojoSugerencias.writeLock().lock();
+        try {
+            if (palabraClaveAgregada) {
+                sugerenciasPalabrasClave.agregar(palabraClave, 1);
+            }
+            Iterator<String> it = autoresAfectados.iterator();
+            while (it.hasNext()) {
+                sugerenciasAutores.agregar(it.next(), 1);
+            }
+            it = autoresNuevos.iterator();
+            while (it.hasNext()) {
+                autoresAproximados.agregar(it.next());
+            }
+        } finally {
+            cerrojoSugerencias.writeLock().unlock();
+        }
+        invalidarAutoresSimilares(autoresNuevos, autoresAfectados);
+    }
+
+    /**
+     * Adds a batch of investigations to both indexes, each under every keyword of its summary
+     * and every one of its authors. Unlike {@link #agregarInvestigacion(String, Investigacion)},
+     * authors are indexed once per investigation, not once per keyword.
+     * <p>
+     * Several threads may add batches at once. Postings become visible to searches as they are
+     * added; completions and fuzzy author matches once the whole batch is indexed.
+     *
+     * @param investigaciones The investigations to add.
+     */
+    public void agregarInvestigaciones(MyLinkedList<Investigacion> investigaciones) {
+        // Completion counts are summed per batch and applied under the lock in one go.
+        MyMap<String, int[]> incrementosPalabrasClave = new MyMap<>();
+        MyMap<String, int[]> incrementosAutores = new MyMap<>();
+        MyLinkedList<String> autoresNuevos = new MyLinkedList<>();
+        Iterator<Investigacion> it = investigaciones.iterator();
+        while (it.hasNext()) {
+            Investigacion investigacion = it.next();
+            int id = numerar(investigacion);
+            String[] palabrasClave = investigacion.getResumen().getPalabrasClave();
+            if (palabrasClave != null) {
+                for (String palabraClave : palabrasClave) {
+                    String clave = normalizarPalabraClave(palabraClave);
+                    if (agregarA(resumenesPorPalabraClave, filtroPalabrasClave, clave, id) != OMITIDA) {
+                        contar(incrementosPalabrasClave, clave);
+                    }
+                }
+            }
+            Iterator<String> autoresIterator = investigacion.getAutores().iterator();
+            while (autoresIterator.hasNext()) {
+                String autor = normalizarAutor(autoresIterator.next());
+                int resultado = agregarA(resumenesPorAutor, filtroAutores, autor, id);
+                if (resultado == CLAVE_NUEVA) {
+                    autoresNuevos.add(autor);
+                }
+                if (resultado != OMITIDA) {
+                    contar(incrementosAutores, autor);
+                }
             }
-            resumenesPorAutor.get(autor).add(investigacion);
         }
-        System.out.println("Mapa actual: " + resumenesPorPalabraClave);
+
+        cerrojoSugerencias.writeLock().lock();
+        try {
+            aplicar(incrementosPalabrasClave, sugerenciasPalabrasClave);
+            aplicar(incrementosAutores, sugerenciasAutores);
+            Iterator<String> nuevos = autoresNuevos.iterator();
+            while (nuevos.hasNext()) {
+                autoresAproximados.agregar(nuevos.next());
+            }
+        } finally {
+            cerrojoSugerencias.writeLock().unlock();
+        }
+        MyLinkedList<String> autoresAfectados = new MyLinkedList<>();
+        Iterator<MyMap.Entry<String, int[]>> afectados = incrementosAutores.entryList().iterator();
+        while (afectados.hasNext()) {
+            autoresAfectados.add(afectados.next().getKey());
+        }
+        invalidarAutoresSimilares(autoresNuevos, autoresAfectados);
     }
 
     /**
-     * Searches for investigations by a given keyword.
+     * Drops the cached fuzzy matches made stale by newly indexed investigations. Called after
+     * the indexes are updated, so a match computed before the update is not cached.
+     *
+     * @param autoresNuevos The authors that were not indexed before.
+     * @param autoresAfectados The normalized authors that got new investigations.
+     */
+    private void invalidarAutoresSimilares(MyLinkedList<String> autoresNuevos, MyLinkedList<String> autoresAfectados) {
+        if (autoresNuevos.size() > 0) {
+            cacheAutoresSimilares.invalidarTodo();
+        } else {
+            cacheAutoresSimilares.invalidar(autoresAfectados);
+        }
+    }
+
+    /**
+     * Adds an investigation ID to the postings of a key, creating them if needed. The words of a
+     * new key go to the filter of the index first.
+     *
+     * @return {@link #OMITIDA} if the ID was already there, {@link #CLAVE_NUEVA} if this call
+     *         created the postings, {@link #AGREGADA} otherwise.
+     */
+    private static int agregarA(MyConcurrentMap<String, ListaPostings> indice, FiltroBloom filtro, String clave, int id) {
+        ListaPostings lista = indice.get(clave);
+        int resultado = AGREGADA;
+        if (lista == null) {
+            agregarPalabras(filtro, clave);
+            ListaPostings nueva = new ListaPostings();
+            lista = indice.putIfAbsent(clave, nueva);
+            if (lista == null) {
+                lista = nueva;
+                resultado = CLAVE_NUEVA;
+            }
+        }
+        // Keyword or author repeated within the same summary
+        return lista.agregar(id) ? resultado : OMITIDA;
+    }
+
+    private static void contar(MyMap<String, int[]> incrementos, String clave) {
+        int[] contador = incrementos.get(clave);
+        if (contador == null) {
+            incrementos.put(clave, new int[] {1});
+        } else {
+            contador[0]++;
+        }
+    }
+
+    private static void aplicar(MyMap<String, int[]> incrementos, TrieAutocompletado sugerencias) {
+        Iterator<MyMap.Entry<String, int[]>> it = incrementos.entryList().iterator();
+        while (it.hasNext()) {
+            MyMap.Entry<String, int[]> entrada = it.next();
+            sugerencias.agregar(entrada.getKey(), entrada.getValue()[0]);
+        }
+    }
+
+    /**
+     * Searches for investigations by a given keyword. Never blocks.
      * 
      * @param palabraClave The keyword to search for.
-     * @return A list of investigations associated with the given keyword.
+     * @return A new list of the investigations associated with the given keyword.
      */
     public MyLinkedList<Investigacion> buscarPorPalabraClave(String palabraClave) {
-        palabraClave = palabraClave.toLowerCase(); // Ensure consistency in keyword case
-        if (resumenesPorPalabraClave.containsKey(palabraClave)) {
-            return resumenesPorPalabraClave.get(palabraClave);
-        }
-        return new MyLinkedList<>();
+        long inicio = System.nanoTime();
+        palabraClave = normalizarPalabraClave(palabraClave); // Ensure consistency in keyword case
+        MyLinkedList<Investigacion> copia = resultados(resumenesPorPalabraClave.get(palabraClave)).toLinkedList();
+        LATENCIA_PALABRA_CLAVE.registrarDesde(inicio);
+        return copia;
     }
 
     /**
-     * Searches for investigations by a given author.
+     * Searches for investigations by a given author. Never blocks.
      * 
      * @param autor The author to search for.
-     * @return A list of investigations associated with the given author.
+     * @return A new list of the investigations associated with the given author.
      */
     public MyLinkedList<Investigacion> buscarPorAutor(String autor) {
-        autor = autor.toLowerCase(); // Ensure consistency in author name case
-        if (this.resumenesPorAutor.containsKey(autor)) {
-            return this.resumenesPorAutor.get(autor);
+        long inicio = System.nanoTime();
+        autor = normalizarAutor(autor); // Ensure consistency in author name case
+        MyLinkedList<Investigacion> copia = resultados(this.resumenesPorAutor.get(autor)).toLinkedList();
+        LATENCIA_AUTOR.registrarDesde(inicio);
+        return copia;
+    }
+
+    /**
+     * Searches for investigations by a given keyword without copying the results. Never blocks.
+     *
+     * @param palabraClave The keyword to search for.
+     * @return A read-only view of the investigations associated with the keyword when called.
+     */
+    public ResultadosConsulta instantaneaPorPalabraClave(String palabraClave) {
+        long inicio = System.nanoTime();
+        ResultadosConsulta resultados = resultados(resumenesPorPalabraClave.get(normalizarPalabraClave(palabraClave)));
+        LATENCIA_PALABRA_CLAVE.registrarDesde(inicio);
+        return resultados;
+    }
+
+    /**
+     * Searches for investigations by a given author without copying the results. Never blocks.
+     *
+     * @param autor The author to search for.
+     * @return A read-only view of the investigations associated with the author when called.
+     */
+    public ResultadosConsulta instantaneaPorAutor(String autor) {
+        long inicio = System.nanoTime();
+        ResultadosConsulta resultados = resultados(resumenesPorAutor.get(normalizarAutor(autor)));
+        LATENCIA_AUTOR.registrarDesde(inicio);
+        return resultados;
+    }
+
+    /**
+     * Returns the number of distinct keywords in the index.
+     *
+     * @return The number of keywords.
+     */
+    public int cantidadPalabrasClave() {
+        return resumenesPorPalabraClave.size();
+    }
+
+    /**
+     * Returns the number of distinct authors in the index.
+     *
+     * @return The number of authors.
+     */
+    public int cantidadAutores() {
+        return resumenesPorAutor.size();
+    }
+
+    private ResultadosConsulta resultados(ListaPostings postings) {
+        return resolver(postings == null ? ListaPostings.Instantanea.VACIA : postings.instantanea());
+    }
+
+    /**
+     * Resolves a set of IDs taken from this index into investigations. The documents are read
+     * after the IDs, so every ID is covered.
+     */
+    private ResultadosConsulta resolver(ListaPostings.Instantanea ids) {
+        return new ResultadosConsulta(ids, documentos.instantanea());
+    }
+
+    /**
+     * Answers a boolean query over keywords and authors, such as
+     * {@code AutoCAD AND fundaciones NOT C#} or {@code author:Sandoval OR author:Loscher}.
+     * See {@link ConsultaBooleana} for the syntax. Never blocks on writers.
+     *
+     * @param consulta The query.
+     * @return The matching investigations, in the order they were indexed.
+     * @throws IllegalArgumentException If the query is malformed.
+     */
+    public ResultadosConsulta buscar(String consulta) {
+        long inicio = System.nanoTime();
+        ConsultaBooleana analizada = ConsultaBooleana.analizar(consulta);
+        ResultadosConsulta resultados = resolver(analizada.ejecutar(this));
+        LATENCIA_BOOLEANA.registrarDesde(inicio);
+        return resultados;
+    }
+
+    /**
+     * Returns the IDs of every indexed investigation.
+     */
+    ListaPostings.Instantanea postingsTodos() {
+        return todos.instantanea();
+    }
+
+    /**
+     * Returns an estimate of the memory taken by the keyword and author postings.
+     *
+     * @return The number of bytes.
+     */
+    public long bytesPostings() {
+        return todos.bytesEstimados() + bytesPostings(resumenesPorPalabraClave) + bytesPostings(resumenesPorAutor);
+    }
+
+    /**
+     * Returns the memory taken by the keyword and author word filters.
+     *
+     * @return The number of bytes.
+     */
+    public long bytesFiltros() {
+        return filtroPalabrasClave.bytes() + filtroAutores.bytes();
+    }
+
+    /**
+     * Returns the number of fuzzy author matches cached.
+     *
+     * @return The number of entries.
+     */
+    public int entradasCacheAutoresSimilares() {
+        return cacheAutoresSimilares.size();
+    }
+
+    private static long bytesPostings(MyConcurrentMap<String, ListaPostings> indice) {
+        long bytes = 0;
+        Iterator<ListaPostings> it = indice.iterator();
+        while (it.hasNext()) {
+            bytes += it.next().bytesEstimados();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the IDs of the investigations with a keyword. A term that is not itself a keyword
+     * matches the keywords having it as one of their words.
+     */
+    ListaPostings.Instantanea postingsPalabraClave(String termino) {
+        String clave = normalizarPalabraClave(termino);
+        return expandir(resumenesPorPalabraClave, filtroPalabrasClave, clave, sugerenciasPalabrasClave);
+    }
+
+    /**
+     * Returns the IDs of the investigations by an author. A term that is not a full author name
+     * matches the authors having it as one of their names, so a surname alone finds them all.
+     */
+    ListaPostings.Instantanea postingsAutor(String termino) {
+        String clave = normalizarAutor(termino);
+        return expandir(resumenesPorAutor, filtroAutores, clave, sugerenciasAutores);
+    }
+
+    /**
+     * Returns the postings of a key, or the union of those of every key in which it occurs at
+     * word boundaries. A term with a word that no key has is answered by the filter alone.
+     */
+    private ListaPostings.Instantanea expandir(MyConcurrentMap<String, ListaPostings> indice, FiltroBloom filtro,
+                                               String clave, TrieAutocompletado sugerencias) {
+        if (!puedeContenerPalabras(filtro, clave)) {
+            DESCARTES.increment();
+            return ListaPostings.Instantanea.VACIA;
+        }
+        ListaPostings exacta = indice.get(clave);
+        if (exacta != null) {
+            return exacta.instantanea();
+        }
+        MyLinkedList<String> candidatas;
+        if (clave.isEmpty() || !Character.isLetterOrDigit(clave.charAt(0))) {
+            // The trie only has keys starting at a word; such a term is looked for in every key
+            candidatas = new MyLinkedList<>();
+            Iterator<MyMap.Entry<String, ListaPostings>> claves = indice.entryList().iterator();
+            while (claves.hasNext()) {
+                candidatas.add(claves.next().getKey());
+            }
+        } else {
+            cerrojoSugerencias.readLock().lock();
+            try {
+                candidatas = sugerencias.terminosConPalabra(clave);
+            } finally {
+                cerrojoSugerencias.readLock().unlock();
+            }
+        }
+        MyLinkedList<ListaPostings.Instantanea> listas = new MyLinkedList<>();
+        Iterator<String> it = candidatas.iterator();
+        while (it.hasNext()) {
+            String candidata = it.next();
+            ListaPostings postings = indice.get(candidata);
+            if (postings != null && tienePalabra(candidata, clave)) {
+                listas.add(postings.instantanea());
+            }
+        }
+        return ConsultaBooleana.unir(listas);
+    }
+
+    private static boolean tienePalabra(String texto, String palabra) {
+        int desde = 0;
+        while ((desde = texto.indexOf(palabra, desde)) >= 0) {
+            int fin = desde + palabra.length();
+            boolean inicioPalabra = desde == 0 || !Character.isLetterOrDigit(texto.charAt(desde - 1));
+            boolean finPalabra = fin == texto.length() || !Character.isLetterOrDigit(texto.charAt(fin));
+            if (inicioPalabra && finPalabra) {
+                return true;
+            }
+            desde++;
+        }
+        return false;
+    }
+
+    /**
+     * Suggests keywords having a word that starts with the given text, the most used first.
+     *
+     * @param prefijo The text typed so far.
+     * @param maxSugerencias The maximum number of suggestions.
+     * @return The suggested keywords with their number of investigations.
+     */
+    public MyLinkedList<Sugerencia> sugerirPalabrasClave(String prefijo, int maxSugerencias) {
+        cerrojoSugerencias.readLock().lock();
+        try {
+            return sugerenciasPalabrasClave.sugerir(prefijo.stripLeading().toLowerCase(), maxSugerencias);
+        } finally {
+            cerrojoSugerencias.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests authors having a name or surname that starts with the given text, the most prolific first.
+     *
+     * @param prefijo The text typed so far.
+     * @param maxSugerencias The maximum number of suggestions.
+     * @return The suggested authors with their number of investigations.
+     */
+    public MyLinkedList<Sugerencia> sugerirAutores(String prefijo, int maxSugerencias) {
+        cerrojoSugerencias.readLock().lock();
+        try {
+            return sugerenciasAutores.sugerir(prefijo.stripLeading().toLowerCase(), maxSugerencias);
+        } finally {
+            cerrojoSugerencias.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the indexed authors whose name is close to the given one, ignoring accents, hyphens
+     * and spacing and tolerating a few typos. A surname alone also finds the full name.
+     *
+     * @param autor The author name, or part of it, as typed.
+     * @param maxResultados The maximum number of authors to return.
+     * @return The closest authors with their number of investigations, closest first.
+     */
+    public MyLinkedList<Sugerencia> buscarAutoresSimilares(String autor, int maxResultados) {
+        MyLinkedList<Sugerencia> similares = cacheAutoresSimilares.obtener(autor + "#" + maxResultados,
+                () -> calcularAutoresSimilares(autor, maxResultados), BusquedaResumen::terminos);
+        MyLinkedList<Sugerencia> copia = new MyLinkedList<>();
+        Iterator<Sugerencia> it = similares.iterator();
+        while (it.hasNext()) {
+            copia.add(it.next());
+        }
+        return copia;
+    }
+
+    private static String[] terminos(MyLinkedList<Sugerencia> sugerencias) {
+        String[] terminos = new String[sugerencias.size()];
+        Iterator<Sugerencia> it = sugerencias.iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            terminos[i] = it.next().getTermino();
+        }
+        return terminos;
+    }
+
+    private MyLinkedList<Sugerencia> calcularAutoresSimilares(String autor, int maxResultados) {
+        MyLinkedList<Sugerencia> similares = new MyLinkedList<>();
+        MyLinkedList<String> encontrados;
+        cerrojoSugerencias.readLock().lock();
+        try {
+            encontrados = autoresAproximados.buscar(autor, maxResultados);
+        } finally {
+            cerrojoSugerencias.readLock().unlock();
+        }
+        Iterator<String> it = encontrados.iterator();
+        while (it.hasNext()) {
+            String similar = it.next();
+            similares.add(new Sugerencia(similar, resumenesPorAutor.get(similar).size()));
         }
-        return new MyLinkedList<>();
+        return similares;
     }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of query results, evicting the least recently used entry, that can drop exactly
+ * the entries affected by newly indexed terms.
+ * <p>
+ * Each entry is stored with the index terms its result was computed from. Indexing a document
+ * invalidates the entries that share a term with it and leaves the rest alone. A result is
+ * returned but not stored if any invalidation happened while it was being computed, so a result
+ * that misses a document added meanwhile is never cached.
+ * <p>
+ * Hits, misses, evictions and invalidated entries are counted in the {@link Metricas} counters
+ * {@code cache.<nombre>.aciertos}, {@code .fallos}, {@code .desalojos} and {@code .invalidaciones}.
+ * The owner publishes {@link #size()} as the gauge {@code cache.<nombre>.entradas}, so the gauge
+ * follows whichever cache the owner currently uses.
+ *
+ * @param <V> the type of the cached results; they are shared between callers, so they must not be modified
+ */
+public class CacheConsultas<V> {
+    private static final class Nodo<V> {
+        final String clave;
+        final String[] terminos;
+        final V valor;
+        Nodo<V> anterior;
+        Nodo<V> siguiente;
+
+        Nodo(String clave, String[] terminos, V valor) {
+            this.clave = clave;
+            this.terminos = terminos;
+            this.valor = valor;
+        }
+    }
+
+    private final int capacidad;
+    private MyMap<String, Nodo<V>> nodos = new MyMap<>();
+    /** For each term, the entries computed from it, by key. */
+    private MyMap<String, MyMap<String, Nodo<V>>> porTermino = new MyMap<>();
+    /** Most recently used first. */
+    private Nodo<V> primero;
+    private Nodo<V> ultimo;
+    /** Incremented by every invalidation; a result is only stored if it did not change while it was computed. */
+    private long version;
+
+    private final LongAdder aciertos;
+    private final LongAdder fallos;
+    private final LongAdder desalojos;
+    private final LongAdder invalidaciones;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param nombre The name under which its statistics are published.
+     * @param capacidad The maximum number of entries.
+     */
+    public CacheConsultas(String nombre, int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva.");
+        }
+        this.capacidad = capacidad;
+        Metricas metricas = Metricas.global();
+        this.aciertos = metricas.contador("cache." + nombre + ".aciertos");
+        this.fallos = metricas.contador("cache." + nombre + ".fallos");
+        this.desalojos = metricas.contador("cache." + nombre + ".desalojos");
+        this.invalidaciones = metricas.contador("cache." + nombre + ".invalidaciones");
+    }
+
+    /**
+     * Returns the cached result of a query, computing and caching it on a miss. The result is
+     * computed without holding the cache lock, so two threads missing the same key may both compute it.
+     *
+     * @param clave The normalized query.
+     * @param calcular Computes the result on a miss.
+     * @param terminos Returns the index terms a computed result depends on.
+     * @return The cached or computed result.
+     */
+    public V obtener(String clave, Supplier<V> calcular, Function<V, String[]> terminos) {
+        long versionInicial;
+        synchronized (this) {
+            Nodo<V> nodo = nodos.get(clave);
+            if (nodo != null) {
+                aciertos.increment();
+                desenlazar(nodo);
+                enlazarAlFrente(nodo);
+                return nodo.valor;
+            }
+            versionInicial = version;
+        }
+        fallos.increment();
+        V valor = calcular.get();
+        synchronized (this) {
+            if (version == versionInicial && !nodos.containsKey(clave)) {
+                guardar(new Nodo<>(clave, terminos.apply(valor), valor));
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Drops the entries computed from any of the given terms.
+     *
+     * @param terminos Terms that were just indexed for a new document.
+     */
+    public synchronized void invalidar(MyLinkedList<String> terminos) {
+        version++;
+        if (nodos.size() == 0) {
+            return;
+        }
+        Iterator<String> it = terminos.iterator();
+        while (it.hasNext()) {
+            MyMap<String, Nodo<V>> afectados = porTermino.get(it.next());
+            if (afectados == null) {
+                continue;
+            }
+            Iterator<Nodo<V>> nodosAfectados = afectados.values().iterator();
+            while (nodosAfectados.hasNext()) {
+                quitar(nodosAfectados.next());
+                invalidaciones.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public synchronized void invalidarTodo() {
+        version++;
+        invalidaciones.add(nodos.size());
+        nodos = new MyMap<>();
+        porTermino = new MyMap<>();
+        primero = null;
+        ultimo = null;
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return nodos.size();
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache by every cache with this one's name.
+     *
+     * @return The number of hits.
+     */
+    public long aciertos() {
+        return aciertos.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to compute their result, by every cache with this one's name.
+     *
+     * @return The number of misses.
+     */
+    public long fallos() {
+        return fallos.sum();
+    }
+
+    private void guardar(Nodo<V> nodo) {
+        if (nodos.size() == capacidad) {
+            quitar(ultimo);
+            desalojos.increment();
+        }
+        nodos.put(nodo.clave, nodo);
+        enlazarAlFrente(nodo);
+        for (String termino : nodo.terminos) {
+            MyMap<String, Nodo<V>> entradas = porTermino.get(termino);
+            if (entradas == null) {
+                entradas = new MyMap<>();
+                porTermino.put(termino, entradas);
+            }
+            entradas.put(nodo.clave, nodo);
+        }
+    }
+
+    private void quitar(Nodo<V> nodo) {
+        if (nodos.remove(nodo.clave) == null) {
+            return; // Already dropped through another of its terms
+        }
+        desenlazar(nodo);
+        for (String termino : nodo.terminos) {
+            MyMap<String, Nodo<V>> entradas = porTermino.get(termino);
+            if (entradas != null) {
+                entradas.remove(nodo.clave);
+                if (entradas.size() == 0) {
+                    porTermino.remove(termino);
+                }
+            }
+        }
+    }
+
+    private void desenlazar(Nodo<V> nodo) {
+        if (nodo.anterior == null) {
+            primero = nodo.siguiente;
+        } else {
+            nodo.anterior.siguiente = nodo.siguiente;
+        }
+        if (nodo.siguiente == null) {
+            ultimo = nodo.anterior;
+        } else {
+            nodo.siguiente.anterior = nodo.anterior;
+        }
+        nodo.anterior = null;
+        nodo.siguiente = null;
+    }
+
+    private void enlazarAlFrente(Nodo<V> nodo) {
+        nodo.siguiente = primero;
+        if (primero != null) {
+            primero.anterior = nodo;
+        }
+        primero = nodo;
+        if (ultimo == null) {
+            ultimo = nodo;
+        }
+    }
+}
\ No newline at end of file
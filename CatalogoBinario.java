@@ -0,0 +1,559 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only binary catalog of summaries, accessed through memory-mapped buffers.
+ * <p>
+ * Layout, all integers big-endian:
+ * <pre>
+ *   int MAGIC, int VERSION, int cantidad, long inicioCuerpos, int cantidadTerminos, int inicioDiccionario,
+ *     int cantidadBloques, long inicioBloques
+ *   offset table: cantidad entries of {int cabecera, int bloque, int desplazamiento, int longitudCuerpo}
+ *   header region: per summary, titulo, then autores and palabrasClave as an int count (-1 for
+ *     null) followed by term ids, then rutaArchivo
+ *   dictionary region: cantidadTerminos terms, the position of each being its id
+ *   body region: the compressed blocks, back to back
+ *   block table: cantidadBloques entries of {long posicion, int longitudComprimida, int longitudDescomprimida}
+ * </pre>
+ * Bodies are stored as UTF-8 and grouped, in catalog order, into blocks of about
+ * {@link #TAMANIO_BLOQUE} bytes, each compressed with raw Deflate. An entry locates its body by
+ * block number and by its offset and length within the decompressed block. Compressing several
+ * bodies together lets Deflate find repetitions across summaries, which a single short abstract
+ * does not have. A body longer than a block takes a block of its own.
+ * <p>
+ * Strings are encoded as in {@link CodecResumen}. Version 2 catalogs, whose offset table holds
+ * {int cabecera, long cuerpo, int longitudCuerpo} and whose bodies are stored uncompressed, and
+ * version 1 catalogs, which in addition have no dictionary and hold authors and keywords as
+ * strings in the header region, can still be read.
+ * <p>
+ * Opening a catalog decodes the dictionary and the block table only; headers are decoded when a
+ * summary is read. Bodies are decompressed each time {@link Resumen#getCuerpo()} is called, so
+ * startup time and heap depend on the number of summaries rather than on the size of their text.
+ * The last decompressed blocks are kept in a small LRU cache, so reading the summaries of a
+ * result list or of a compaction, which tend to be neighbours, inflates each block once.
+ */
+public class CatalogoBinario implements FuenteCuerpo {
+    /** "MMCT" in ASCII. Java serialization streams start with 0xACED instead. */
+    static final int MAGIC = 0x4D4D4354;
+    private static final int VERSION = 3;
+    private static final int CABECERA_V1 = 4 + 4 + 4 + 8;
+    private static final int CABECERA_V2 = CABECERA_V1 + 4 + 4;
+    private static final int CABECERA = CABECERA_V2 + 4 + 8;
+    private static final int ENTRADA = 4 + 8 + 4;
+    private static final int ENTRADA_BLOQUE = 8 + 4 + 4;
+    /** Uncompressed size at which a block is closed. */
+    static final int TAMANIO_BLOQUE = 64 * 1024;
+    /** Number of decompressed blocks kept by each open catalog. */
+    private static final int BLOQUES_EN_CACHE = 32;
+    /** Bodies are mapped in segments so catalogs larger than 2 GB can still be read. */
+    private static final long TAMANIO_SEGMENTO = 1L << 30;
+    private static final LongAdder BYTES_ESCRITOS = Metricas.global().contador("persistencia.bytesCatalogo");
+
+    private final int cantidad;
+    private final MappedByteBuffer indice;
+    private final MappedByteBuffer[] segmentosCuerpo;
+    private final long inicioCuerpos;
+    private final int version;
+    /** Size of the fixed header, which depends on the version. */
+    private final int cabecera;
+    /** Terms of version 2 and later catalogs, or {@code null} for version 1. */
+    private final DiccionarioTerminos diccionario;
+    /** Block table of version 3 catalogs; {@code null} for earlier versions, whose bodies are not compressed. */
+    private final long[] posicionesBloque;
+    private final int[] longitudesComprimidas;
+    private final int[] longitudesDescomprimidas;
+    private final CacheBloques cacheBloques = new CacheBloques(BLOQUES_EN_CACHE);
+
+    private CatalogoBinario(FileChannel canal) throws IOException {
+        long tamanio = canal.size();
+        ByteBuffer fija = canal.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(tamanio, CABECERA));
+        if (fija.limit() < CABECERA_V1 || fija.getInt(0) != MAGIC) {
+            throw new IOException("El archivo no es un catálogo de resúmenes compatible.");
+        }
+        version = fija.getInt(4);
+        cabecera = version == 1 ? CABECERA_V1 : version == 2 ? CABECERA_V2 : CABECERA;
+        if (version < 1 || version > VERSION || fija.limit() < cabecera) {
+            throw new IOException("El archivo no es un catálogo de resúmenes compatible.");
+        }
+        cantidad = fija.getInt(8);
+        inicioCuerpos = fija.getLong(12);
+        if (inicioCuerpos > Integer.MAX_VALUE || inicioCuerpos > tamanio) {
+            throw new IOException("Catálogo dañado: región de cabeceras inválida.");
+        }
+        indice = canal.map(FileChannel.MapMode.READ_ONLY, 0, inicioCuerpos);
+        if (version == 1) {
+            diccionario = null;
+        } else {
+            diccionario = new DiccionarioTerminos();
+            Lector lector = new Lector(indice, fija.getInt(24));
+            int cantidadTerminos = fija.getInt(20);
+            for (int i = 0; i < cantidadTerminos; i++) {
+                diccionario.codificar(lector.leerTexto());
+            }
+        }
+        long finCuerpos = tamanio;
+        if (version < 3) {
+            posicionesBloque = null;
+            longitudesComprimidas = null;
+            longitudesDescomprimidas = null;
+        } else {
+            int cantidadBloques = fija.getInt(28);
+            finCuerpos = fija.getLong(32);
+            if (cantidadBloques < 0 || finCuerpos < inicioCuerpos
+                    || finCuerpos + (long) cantidadBloques * ENTRADA_BLOQUE > tamanio) {
+                throw new IOException("Catálogo dañado: tabla de bloques inválida.");
+            }
+            ByteBuffer tablaBloques = canal.map(FileChannel.MapMode.READ_ONLY, finCuerpos,
+                    (long) cantidadBloques * ENTRADA_BLOQUE);
+            posicionesBloque = new long[cantidadBloques];
+            longitudesComprimidas = new int[cantidadBloques];
+            longitudesDescomprimidas = new int[cantidadBloques];
+            for (int b = 0; b < cantidadBloques; b++) {
+                posicionesBloque[b] = tablaBloques.getLong();
+                longitudesComprimidas[b] = tablaBloques.getInt();
+                longitudesDescomprimidas[b] = tablaBloques.getInt();
+            }
+        }
+        long bytesCuerpos = finCuerpos - inicioCuerpos;
+        segmentosCuerpo = new MappedByteBuffer[(int) ((bytesCuerpos + TAMANIO_SEGMENTO - 1) / TAMANIO_SEGMENTO)];
+        for (int i = 0; i < segmentosCuerpo.length; i++) {
+            long inicio = i * TAMANIO_SEGMENTO;
+            segmentosCuerpo[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicioCuerpos + inicio,
+                    Math.min(TAMANIO_SEGMENTO, bytesCuerpos - inicio));
+        }
+    }
+
+    /**
+     * Maps a catalog file. The mapping stays valid after the file is closed, but the file must
+     * not be replaced or deleted while summaries read from it are in use: some platforms, such
+     * as Windows, refuse to while it is mapped. {@link ResumenManager} writes each snapshot under
+     * a new name for that reason.
+     *
+     * @param ruta The path of the catalog.
+     * @return The opened catalog.
+     * @throws IOException If the file cannot be read or is not a catalog.
+     */
+    public static CatalogoBinario abrir(Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            return new CatalogoBinario(canal);
+        }
+    }
+
+    /**
+     * Returns the number of summaries in the catalog.
+     *
+     * @return The number of summaries.
+     */
+    public int size() {
+        return cantidad;
+    }
+
+    /**
+     * Returns the dictionary the summaries of this catalog are encoded with. Summaries read from
+     * the catalog share it, and new terms may be added to it.
+     *
+     * @return The dictionary, or {@code null} for a version 1 catalog.
+     */
+    public DiccionarioTerminos getDiccionario() {
+        return diccionario;
+    }
+
+    /**
+     * Decodes the header of a summary. The returned summary reads its body from this catalog on demand.
+     *
+     * @param i The position of the summary in the catalog.
+     * @return The summary at that position.
+     */
+    public Resumen leerResumen(int i) {
+        Lector lector = new Lector(indice, indice.getInt(cabecera + i * ENTRADA));
+        String titulo = lector.leerTexto();
+        if (version == 1) {
+            String[] autores = lector.leerTextos();
+            String[] palabrasClave = lector.leerTextos();
+            String rutaArchivo = lector.leerTexto();
+            return new Resumen(titulo, autores, palabrasClave, rutaArchivo, this, i);
+        }
+        int[] idsAutores = lector.leerIds();
+        int[] idsPalabrasClave = lector.leerIds();
+        String rutaArchivo = lector.leerTexto();
+        return new Resumen(titulo, idsAutores, idsPalabrasClave, diccionario, rutaArchivo, this, i);
+    }
+
+    @Override
+    public String leerCuerpo(int i) {
+        int entrada = cabecera + i * ENTRADA;
+        int longitud = indice.getInt(entrada + 12);
+        if (longitud < 0) {
+            return null;
+        }
+        if (version < 3) {
+            return new String(copiarCuerpos(indice.getLong(entrada + 4), longitud), StandardCharsets.UTF_8);
+        }
+        byte[] bloque = bloque(indice.getInt(entrada + 4));
+        return new String(bloque, indice.getInt(entrada + 8), longitud, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the UTF-8 body of a summary, decompressed, or {@code null} if it has none.
+     */
+    byte[] leerBytesCuerpo(int i) {
+        int entrada = cabecera + i * ENTRADA;
+        int longitud = indice.getInt(entrada + 12);
+        if (longitud < 0) {
+            return null;
+        }
+        if (version < 3) {
+            return copiarCuerpos(indice.getLong(entrada + 4), longitud);
+        }
+        int desplazamiento = indice.getInt(entrada + 8);
+        return Arrays.copyOfRange(bloque(indice.getInt(entrada + 4)), desplazamiento, desplazamiento + longitud);
+    }
+
+    /**
+     * Returns a decompressed block, from the cache if it was read recently. The returned array
+     * is shared and must not be modified.
+     */
+    private byte[] bloque(int b) {
+        byte[] bloque = cacheBloques.get(b);
+        if (bloque != null) {
+            return bloque;
+        }
+        byte[] comprimido = copiarCuerpos(posicionesBloque[b], longitudesComprimidas[b]);
+        bloque = new byte[longitudesDescomprimidas[b]];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(comprimido);
+            int descomprimidos = inflater.inflate(bloque);
+            if (descomprimidos != bloque.length || !inflater.finished()) {
+                throw new IllegalStateException("Catálogo dañado: bloque " + b + " incompleto.");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Catálogo dañado: bloque " + b + " ilegible.", e);
+        } finally {
+            inflater.end();
+        }
+        cacheBloques.put(b, bloque);
+        return bloque;
+    }
+
+    /** Copies bytes out of the body region, which may span several mapped segments. */
+    private byte[] copiarCuerpos(long posicion, int longitud) {
+        byte[] bytes = new byte[longitud];
+        int copiados = 0;
+        while (copiados < longitud) {
+            long absoluta = posicion + copiados;
+            MappedByteBuffer segmento = segmentosCuerpo[(int) (absoluta / TAMANIO_SEGMENTO)];
+            int desde = (int) (absoluta % TAMANIO_SEGMENTO);
+            int trozo = Math.min(longitud - copiados, segmento.limit() - desde);
+            segmento.get(desde, bytes, copiados, trozo);
+            copiados += trozo;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the given summaries, in iteration order, as a catalog file.
+     * Authors and keywords are numbered in order of first appearance in a new dictionary, so
+     * terms no longer used by any summary are dropped.
+     * Bodies are compressed in blocks; bodies still backed by a catalog are copied as bytes
+     * without being decoded to strings.
+     *
+     * @param resumenes The summaries to write.
+     * @param ruta The path of the file to create or overwrite.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void escribir(MyMap<String, Resumen> resumenes, Path ruta) throws IOException {
+        int cantidad = resumenes.size();
+        ByteArrayOutputStream bytesCabeceras = new ByteArrayOutputStream();
+        DataOutputStream cabeceras = new DataOutputStream(bytesCabeceras);
+        int[] posicionesCabecera = new int[cantidad];
+        DiccionarioTerminos diccionario = new DiccionarioTerminos();
+        int i = 0;
+        Iterator<Resumen> it = resumenes.iterator();
+        while (it.hasNext()) {
+            Resumen resumen = it.next();
+            posicionesCabecera[i++] = CABECERA + cantidad * ENTRADA + cabeceras.size();
+            CodecResumen.escribirTexto(cabeceras, resumen.getTitulo());
+            escribirIds(cabeceras, diccionario.codificar(resumen.getAutores()));
+            escribirIds(cabeceras, diccionario.codificar(resumen.getPalabrasClave()));
+            CodecResumen.escribirTexto(cabeceras, resumen.getRutaArchivo());
+        }
+        int inicioDiccionario = CABECERA + cantidad * ENTRADA + cabeceras.size();
+        for (int t = 0; t < diccionario.size(); t++) {
+            CodecResumen.escribirTexto(cabeceras, diccionario.termino(t));
+        }
+        cabeceras.flush();
+        long inicioCuerpos = CABECERA + (long) cantidad * ENTRADA + bytesCabeceras.size();
+        if (inicioCuerpos > Integer.MAX_VALUE) {
+            throw new IOException("Demasiados resúmenes para un solo catálogo.");
+        }
+
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer tabla = ByteBuffer.allocate(CABECERA + cantidad * ENTRADA);
+            tabla.position(CABECERA);
+            canal.position(inicioCuerpos);
+            EscritorBloques bloques = new EscritorBloques(canal);
+            i = 0;
+            it = resumenes.iterator();
+            while (it.hasNext()) {
+                byte[] cuerpo = bytesCuerpo(it.next());
+                tabla.putInt(posicionesCabecera[i++]);
+                if (cuerpo == null) {
+                    tabla.putInt(-1).putInt(0).putInt(-1);
+                } else {
+                    tabla.putInt(bloques.bloqueActual()).putInt(bloques.agregar(cuerpo)).putInt(cuerpo.length);
+                }
+            }
+            bloques.cerrar();
+            long inicioBloques = canal.position();
+            escribirCompleto(canal, bloques.tabla());
+            tabla.flip();
+            tabla.putInt(MAGIC).putInt(VERSION).putInt(cantidad).putLong(inicioCuerpos)
+                    .putInt(diccionario.size()).putInt(inicioDiccionario)
+                    .putInt(bloques.cantidad).putLong(inicioBloques);
+            tabla.rewind();
+            canal.position(0);
+            escribirCompleto(canal, tabla);
+            escribirCompleto(canal, ByteBuffer.wrap(bytesCabeceras.toByteArray()));
+            canal.force(true);
+            BYTES_ESCRITOS.add(canal.size());
+        }
+    }
+
+    private static byte[] bytesCuerpo(Resumen resumen) {
+        if (resumen.fuenteCuerpo instanceof CatalogoBinario) {
+            return ((CatalogoBinario) resumen.fuenteCuerpo).leerBytesCuerpo(resumen.indiceCuerpo);
+        }
+        String cuerpo = resumen.getCuerpo();
+        return cuerpo == null ? null : cuerpo.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Groups bodies into blocks and writes each block, compressed, when it reaches {@link #TAMANIO_BLOQUE}.
+     * Block positions are relative to the start of the body region.
+     */
+    private static final class EscritorBloques {
+        private final FileChannel canal;
+        private final ByteArrayOutputStream pendiente = new ByteArrayOutputStream(TAMANIO_BLOQUE);
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private final ByteArrayOutputStream tabla = new ByteArrayOutputStream();
+        private final DataOutputStream salidaTabla = new DataOutputStream(tabla);
+        private byte[] comprimido = new byte[TAMANIO_BLOQUE];
+        private long posicion;
+        int cantidad;
+
+        EscritorBloques(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        /** Returns the block the next body goes into. */
+        int bloqueActual() {
+            return cantidad;
+        }
+
+        /** Appends a body to the current block and returns its offset within the block. */
+        int agregar(byte[] cuerpo) throws IOException {
+            int desplazamiento = pendiente.size();
+            pendiente.write(cuerpo);
+            if (pendiente.size() >= TAMANIO_BLOQUE) {
+                escribirBloque();
+            }
+            return desplazamiento;
+        }
+
+        void cerrar() throws IOException {
+            if (pendiente.size() > 0) {
+                escribirBloque();
+            }
+            deflater.end();
+        }
+
+        ByteBuffer tabla() {
+            return ByteBuffer.wrap(tabla.toByteArray());
+        }
+
+        private void escribirBloque() throws IOException {
+            byte[] datos = pendiente.toByteArray();
+            deflater.reset();
+            deflater.setInput(datos);
+            deflater.finish();
+            int longitud = 0;
+            while (!deflater.finished()) {
+                if (longitud == comprimido.length) {
+                    comprimido = Arrays.copyOf(comprimido, comprimido.length * 2);
+                }
+                longitud += deflater.deflate(comprimido, longitud, comprimido.length - longitud);
+            }
+            escribirCompleto(canal, ByteBuffer.wrap(comprimido, 0, longitud));
+            salidaTabla.writeLong(posicion);
+            salidaTabla.writeInt(longitud);
+            salidaTabla.writeInt(datos.length);
+            posicion += longitud;
+            cantidad++;
+            pendiente.reset();
+        }
+    }
+
+    /**
+     * Least recently used decompressed blocks, shared by the threads reading the catalog.
+     */
+    private static final class CacheBloques {
+        private static final class Nodo {
+            final int bloque;
+            final byte[] datos;
+            Nodo anterior;
+            Nodo siguiente;
+
+            Nodo(int bloque, byte[] datos) {
+                this.bloque = bloque;
+                this.datos = datos;
+            }
+        }
+
+        private final int capacidad;
+        private final MyMap<Integer, Nodo> nodos = new MyMap<>();
+        /** Most recently used first. */
+        private Nodo primero;
+        private Nodo ultimo;
+
+        CacheBloques(int capacidad) {
+            this.capacidad = capacidad;
+        }
+
+        synchronized byte[] get(int bloque) {
+            Nodo nodo = nodos.get(bloque);
+            if (nodo == null) {
+                return null;
+            }
+            desenlazar(nodo);
+            enlazarAlFrente(nodo);
+            return nodo.datos;
+        }
+
+        synchronized void put(int bloque, byte[] datos) {
+            if (nodos.containsKey(bloque)) {
+                // Another thread inflated the same block meanwhile.
+                return;
+            }
+            if (nodos.size() == capacidad) {
+                Nodo expulsado = ultimo;
+                desenlazar(expulsado);
+                nodos.remove(expulsado.bloque);
+            }
+            Nodo nodo = new Nodo(bloque, datos);
+            enlazarAlFrente(nodo);
+            nodos.put(bloque, nodo);
+        }
+
+        private void desenlazar(Nodo nodo) {
+            if (nodo.anterior == null) {
+                primero = nodo.siguiente;
+            } else {
+                nodo.anterior.siguiente = nodo.siguiente;
+            }
+            if (nodo.siguiente == null) {
+                ultimo = nodo.anterior;
+            } else {
+                nodo.siguiente.anterior = nodo.anterior;
+            }
+            nodo.anterior = null;
+            nodo.siguiente = null;
+        }
+
+        private void enlazarAlFrente(Nodo nodo) {
+            nodo.siguiente = primero;
+            if (primero != null) {
+                primero.anterior = nodo;
+            }
+            primero = nodo;
+            if (ultimo == null) {
+                ultimo = nodo;
+            }
+        }
+    }
+
+    private static void escribirIds(DataOutputStream out, int[] ids) throws IOException {
+        if (ids == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(ids.length);
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    /**
+     * Sequential reader over the header region using absolute reads, so several threads can
+     * decode headers from the same mapping at once.
+     */
+    private static final class Lector {
+        private final ByteBuffer buffer;
+        private int posicion;
+
+        Lector(ByteBuffer buffer, int posicion) {
+            this.buffer = buffer;
+            this.posicion = posicion;
+        }
+
+        int leerInt() {
+            int valor = buffer.getInt(posicion);
+            posicion += 4;
+            return valor;
+        }
+
+        String leerTexto() {
+            int longitud = leerInt();
+            if (longitud < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[longitud];
+            buffer.get(posicion, bytes, 0, longitud);
+            posicion += longitud;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int[] leerIds() {
+            int cantidad = leerInt();
+            if (cantidad < 0) {
+                return null;
+            }
+            int[] ids = new int[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                ids[i] = leerInt();
+            }
+            return ids;
+        }
+
+        String[] leerTextos() {
+            int cantidad = leerInt();
+            if (cantidad < 0) {
+                return null;
+            }
+            String[] textos = new String[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                textos[i] = leerTexto();
+            }
+            return textos;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of a {@link Resumen} shared by the on-disk formats.
+ * Strings are written as a length in bytes followed by their UTF-8 bytes, with a length of
+ * -1 standing for {@code null}; string arrays are written as their length followed by each string.
+ */
+final class CodecResumen {
+
+    private CodecResumen() {
+    }
+
+    static void escribir(DataOutput out, Resumen resumen) throws IOException {
+        escribirTexto(out, resumen.getTitulo());
+        escribirTextos(out, resumen.getAutores());
+        escribirTexto(out, resumen.getCuerpo());
+        escribirTextos(out, resumen.getPalabrasClave());
+        escribirTexto(out, resumen.getRutaArchivo());
+    }
+
+    static Resumen leer(DataInput in) throws IOException {
+        String titulo = leerTexto(in);
+        String[] autores = leerTextos(in);
+        String cuerpo = leerTexto(in);
+        String[] palabrasClave = leerTextos(in);
+        String rutaArchivo = leerTexto(in);
+        return new Resumen(titulo, autores, cuerpo, palabrasClave, rutaArchivo);
+    }
+
+    static void escribirTexto(DataOutput out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String leerTexto(DataInput in) throws IOException {
+        int longitud = in.readInt();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void escribirTextos(DataOutput out, String[] textos) throws IOException {
+        if (textos == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(textos.length);
+        for (String texto : textos) {
+            escribirTexto(out, texto);
+        }
+    }
+
+    static String[] leerTextos(DataInput in) throws IOException {
+        int cantidad = in.readInt();
+        if (cantidad < 0) {
+            return null;
+        }
+        String[] textos = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            textos[i] = leerTexto(in);
+        }
+        return textos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,464 @@
+import java.util.Arrays;
+
+/**
+ * Boolean query over the keyword and author indexes of a {@link BusquedaResumen}, such as
+ * {@code AutoCAD AND fundaciones NOT C#} or {@code author:Sandoval OR author:Loscher}.
+ * <p>
+ * Syntax, from loosest to tightest binding:
+ * <ul>
+ *   <li>{@code a OR b}: investigations matching either side.</li>
+ *   <li>{@code a AND b}, or just {@code a b}: investigations matching both.</li>
+ *   <li>{@code NOT a} or {@code -a}: investigations not matching {@code a}.</li>
+ *   <li>{@code (a)}: grouping.</li>
+ *   <li>A term: a keyword, or an author when prefixed by {@code author:} or {@code autor:}.
+ *       {@code keyword:} and {@code palabra:} name keywords explicitly. Terms with spaces go in
+ *       double quotes, as in {@code author:"Juan Sandoval"}.</li>
+ * </ul>
+ * Operators are only recognized in upper case, so {@code and}, {@code or} and {@code not} are
+ * terms. A term that is not a whole keyword or author name matches those having it as one of
+ * their words, so {@code author:Sandoval} finds every author with that surname.
+ * <p>
+ * Every intermediate result is a set of investigation IDs in increasing order. AND walks its
+ * operands from the shortest, galloping ahead in the others to each candidate, and a negated
+ * operand is subtracted the same way; the cost grows with the shortest operand and only
+ * logarithmically with the longer ones. OR merges its operands through a heap. A query made
+ * only of negations is answered as the list of every indexed investigation minus the negated ones.
+ */
+public final class ConsultaBooleana {
+    private static final int PALABRA_CLAVE = 0;
+    private static final int AUTOR = 1;
+
+    private abstract static class Nodo {
+        abstract ListaPostings.Instantanea evaluar(BusquedaResumen busqueda);
+    }
+
+    private static final class Termino extends Nodo {
+        final int campo;
+        final String texto;
+
+        Termino(int campo, String texto) {
+            this.campo = campo;
+            this.texto = texto;
+        }
+
+        @Override
+        ListaPostings.Instantanea evaluar(BusquedaResumen busqueda) {
+            return campo == AUTOR ? busqueda.postingsAutor(texto) : busqueda.postingsPalabraClave(texto);
+        }
+
+        @Override
+        public String toString() {
+            return (campo == AUTOR ? "author:" : "keyword:") + '"' + texto + '"';
+        }
+    }
+
+    private static final class No extends Nodo {
+        final Nodo negado;
+
+        No(Nodo negado) {
+            this.negado = negado;
+        }
+
+        @Override
+        ListaPostings.Instantanea evaluar(BusquedaResumen busqueda) {
+            ListaPostings.Instantanea[] incluidas = {busqueda.postingsTodos()};
+            ListaPostings.Instantanea[] excluidas = {negado.evaluar(busqueda)};
+            return intersecar(incluidas, 1, excluidas, 1);
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + negado;
+        }
+    }
+
+    private static final class Y extends Nodo {
+        final MyLinkedList<Nodo> operandos;
+
+        Y(MyLinkedList<Nodo> operandos) {
+            this.operandos = operandos;
+        }
+
+        @Override
+        ListaPostings.Instantanea evaluar(BusquedaResumen busqueda) {
+            ListaPostings.Instantanea[] incluidas = new ListaPostings.Instantanea[operandos.size()];
+            ListaPostings.Instantanea[] excluidas = new ListaPostings.Instantanea[operandos.size()];
+            int cantidadIncluidas = 0;
+            int cantidadExcluidas = 0;
+            Iterator<Nodo> it = operandos.iterator();
+            while (it.hasNext()) {
+                Nodo operando = it.next();
+                if (operando instanceof No) {
+                    excluidas[cantidadExcluidas++] = ((No) operando).negado.evaluar(busqueda);
+                    continue;
+                }
+                ListaPostings.Instantanea lista = operando.evaluar(busqueda);
+                if (lista.size() == 0) {
+                    return ListaPostings.Instantanea.VACIA; // Nothing left to intersect
+                }
+                incluidas[cantidadIncluidas++] = lista;
+            }
+            if (cantidadIncluidas == 0) {
+                incluidas[cantidadIncluidas++] = busqueda.postingsTodos();
+            }
+            return intersecar(incluidas, cantidadIncluidas, excluidas, cantidadExcluidas);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + unirTexto(operandos, " AND ") + ")";
+        }
+    }
+
+    private static final class O extends Nodo {
+        final MyLinkedList<Nodo> operandos;
+
+        O(MyLinkedList<Nodo> operandos) {
+            this.operandos = operandos;
+        }
+
+        @Override
+        ListaPostings.Instantanea evaluar(BusquedaResumen busqueda) {
+            MyLinkedList<ListaPostings.Instantanea> listas = new MyLinkedList<>();
+            Iterator<Nodo> it = operandos.iterator();
+            while (it.hasNext()) {
+                listas.add(it.next().evaluar(busqueda));
+            }
+            return unir(listas);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + unirTexto(operandos, " OR ") + ")";
+        }
+    }
+
+    private final Nodo raiz;
+
+    private ConsultaBooleana(Nodo raiz) {
+        this.raiz = raiz;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param consulta The query text.
+     * @return The parsed query.
+     * @throws IllegalArgumentException If the query is empty or malformed.
+     */
+    public static ConsultaBooleana analizar(String consulta) {
+        if (consulta == null) {
+            throw new IllegalArgumentException("La consulta está vacía.");
+        }
+        Analizador analizador = new Analizador(consulta);
+        if (analizador.fin()) {
+            throw new IllegalArgumentException("La consulta está vacía.");
+        }
+        Nodo raiz = analizador.disyuncion();
+        if (!analizador.fin()) {
+            throw new IllegalArgumentException("Sobra \"" + analizador.siguienteTexto() + "\" en la posición "
+                    + (analizador.posicion + 1) + ".");
+        }
+        return new ConsultaBooleana(raiz);
+    }
+
+    /**
+     * Evaluates the query over an index.
+     *
+     * @param busqueda The index to query.
+     * @return The IDs of the matching investigations, in increasing order.
+     */
+    ListaPostings.Instantanea ejecutar(BusquedaResumen busqueda) {
+        return raiz.evaluar(busqueda);
+    }
+
+    /**
+     * Returns the query fully parenthesized, with the field of every term.
+     */
+    @Override
+    public String toString() {
+        return raiz.toString();
+    }
+
+    /**
+     * Recursive descent parser over the query text.
+     */
+    private static final class Analizador {
+        private final String texto;
+        private int posicion;
+
+        Analizador(String texto) {
+            this.texto = texto;
+            saltarEspacios();
+        }
+
+        boolean fin() {
+            return posicion == texto.length();
+        }
+
+        /** disyuncion := conjuncion (OR conjuncion)* */
+        Nodo disyuncion() {
+            MyLinkedList<Nodo> operandos = new MyLinkedList<>();
+            operandos.add(conjuncion());
+            while (operador("OR")) {
+                operandos.add(conjuncion());
+            }
+            return operandos.size() == 1 ? operandos.get(0) : new O(operandos);
+        }
+
+        /** conjuncion := negacion ((AND)? negacion)* */
+        Nodo conjuncion() {
+            MyLinkedList<Nodo> operandos = new MyLinkedList<>();
+            operandos.add(negacion());
+            while (true) {
+                if (operador("AND")) {
+                    operandos.add(negacion());
+                } else if (!fin() && texto.charAt(posicion) != ')' && !esOperador("OR")) {
+                    operandos.add(negacion()); // Adjacent terms
+                } else {
+                    break;
+                }
+            }
+            return operandos.size() == 1 ? operandos.get(0) : new Y(operandos);
+        }
+
+        /** negacion := (NOT | '-') negacion | primario */
+        Nodo negacion() {
+            if (operador("NOT")) {
+                return negar(negacion());
+            }
+            if (!fin() && texto.charAt(posicion) == '-' && posicion + 1 < texto.length()
+                    && !Character.isWhitespace(texto.charAt(posicion + 1))) {
+                posicion++;
+                return negar(negacion());
+            }
+            return primario();
+        }
+
+        private static Nodo negar(Nodo nodo) {
+            return nodo instanceof No ? ((No) nodo).negado : new No(nodo);
+        }
+
+        /** primario := '(' disyuncion ')' | (campo ':')? (palabra | '"' frase '"') */
+        Nodo primario() {
+            if (fin()) {
+                throw new IllegalArgumentException("Falta un término al final de la consulta.");
+            }
+            char c = texto.charAt(posicion);
+            if (c == '(') {
+                posicion++;
+                saltarEspacios();
+                Nodo interior = disyuncion();
+                if (fin() || texto.charAt(posicion) != ')') {
+                    throw new IllegalArgumentException("Falta cerrar un paréntesis.");
+                }
+                posicion++;
+                saltarEspacios();
+                return interior;
+            }
+            if (c == ')' || esOperador("AND") || esOperador("OR")) {
+                throw new IllegalArgumentException("Falta un término antes de \"" + siguienteTexto()
+                        + "\" en la posición " + (posicion + 1) + ".");
+            }
+            int campo = PALABRA_CLAVE;
+            int dosPuntos = texto.indexOf(':', posicion);
+            if (dosPuntos > posicion && dosPuntos == posicion + siguienteTexto().indexOf(':')) {
+                String nombre = texto.substring(posicion, dosPuntos).toLowerCase();
+                if (nombre.equals("author") || nombre.equals("autor")) {
+                    campo = AUTOR;
+                    posicion = dosPuntos + 1;
+                } else if (nombre.equals("keyword") || nombre.equals("palabra")) {
+                    posicion = dosPuntos + 1;
+                }
+            }
+            String valor;
+            if (!fin() && texto.charAt(posicion) == '"') {
+                int cierre = texto.indexOf('"', posicion + 1);
+                if (cierre < 0) {
+                    throw new IllegalArgumentException("Faltan las comillas de cierre.");
+                }
+                valor = texto.substring(posicion + 1, cierre).trim();
+                posicion = cierre + 1;
+            } else {
+                valor = siguienteTexto();
+                posicion += valor.length();
+            }
+            if (valor.isEmpty()) {
+                throw new IllegalArgumentException("Falta un término en la posición " + (posicion + 1) + ".");
+            }
+            saltarEspacios();
+            return new Termino(campo, valor);
+        }
+
+        /** Consumes the given operator if it comes next. */
+        private boolean operador(String nombre) {
+            if (!esOperador(nombre)) {
+                return false;
+            }
+            posicion += nombre.length();
+            saltarEspacios();
+            return true;
+        }
+
+        private boolean esOperador(String nombre) {
+            return siguienteTexto().equals(nombre);
+        }
+
+        /** Returns the word starting at the current position, up to a space, parenthesis or quote. */
+        String siguienteTexto() {
+            int fin = posicion;
+            while (fin < texto.length()) {
+                char c = texto.charAt(fin);
+                if (Character.isWhitespace(c) || c == '(' || c == ')' || c == '"') {
+                    break;
+                }
+                fin++;
+            }
+            return fin == posicion && fin < texto.length() ? texto.substring(fin, fin + 1) : texto.substring(posicion, fin);
+        }
+
+        private void saltarEspacios() {
+            while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+                posicion++;
+            }
+        }
+    }
+
+    /**
+     * Returns the IDs present in every included list and in no excluded one. Walks the shortest
+     * included list; each other list gallops to the candidate, and when it overshoots the
+     * candidate becomes the ID it landed on, so the shortest list is skipped ahead too.
+     */
+    private static ListaPostings.Instantanea intersecar(ListaPostings.Instantanea[] incluidas, int cantidadIncluidas,
+                                                        ListaPostings.Instantanea[] excluidas, int cantidadExcluidas) {
+        Arrays.sort(incluidas, 0, cantidadIncluidas, (a, b) -> Integer.compare(a.size(), b.size()));
+        ListaPostings.Instantanea menor = incluidas[0];
+        int[] posiciones = new int[cantidadIncluidas];
+        int[] posicionesExcluidas = new int[cantidadExcluidas];
+        int[] resultado = new int[menor.size()];
+        int cantidad = 0;
+        int i = 0;
+        candidatos:
+        while (i < menor.size()) {
+            int candidato = menor.get(i);
+            for (int j = 1; j < cantidadIncluidas; j++) {
+                ListaPostings.Instantanea lista = incluidas[j];
+                posiciones[j] = lista.avanzarHasta(posiciones[j], candidato);
+                if (posiciones[j] == lista.size()) {
+                    break candidatos; // This list is exhausted, so is the intersection
+                }
+                int encontrado = lista.get(posiciones[j]);
+                if (encontrado != candidato) {
+                    i = menor.avanzarHasta(i, encontrado);
+                    continue candidatos;
+                }
+            }
+            if (!excluido(candidato, excluidas, cantidadExcluidas, posicionesExcluidas)) {
+                resultado[cantidad++] = candidato;
+            }
+            i++;
+        }
+        return new ListaPostings.Instantanea(resultado, cantidad);
+    }
+
+    /**
+     * Returns whether an ID is in any of the excluded lists. IDs must be asked in increasing
+     * order; {@code posiciones} keeps where each list was left.
+     */
+    private static boolean excluido(int id, ListaPostings.Instantanea[] excluidas, int cantidadExcluidas,
+                                    int[] posiciones) {
+        for (int j = 0; j < cantidadExcluidas; j++) {
+            posiciones[j] = excluidas[j].avanzarHasta(posiciones[j], id);
+            if (posiciones[j] < excluidas[j].size() && excluidas[j].get(posiciones[j]) == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the IDs present in any of the given lists, merging them through a min-heap of
+     * cursors: one comparison per level of the heap for each ID read.
+     *
+     * @param listas Sorted lists of IDs.
+     * @return Their union.
+     */
+    static ListaPostings.Instantanea unir(MyLinkedList<ListaPostings.Instantanea> listas) {
+        ListaPostings.Instantanea[] monticulo = new ListaPostings.Instantanea[listas.size()];
+        int[] posiciones = new int[listas.size()];
+        int tamanio = 0;
+        int total = 0;
+        Iterator<ListaPostings.Instantanea> it = listas.iterator();
+        while (it.hasNext()) {
+            ListaPostings.Instantanea lista = it.next();
+            if (lista.size() > 0) {
+                monticulo[tamanio++] = lista;
+                total += lista.size();
+            }
+        }
+        if (tamanio == 0) {
+            return ListaPostings.Instantanea.VACIA;
+        }
+        if (tamanio == 1) {
+            return monticulo[0];
+        }
+        for (int i = tamanio / 2 - 1; i >= 0; i--) {
+            hundir(monticulo, posiciones, tamanio, i);
+        }
+        int[] resultado = new int[total];
+        int cantidad = 0;
+        while (tamanio > 0) {
+            int id = monticulo[0].get(posiciones[0]);
+            if (cantidad == 0 || resultado[cantidad - 1] != id) {
+                resultado[cantidad++] = id;
+            }
+            if (++posiciones[0] == monticulo[0].size()) {
+                tamanio--;
+                monticulo[0] = monticulo[tamanio];
+                posiciones[0] = posiciones[tamanio];
+            }
+            hundir(monticulo, posiciones, tamanio, 0);
+        }
+        return new ListaPostings.Instantanea(resultado, cantidad);
+    }
+
+    private static void hundir(ListaPostings.Instantanea[] monticulo, int[] posiciones, int tamanio, int i) {
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamanio && cabeza(monticulo, posiciones, izquierdo) < cabeza(monticulo, posiciones, menor)) {
+                menor = izquierdo;
+            }
+            if (derecho < tamanio && cabeza(monticulo, posiciones, derecho) < cabeza(monticulo, posiciones, menor)) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            ListaPostings.Instantanea lista = monticulo[i];
+            monticulo[i] = monticulo[menor];
+            monticulo[menor] = lista;
+            int posicion = posiciones[i];
+            posiciones[i] = posiciones[menor];
+            posiciones[menor] = posicion;
+            i = menor;
+        }
+    }
+
+    private static int cabeza(ListaPostings.Instantanea[] monticulo, int[] posiciones, int i) {
+        return monticulo[i].get(posiciones[i]);
+    }
+
+    private static String unirTexto(MyLinkedList<Nodo> nodos, String separador) {
+        StringBuilder texto = new StringBuilder();
+        Iterator<Nodo> it = nodos.iterator();
+        while (it.hasNext()) {
+            if (texto.length() > 0) {
+                texto.append(separador);
+            }
+            texto.append(it.next());
+        }
+        return texto.toString();
+    }
+}
\ No newline at end of file
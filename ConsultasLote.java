@@ -0,0 +1,319 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a stream of queries against the summaries without a graphical interface, for scripted
+ * and bulk lookups.
+ * <p>
+ * Each input line is a query type followed by the query:
+ * <pre>
+ * palabra AutoCAD
+ * autor Sandoval
+ * texto sistema de información geográfica
+ * booleana AutoCAD AND fundaciones NOT C#
+ * </pre>
+ * The types {@code keyword}, {@code author}, {@code text} and {@code query} are accepted too.
+ * Blank lines and lines starting with {@code #} are skipped. The summaries are loaded and
+ * indexed once, before the first query is read; the queries then run in parallel on a fork-join
+ * pool, and each produces one JSON line on the output, in input order, with its results and its
+ * latency in milliseconds. Output is flushed whenever no more input is ready, so a stream fed
+ * line by line is answered as it goes.
+ * <p>
+ * Keyword, author and boolean answers report every match in {@code total} and list the first
+ * ones. Full-text answers are ranked and only the best are ever computed, so they report how
+ * many were listed in {@code devueltos} instead.
+ */
+public class ConsultasLote {
+    /** Results listed per query unless told otherwise. */
+    static final int MAX_RESULTADOS = 20;
+    /** Queries in flight per thread; bounds the results held back to keep the output in order. */
+    private static final int PENDIENTES_POR_HILO = 4;
+
+    /**
+     * Outcome of a run.
+     */
+    public static class Informe {
+        private int consultas;
+        private int errores;
+        private long nanos;
+        private final Histograma latencias = new Histograma();
+
+        public int getConsultas() {
+            return consultas;
+        }
+
+        public int getErrores() {
+            return errores;
+        }
+
+        /**
+         * Returns the number of queries answered per second, writing included.
+         */
+        public double getConsultasPorSegundo() {
+            return nanos == 0 ? 0 : consultas * 1e9 / nanos;
+        }
+
+        /**
+         * Returns the latencies of the queries, in nanoseconds.
+         */
+        public Histograma getLatencias() {
+            return latencias;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d consultas, %d con errores en %.2f s (%.0f consultas/s); latencia p50 %.3f ms, p99 %.3f ms, máxima %.3f ms",
+                    consultas, errores, nanos / 1e9, getConsultasPorSegundo(), latencias.percentil(50) / 1e6,
+                    latencias.percentil(99) / 1e6, latencias.maximo() / 1e6);
+        }
+    }
+
+    /** The JSON line of a query and whether it failed. */
+    private static final class Respuesta {
+        final String json;
+        final long nanos;
+        final boolean error;
+
+        Respuesta(String json, long nanos, boolean error) {
+            this.json = json;
+            this.nanos = nanos;
+            this.error = error;
+        }
+    }
+
+    private final ResumenManager resumenManager;
+    private final int hilos;
+    private final int maxResultados;
+
+    /**
+     * Constructs a runner over the given manager.
+     *
+     * @param resumenManager The manager holding the summaries, already loaded.
+     * @param hilos The number of threads running queries.
+     * @param maxResultados The maximum number of results listed per query.
+     */
+    public ConsultasLote(ResumenManager resumenManager, int hilos, int maxResultados) {
+        if (hilos <= 0) throw new IllegalArgumentException("El número de hilos debe ser positivo.");
+        if (maxResultados < 0) throw new IllegalArgumentException("El número de resultados no puede ser negativo.");
+        this.resumenManager = resumenManager;
+        this.hilos = hilos;
+        this.maxResultados = maxResultados;
+    }
+
+    /**
+     * Answers every query read from the input, writing one JSON line per query.
+     *
+     * @param entrada The queries, one per line.
+     * @param salida Receives the JSON lines, in the order of the queries.
+     * @return A report of the run.
+     * @throws IOException If the input cannot be read or the output written.
+     */
+    public Informe ejecutar(BufferedReader entrada, Writer salida) throws IOException {
+        long inicio = System.nanoTime();
+        Informe informe = new Informe();
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        // Circular buffer of the queries submitted and not yet written. Generic arrays cannot be
+        // created; the array only ever holds futures of responses.
+        @SuppressWarnings("unchecked")
+        Future<Respuesta>[] pendientes = (Future<Respuesta>[]) new Future<?>[hilos * PENDIENTES_POR_HILO];
+        int primero = 0;
+        int cantidad = 0;
+        try {
+            String linea;
+            int numero = 0;
+            while ((linea = entrada.readLine()) != null) {
+                numero++;
+                String texto = linea.trim();
+                if (texto.isEmpty() || texto.startsWith("#")) {
+                    continue;
+                }
+                if (cantidad == pendientes.length) {
+                    escribir(pendientes[primero], salida, informe);
+                    pendientes[primero] = null;
+                    primero = (primero + 1) % pendientes.length;
+                    cantidad--;
+                }
+                int numeroLinea = numero;
+                pendientes[(primero + cantidad) % pendientes.length] = pool.submit(() -> responder(numeroLinea, texto));
+                cantidad++;
+                if (!entrada.ready()) {
+                    // Nothing more to read for now: answer what was asked before waiting for input
+                    for (; cantidad > 0; cantidad--) {
+                        escribir(pendientes[primero], salida, informe);
+                        pendientes[primero] = null;
+                        primero = (primero + 1) % pendientes.length;
+                    }
+                    salida.flush();
+                }
+            }
+            for (; cantidad > 0; cantidad--) {
+                escribir(pendientes[primero], salida, informe);
+                pendientes[primero] = null;
+                primero = (primero + 1) % pendientes.length;
+            }
+            salida.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        informe.nanos = System.nanoTime() - inicio;
+        return informe;
+    }
+
+    private static void escribir(Future<Respuesta> pendiente, Writer salida, Informe informe) throws IOException {
+        Respuesta respuesta;
+        try {
+            respuesta = pendiente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Consultas interrumpidas.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error al responder una consulta.", e.getCause());
+        }
+        informe.consultas++;
+        if (respuesta.error) {
+            informe.errores++;
+        }
+        informe.latencias.registrar(respuesta.nanos);
+        salida.write(respuesta.json);
+        salida.write('\n');
+    }
+
+    /**
+     * Runs the query of an input line and formats its JSON line.
+     */
+    private Respuesta responder(int numero, String linea) {
+        int espacio = 0;
+        while (espacio < linea.length() && !Character.isWhitespace(linea.charAt(espacio))) {
+            espacio++;
+        }
+        String tipo = linea.substring(0, espacio).toLowerCase(Locale.ROOT);
+        String consulta = linea.substring(espacio).trim();
+        StringBuilder json = new StringBuilder(256).append("{\"linea\": ").append(numero).append(", \"tipo\": ");
+        Json.texto(json, tipo).append(", \"consulta\": ");
+        Json.texto(json, consulta);
+
+        long inicio = System.nanoTime();
+        Object resultados;
+        try {
+            resultados = buscar(tipo, consulta);
+        } catch (RuntimeException e) {
+            long nanos = System.nanoTime() - inicio;
+            Json.milisegundos(json.append(", \"latenciaMs\": "), nanos).append(", \"error\": ");
+            Json.texto(json, e.getMessage() != null ? e.getMessage() : e.toString()).append('}');
+            return new Respuesta(json.toString(), nanos, true);
+        }
+        long nanos = System.nanoTime() - inicio;
+        Json.milisegundos(json.append(", \"latenciaMs\": "), nanos);
+
+        if (resultados instanceof ResultadosConsulta) {
+            ResultadosConsulta investigaciones = (ResultadosConsulta) resultados;
+            json.append(", \"total\": ").append(investigaciones.size()).append(", \"resultados\": [");
+            for (int i = 0; i < Math.min(maxResultados, investigaciones.size()); i++) {
+                Investigacion investigacion = investigaciones.get(i);
+                json.append(i == 0 ? "" : ", ").append("{\"id\": ").append(investigacion.getId()).append(", \"titulo\": ");
+                Json.texto(json, investigacion.getTitulo()).append('}');
+            }
+        } else {
+            @SuppressWarnings("unchecked")
+            MyLinkedList<ResultadoBusqueda> ranking = (MyLinkedList<ResultadoBusqueda>) resultados;
+            json.append(", \"devueltos\": ").append(ranking.size()).append(", \"resultados\": [");
+            Iterator<ResultadoBusqueda> it = ranking.iterator();
+            for (int i = 0; it.hasNext(); i++) {
+                ResultadoBusqueda resultado = it.next();
+                json.append(i == 0 ? "" : ", ").append("{\"id\": ").append(resultado.getResumen().getId())
+                        .append(", \"titulo\": ");
+                Json.texto(json, resultado.getResumen().getTitulo())
+                        .append(String.format(Locale.ROOT, ", \"puntuacion\": %.4f}", resultado.getPuntuacion()));
+            }
+        }
+        return new Respuesta(json.append("]}").toString(), nanos, false);
+    }
+
+    private Object buscar(String tipo, String consulta) {
+        if (consulta.isEmpty()) {
+            throw new IllegalArgumentException("La consulta está vacía.");
+        }
+        BusquedaResumen busqueda = resumenManager.getBusquedaResumen();
+        switch (tipo) {
+            case "palabra":
+            case "keyword":
+                return busqueda.instantaneaPorPalabraClave(consulta);
+            case "autor":
+            case "author":
+                return busqueda.instantaneaPorAutor(consulta);
+            case "booleana":
+            case "query":
+                return busqueda.buscar(consulta);
+            case "texto":
+            case "text":
+                return resumenManager.buscarTextoCompleto(consulta, maxResultados);
+            default:
+                throw new IllegalArgumentException("Tipo de consulta desconocido: " + tipo
+                        + " (se espera palabra, autor, texto o booleana).");
+        }
+    }
+
+    /**
+     * Answers the queries of a file, or of standard input, against the summaries stored in a
+     * directory. Results go to standard output; log messages and the final report go to
+     * standard error.
+     *
+     * @param args The query file, or {@code -} for standard input, followed by the options
+     *             {@code --datos <directorio>}, {@code --hilos <n>} and {@code --max <n>}.
+     */
+    public static void main(String[] args) throws IOException {
+        String archivo = "-";
+        String directorio = "";
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int maxResultados = MAX_RESULTADOS;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--datos":
+                        directorio = args[++i];
+                        break;
+                    case "--hilos":
+                        hilos = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max":
+                        maxResultados = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+                        }
+                        archivo = args[i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Uso: java ConsultasLote [archivo|-] [--datos <directorio>] [--hilos <n>] [--max <n>]");
+            return;
+        }
+
+        // La salida estándar queda solo para los resultados
+        Registro.setSalidaInformativa(System.err);
+        ResumenManager resumenManager = new ResumenManager(Paths.get(directorio));
+        resumenManager.prepararIndiceTextoCompleto();
+        ConsultasLote lote = new ConsultasLote(resumenManager, hilos, maxResultados);
+        Writer salida = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        Informe informe;
+        try (BufferedReader entrada = archivo.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(archivo), StandardCharsets.UTF_8)) {
+            informe = lote.ejecutar(entrada, salida);
+        }
+        Registro.info(informe.toString());
+        Registro.vaciar(1000);
+    }
+}
\ No newline at end of file
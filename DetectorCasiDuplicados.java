@@ -0,0 +1,292 @@
+import java.util.Arrays;
+
+/**
+ * Finds summaries whose body is nearly the same as another's, in about constant time per summary.
+ * <p>
+ * A body is reduced to its shingles, its runs of three consecutive terms, and two bodies are
+ * near duplicates when the Jaccard similarity of their shingle sets reaches the threshold. Each
+ * body gets a MinHash signature of {@link #HASHES} values: for every hash function, the least
+ * hash of its shingles. Two bodies agree on a value with probability equal to their similarity.
+ * The signature is cut into bands of consecutive values and each band is hashed to a bucket;
+ * only summaries sharing a bucket with the new body are compared with it, by the exact
+ * similarity of their shingles. The shingle hashes of each summary are kept with its entries,
+ * eight bytes per distinct shingle, so a candidate's body is not decoded again. The rows per
+ * band are chosen from the threshold so that a pair exactly at the threshold shares a bucket at
+ * least 95% of the time; pairs above it, more often.
+ * <p>
+ * Not thread-safe: callers check and add under a lock, so two near duplicates added at once
+ * cannot both pass. {@link #firma(String)} keeps no state and may be called without it.
+ */
+public class DetectorCasiDuplicados {
+    /** Hash functions of a MinHash signature. */
+    static final int HASHES = 128;
+    /** Probability that a pair exactly at the threshold is compared. */
+    private static final double RECALL_EN_UMBRAL = 0.95;
+    private static final long[] SEMILLAS = new long[HASHES];
+
+    static {
+        long semilla = 0x5DEECE66DL;
+        for (int i = 0; i < HASHES; i++) {
+            semilla += 0x9E3779B97F4A7C15L;
+            SEMILLAS[i] = mezclar(semilla);
+        }
+    }
+
+    /**
+     * The shingles and band hashes of a body.
+     */
+    static final class Firma {
+        /** Hashes of the distinct shingles, sorted. */
+        final long[] tejas;
+        /** Hash of the whole set of shingles. */
+        final long huella;
+        final int[] bandas;
+
+        Firma(long[] tejas, long huella, int[] bandas) {
+            this.tejas = tejas;
+            this.huella = huella;
+            this.bandas = bandas;
+        }
+    }
+
+    private final double umbral;
+    private final int filas;
+    private final int bandas;
+    /**
+     * Open-addressing table from band hash to summary; a hash may appear several times. Bodies
+     * with the same shingles share every bucket, so only the first of them is kept, identified by
+     * the hash of its shingles: it finds anything that the others would. A catalog holding many
+     * copies of a body would otherwise walk all of them on each lookup.
+     */
+    private int[] claves;
+    private long[] huellas;
+    private Resumen[] resumenes;
+    /** The sorted shingle hashes of each entry's summary, shared by all its entries. */
+    private long[][] tejas;
+    private int tamanio;
+
+    /**
+     * Creates an empty detector.
+     *
+     * @param umbral The Jaccard similarity of the shingles from which two bodies are near
+     *               duplicates, above 0 and at most 1.
+     */
+    public DetectorCasiDuplicados(double umbral) {
+        if (!(umbral > 0 && umbral <= 1)) {
+            throw new IllegalArgumentException("El umbral de similitud debe estar en (0, 1]: " + umbral);
+        }
+        this.umbral = umbral;
+        this.filas = filasPorBanda(umbral);
+        this.bandas = HASHES / filas;
+        this.claves = new int[64];
+        this.huellas = new long[64];
+        this.resumenes = new Resumen[64];
+        this.tejas = new long[64][];
+    }
+
+    /**
+     * Returns the largest number of rows per band, hence the fewest buckets per summary, with
+     * which a pair at the threshold still shares a bucket with probability {@link #RECALL_EN_UMBRAL}.
+     */
+    static int filasPorBanda(double umbral) {
+        for (int filas = HASHES; filas > 1; filas--) {
+            int bandas = HASHES / filas;
+            if (1 - Math.pow(1 - Math.pow(umbral, filas), bandas) >= RECALL_EN_UMBRAL) {
+                return filas;
+            }
+        }
+        return 1;
+    }
+
+    public double getUmbral() {
+        return umbral;
+    }
+
+    /**
+     * Computes the signature of a body.
+     *
+     * @param cuerpo The body.
+     * @return The signature, or {@code null} if the body has no terms.
+     */
+    Firma firma(String cuerpo) {
+        long[] tejas = tejas(cuerpo);
+        if (tejas.length == 0) {
+            return null;
+        }
+        long[] minimos = new long[bandas * filas];
+        Arrays.fill(minimos, Long.MAX_VALUE);
+        for (long teja : tejas) {
+            for (int i = 0; i < minimos.length; i++) {
+                // One multiply per function: the shingle hashes are already well mixed
+                long valor = (teja ^ SEMILLAS[i]) * 0x9E3779B97F4A7C15L;
+                valor ^= valor >>> 32;
+                if (valor < minimos[i]) {
+                    minimos[i] = valor;
+                }
+            }
+        }
+        long huella = tejas.length;
+        for (long teja : tejas) {
+            huella = mezclar(huella ^ teja);
+        }
+        int[] hashesBandas = new int[bandas];
+        for (int b = 0; b < bandas; b++) {
+            long hash = SEMILLAS[b];
+            for (int f = 0; f < filas; f++) {
+                hash = mezclar(hash ^ minimos[b * filas + f]);
+            }
+            hashesBandas[b] = (int) (hash ^ (hash >>> 32));
+        }
+        return new Firma(tejas, huella, hashesBandas);
+    }
+
+    /**
+     * Returns the sorted, distinct hashes of the three-term shingles of a body. A body of fewer
+     * than three terms is a single shingle.
+     */
+    static long[] tejas(String cuerpo) {
+        String[] terminos = Tokenizador.tokenizar(cuerpo);
+        if (terminos.length == 0) {
+            return new long[0];
+        }
+        long[] hashes = new long[terminos.length];
+        for (int i = 0; i < terminos.length; i++) {
+            hashes[i] = mezclar(terminos[i].hashCode() + 0x632BE59BD9B4E019L * terminos[i].length());
+        }
+        int cantidad = Math.max(1, terminos.length - 2);
+        long[] tejas = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            long teja = hashes[i];
+            for (int j = i + 1; j < Math.min(i + 3, hashes.length); j++) {
+                teja = mezclar(teja * 31 + hashes[j]);
+            }
+            tejas[i] = teja;
+        }
+        Arrays.sort(tejas);
+        int distintas = 0;
+        for (int i = 0; i < tejas.length; i++) {
+            if (i == 0 || tejas[i] != tejas[i - 1]) {
+                tejas[distintas++] = tejas[i];
+            }
+        }
+        return Arrays.copyOf(tejas, distintas);
+    }
+
+    /**
+     * Returns the Jaccard similarity of two sorted sets of shingle hashes.
+     */
+    static double similitud(long[] a, long[] b) {
+        int comunes = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                comunes++;
+                i++;
+                j++;
+            }
+        }
+        return (double) comunes / (a.length + b.length - comunes);
+    }
+
+    /**
+     * Looks for a summary already added whose body is a near duplicate of the given one.
+     *
+     * @param firma The signature of the new body.
+     * @return The first summary found at or above the threshold, or {@code null} if there is none.
+     */
+    Resumen buscar(Firma firma) {
+        // A summary sharing several buckets is compared once
+        long[][] comparados = new long[8][];
+        int cantidadComparados = 0;
+        int mascara = claves.length - 1;
+        for (int clave : firma.bandas) {
+            for (int i = posicion(clave); resumenes[i] != null; i = (i + 1) & mascara) {
+                if (claves[i] != clave) {
+                    continue;
+                }
+                long[] candidato = tejas[i];
+                boolean visto = false;
+                for (int k = 0; k < cantidadComparados && !visto; k++) {
+                    visto = comparados[k] == candidato;
+                }
+                if (visto) {
+                    continue;
+                }
+                if (cantidadComparados == comparados.length) {
+                    comparados = Arrays.copyOf(comparados, cantidadComparados * 2);
+                }
+                comparados[cantidadComparados++] = candidato;
+                if (similitud(firma.tejas, candidato) >= umbral) {
+                    return resumenes[i];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a summary to the buckets of its signature.
+     *
+     * @param resumen The summary.
+     * @param firma The signature of its body.
+     */
+    void agregar(Resumen resumen, Firma firma) {
+        while (2 * (tamanio + firma.bandas.length) > claves.length) {
+            redimensionar();
+        }
+        int mascara = claves.length - 1;
+        for (int clave : firma.bandas) {
+            int i = posicion(clave);
+            while (resumenes[i] != null && !(claves[i] == clave && huellas[i] == firma.huella)) {
+                i = (i + 1) & mascara;
+            }
+            if (resumenes[i] == null) {
+                claves[i] = clave;
+                huellas[i] = firma.huella;
+                resumenes[i] = resumen;
+                tejas[i] = firma.tejas;
+                tamanio++;
+            }
+        }
+    }
+
+    private void redimensionar() {
+        int[] clavesAnteriores = claves;
+        long[] huellasAnteriores = huellas;
+        Resumen[] resumenesAnteriores = resumenes;
+        long[][] tejasAnteriores = tejas;
+        claves = new int[clavesAnteriores.length * 2];
+        huellas = new long[clavesAnteriores.length * 2];
+        resumenes = new Resumen[clavesAnteriores.length * 2];
+        tejas = new long[clavesAnteriores.length * 2][];
+        int mascara = claves.length - 1;
+        for (int j = 0; j < clavesAnteriores.length; j++) {
+            if (resumenesAnteriores[j] != null) {
+                int i = posicion(clavesAnteriores[j]);
+                while (resumenes[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clavesAnteriores[j];
+                huellas[i] = huellasAnteriores[j];
+                resumenes[i] = resumenesAnteriores[j];
+                tejas[i] = tejasAnteriores[j];
+            }
+        }
+    }
+
+    private int posicion(int clave) {
+        return (clave * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(claves.length));
+    }
+
+    /** SplitMix64 finalizer: spreads every input bit over the whole result. */
+    private static long mezclar(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
\ No newline at end of file
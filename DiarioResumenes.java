@@ -0,0 +1,310 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of added summaries.
+ * Each record is the length of its payload, the CRC32 of the payload and the payload itself,
+ * a summary encoded with {@link CodecResumen}. Adding a summary writes a single record and
+ * returns once it is on disk. Writers that arrive while another writer is syncing the file
+ * are covered by the next sync, so concurrent adds share one fsync (group commit).
+ */
+public class DiarioResumenes implements Closeable {
+    /** Size of the length and checksum that precede each payload. */
+    private static final int CABECERA_REGISTRO = 8;
+    /** Suffix of a journal that has been rotated out and is being compacted into the snapshot. */
+    private static final String SUFIJO_ROTADO = ".compactando";
+    private static final LongAdder BYTES_ESCRITOS = Metricas.global().contador("persistencia.bytesDiario");
+
+    private final Path ruta;
+    private FileChannel canal;
+    /** Bytes appended since the journal was opened, across rotations. */
+    private long escrito;
+    /** Prefix of {@link #escrito} known to be on disk. */
+    private long durable;
+    private boolean sincronizando;
+
+    /**
+     * Opens the journal at the given path for appending, creating it if needed.
+     * Replay any existing records with {@link #reproducir(Path, Consumer)} before opening.
+     *
+     * @param ruta The path of the journal file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public DiarioResumenes(String ruta) throws IOException {
+        this.ruta = Paths.get(ruta);
+        this.canal = abrirCanal(this.ruta);
+    }
+
+    private static FileChannel abrirCanal(Path ruta) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        canal.position(canal.size());
+        return canal;
+    }
+
+    /**
+     * Appends a summary to the journal and waits until it is durable.
+     *
+     * @param resumen The summary to record.
+     * @throws IOException If the record cannot be written or synced.
+     */
+    public void agregar(Resumen resumen) throws IOException {
+        byte[] registro = codificarRegistro(resumen);
+        long fin;
+        synchronized (this) {
+            escribirCompleto(ByteBuffer.wrap(registro));
+            escrito += registro.length;
+            BYTES_ESCRITOS.add(registro.length);
+            fin = escrito;
+        }
+        esperarDurable(fin);
+    }
+
+    /**
+     * Appends several summaries with a single write and waits until all of them are durable.
+     *
+     * @param resumenes The summaries to record, in order.
+     * @throws IOException If the records cannot be written or synced.
+     */
+    public void agregarLote(MyLinkedList<Resumen> resumenes) throws IOException {
+        ByteArrayOutputStream lote = new ByteArrayOutputStream();
+        Iterator<Resumen> it = resumenes.iterator();
+        while (it.hasNext()) {
+            lote.write(codificarRegistro(it.next()));
+        }
+        long fin;
+        synchronized (this) {
+            escribirCompleto(ByteBuffer.wrap(lote.toByteArray()));
+            escrito += lote.size();
+            BYTES_ESCRITOS.add(lote.size());
+            fin = escrito;
+        }
+        esperarDurable(fin);
+    }
+
+    private void escribirCompleto(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    /**
+     * Blocks until every byte up to {@code posicion} has been synced. The first waiter syncs the
+     * file on behalf of everyone who has written so far; the rest wait for it.
+     */
+    private void esperarDurable(long posicion) throws IOException {
+        while (true) {
+            FileChannel aSincronizar;
+            long objetivo;
+            synchronized (this) {
+                while (durable < posicion && sincronizando) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrumpido esperando la escritura del diario.");
+                    }
+                }
+                if (durable >= posicion) {
+                    return;
+                }
+                sincronizando = true;
+                objetivo = escrito;
+                aSincronizar = canal;
+            }
+            boolean sincronizado = false;
+            try {
+                aSincronizar.force(false);
+                sincronizado = true;
+            } finally {
+                synchronized (this) {
+                    sincronizando = false;
+                    if (sincronizado) {
+                        durable = Math.max(durable, objetivo);
+                    }
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    private static byte[] codificarRegistro(Resumen resumen) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(0); // Placeholder for the length and checksum.
+        CodecResumen.escribir(out, resumen);
+        out.flush();
+        byte[] registro = bytes.toByteArray();
+        int longitud = registro.length - CABECERA_REGISTRO;
+        CRC32 crc = new CRC32();
+        crc.update(registro, CABECERA_REGISTRO, longitud);
+        ByteBuffer.wrap(registro).putInt(longitud).putInt((int) crc.getValue());
+        return registro;
+    }
+
+    /**
+     * Returns the current size of the journal file in bytes.
+     *
+     * @return The size of the journal file.
+     * @throws IOException If the size cannot be read.
+     */
+    public synchronized long tamanio() throws IOException {
+        return canal.size();
+    }
+
+    /**
+     * Returns the path used for the journal while it is being compacted.
+     *
+     * @return The path of the rotated journal.
+     */
+    public Path getRutaRotada() {
+        return rutaRotada(ruta);
+    }
+
+    /**
+     * Returns the path used while compacting the journal stored at the given path.
+     *
+     * @param ruta The path of the journal file.
+     * @return The path of the rotated journal.
+     */
+    public static Path rutaRotada(Path ruta) {
+        return ruta.resolveSibling(ruta.getFileName() + SUFIJO_ROTADO);
+    }
+
+    /**
+     * Moves the current journal aside to {@link #getRutaRotada()} and starts an empty one.
+     * Records added afterwards go to the new file, so the rotated one can be folded into a
+     * snapshot and deleted without blocking writers.
+     * <p>
+     * A rotated journal is only left on disk when folding it failed, and its records may be in
+     * no snapshot yet. It is never replaced: the current records are appended to it instead,
+     * after its own, and the current journal is emptied once they are on disk.
+     *
+     * @throws IOException If the journal cannot be synced, moved or appended.
+     */
+    public synchronized void rotar() throws IOException {
+        esperarSinSincronizar();
+        canal.force(false);
+        durable = escrito;
+        Path rotada = getRutaRotada();
+        if (Files.exists(rotada)) {
+            try (FileChannel destino = FileChannel.open(rotada, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long tamanio = canal.size();
+                for (long copiado = 0; copiado < tamanio; ) {
+                    copiado += canal.transferTo(copiado, tamanio - copiado, destino);
+                }
+                destino.force(false);
+            }
+            // A crash before this leaves the records in both files; replaying them twice is harmless.
+            canal.truncate(0);
+            canal.force(false);
+            return;
+        }
+        canal.close();
+        Files.move(ruta, rotada, StandardCopyOption.ATOMIC_MOVE);
+        canal = abrirCanal(ruta);
+    }
+
+    /**
+     * Discards every record in the journal. Only call this once a snapshot holding all of
+     * them has been written.
+     *
+     * @throws IOException If the journal cannot be truncated.
+     */
+    public synchronized void vaciar() throws IOException {
+        esperarSinSincronizar();
+        canal.truncate(0);
+        canal.force(false);
+        durable = escrito;
+    }
+
+    private void esperarSinSincronizar() throws IOException {
+        while (sincronizando) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrumpido esperando la escritura del diario.");
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        esperarSinSincronizar();
+        canal.close();
+    }
+
+    /**
+     * Reads every valid record of a journal file in order and passes the decoded summaries on.
+     * Reading stops at the first truncated or corrupt record, which is what a crash in the
+     * middle of an append leaves behind, and the file is cut back to the last valid record.
+     *
+     * @param ruta The path of the journal file. Nothing happens if it does not exist.
+     * @param destino Receives each recorded summary.
+     * @return The number of records replayed.
+     * @throws IOException If the file cannot be read.
+     */
+    public static int reproducir(Path ruta, Consumer<Resumen> destino) throws IOException {
+        if (!Files.exists(ruta)) {
+            return 0;
+        }
+        int registros = 0;
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamanio = canal.size();
+            long posicion = 0;
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_REGISTRO);
+            CRC32 crc = new CRC32();
+            while (posicion + CABECERA_REGISTRO <= tamanio) {
+                cabecera.clear();
+                leerCompleto(canal, cabecera, posicion);
+                cabecera.flip();
+                int longitud = cabecera.getInt();
+                int suma = cabecera.getInt();
+                if (longitud < 0 || posicion + CABECERA_REGISTRO + longitud > tamanio) {
+                    break;
+                }
+                ByteBuffer carga = ByteBuffer.allocate(longitud);
+                leerCompleto(canal, carga, posicion + CABECERA_REGISTRO);
+                crc.reset();
+                crc.update(carga.array(), 0, longitud);
+                if ((int) crc.getValue() != suma) {
+                    break;
+                }
+                destino.accept(CodecResumen.leer(new DataInputStream(new ByteArrayInputStream(carga.array()))));
+                posicion += CABECERA_REGISTRO + longitud;
+                registros++;
+            }
+            if (posicion < tamanio) {
+                Registro.advertencia("Diario " + ruta + " truncado en el byte " + posicion + " por un registro incompleto.", null);
+                canal.truncate(posicion);
+                canal.force(false);
+            }
+        }
+        return registros;
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            int leidos = canal.read(buffer, posicion);
+            if (leidos < 0) {
+                throw new IOException("Fin inesperado del diario.");
+            }
+            posicion += leidos;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shared dictionary of author names and keywords, each stored once and referred to by an int id.
+ * <p>
+ * Summaries added to a {@link ResumenManager} keep their authors and keywords as {@code int[]} ids
+ * into the manager's dictionary instead of their own string arrays. Terms are trimmed before
+ * being looked up, so "Christian Guillén-Drija " and "Christian Guillén-Drija" share an id; case
+ * and accents are kept for display. The dictionary is written with the binary catalog.
+ * <p>
+ * Adding terms is serialized. Decoding takes no lock, so summaries can be read by searches and
+ * by a background compaction while new terms are being added: the id-to-term array is published
+ * through a volatile field, replaced by a larger copy when it fills up, and the term count is
+ * written after the term it covers.
+ */
+public class DiccionarioTerminos {
+    /** Guarded by {@link #escritura}. */
+    private final MyMap<String, Integer> ids = new MyMap<>();
+    private final ReentrantLock escritura = new ReentrantLock();
+    private volatile String[] terminos = new String[64];
+    private volatile int cantidad;
+
+    /**
+     * Returns the id of a term, adding it to the dictionary if it is new.
+     *
+     * @param termino The term. Leading and trailing whitespace is ignored.
+     * @return The id of the trimmed term.
+     */
+    public int codificar(String termino) {
+        String recortado = termino.trim();
+        escritura.lock();
+        try {
+            Integer id = ids.get(recortado);
+            if (id != null) {
+                return id;
+            }
+            int nuevo = cantidad;
+            String[] actuales = terminos;
+            if (nuevo == actuales.length) {
+                actuales = Arrays.copyOf(actuales, nuevo * 2);
+            }
+            actuales[nuevo] = recortado;
+            terminos = actuales;
+            ids.put(recortado, nuevo);
+            cantidad = nuevo + 1;
+            return nuevo;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of several terms, adding the new ones.
+     *
+     * @param terminos The terms, or {@code null}.
+     * @return Their ids in the same order, or {@code null} if {@code terminos} is {@code null}.
+     */
+    public int[] codificar(String[] terminos) {
+        if (terminos == null) {
+            return null;
+        }
+        int[] resultado = new int[terminos.length];
+        escritura.lock();
+        try {
+            for (int i = 0; i < terminos.length; i++) {
+                resultado[i] = codificar(terminos[i]);
+            }
+        } finally {
+            escritura.unlock();
+        }
+        return resultado;
+    }
+
+    /**
+     * Returns the term with the given id. Never blocks.
+     *
+     * @param id An id returned by {@link #codificar(String)}.
+     * @return The term.
+     */
+    public String termino(int id) {
+        // The count first: the array read after it holds every term below it
+        if (id < 0 || id >= cantidad) {
+            throw new IndexOutOfBoundsException("Id de término inexistente: " + id);
+        }
+        return terminos[id];
+    }
+
+    /**
+     * Returns the terms with the given ids. The returned strings are shared, the array is new.
+     * Never blocks.
+     *
+     * @param ids The ids, or {@code null}.
+     * @return The terms in the same order, or {@code null} if {@code ids} is {@code null}.
+     */
+    public String[] decodificar(int[] ids) {
+        if (ids == null) {
+            return null;
+        }
+        int total = cantidad;
+        String[] actuales = terminos;
+        String[] resultado = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] < 0 || ids[i] >= total) {
+                throw new IndexOutOfBoundsException("Id de término inexistente: " + ids[i]);
+            }
+            resultado[i] = actuales[ids[i]];
+        }
+        return resultado;
+    }
+
+    /**
+     * Returns the number of distinct terms.
+     *
+     * @return The number of terms.
+     */
+    public int size() {
+        return cantidad;
+    }
+
+    /**
+     * Estimates the heap taken by the authors and keywords of the given summaries with and
+     * without this dictionary, assuming a 64-bit JVM with compressed references and Latin-1 strings.
+     *
+     * @param resumenes The summaries encoded with this dictionary.
+     * @return A human-readable report.
+     */
+    public String informeAhorro(MyLinkedList<Resumen> resumenes) {
+        long referencias = 0;
+        long bytesSinDiccionario = 0;
+        long bytesConDiccionario = 0;
+        Iterator<Resumen> it = resumenes.iterator();
+        while (it.hasNext()) {
+            Resumen resumen = it.next();
+            for (String[] grupo : new String[][] {resumen.getAutores(), resumen.getPalabrasClave()}) {
+                if (grupo == null) {
+                    continue;
+                }
+                // Each parsed summary used to hold its own copy of every term in a String[];
+                // now it holds an int[] of the same size pointing into the dictionary.
+                bytesSinDiccionario += tamanioArreglo(grupo.length, 4);
+                bytesConDiccionario += tamanioArreglo(grupo.length, 4);
+                for (String termino : grupo) {
+                    referencias++;
+                    bytesSinDiccionario += tamanioTexto(termino);
+                }
+            }
+            if (resumen.getAutores() != null) {
+                // The list of authors each investigation used to copy: list plus one node per author.
+                bytesSinDiccionario += 24 + 24L * resumen.getAutores().length;
+            }
+        }
+        int total = cantidad;
+        String[] actuales = terminos;
+        for (int i = 0; i < total; i++) {
+            bytesConDiccionario += tamanioTexto(actuales[i]) + 32; // string and map entry
+        }
+        bytesConDiccionario += tamanioArreglo(actuales.length, 4);
+        return String.format("%d resúmenes, %d referencias a %d términos distintos: %,d bytes sin diccionario, "
+                        + "%,d bytes con diccionario (%,d bytes ahorrados, %.1f%%)",
+                resumenes.size(), referencias, size(), bytesSinDiccionario, bytesConDiccionario,
+                bytesSinDiccionario - bytesConDiccionario,
+                bytesSinDiccionario == 0 ? 0 : 100.0 * (bytesSinDiccionario - bytesConDiccionario) / bytesSinDiccionario);
+    }
+
+    private static long tamanioTexto(String texto) {
+        return 24 + tamanioArreglo(texto.length(), 1);
+    }
+
+    private static long tamanioArreglo(int elementos, int bytesPorElemento) {
+        return (16 + (long) elementos * bytesPorElemento + 7) / 8 * 8;
+    }
+
+    /**
+     * Prints the heap saved by the dictionary on the summaries stored in a data directory.
+     *
+     * @param args Optionally, the data directory; the working directory by default.
+     */
+    public static void main(String[] args) {
+        Path directorio = Paths.get(args.length > 0 ? args[0] : ".");
+        ResumenManager resumenManager = new ResumenManager(directorio);
+        System.out.println(resumenManager.getDiccionario().informeAhorro(resumenManager.resumenes.values()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,244 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Scalable Bloom filter of strings: answers in constant time whether a string may have been
+ * added, with no false negatives and a bounded rate of false positives.
+ * <p>
+ * A plain Bloom filter is sized for a number of elements and its error rate climbs once more are
+ * added. This one is a chain of layers: when the last layer holds as many elements as it was
+ * sized for, a layer twice as large and with half the error rate is appended, so the rates of
+ * all layers add up to at most the rate asked for however many elements arrive. A lookup tests
+ * each layer with {@code k} bit probes derived from a single 64-bit hash of the string.
+ * <p>
+ * Lookups never block and may run while elements are added; an element is found by every lookup
+ * that starts after {@link #agregar(String)} returns. Additions are serialized.
+ */
+public class FiltroBloom {
+    /** False-positive rate used unless told otherwise. */
+    static final double ERROR_PREDETERMINADO = 0.01;
+    /** Each new layer has this fraction of the error rate of the one before it. */
+    private static final double RAZON_ERROR = 0.5;
+    private static final int MIN_CAPACIDAD = 64;
+
+    /** A plain Bloom filter sized for a number of elements. */
+    private static final class Capa {
+        final AtomicLongArray bits;
+        final long cantidadBits;
+        final int hashes;
+        final int capacidad;
+        /** Elements added to this layer. Guarded by the filter. */
+        int cantidad;
+
+        Capa(int capacidad, double error) {
+            long bitsNecesarios = (long) Math.ceil(-capacidad * Math.log(error) / (Math.log(2) * Math.log(2)));
+            int palabras = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bitsNecesarios + 63) >>> 6));
+            this.bits = new AtomicLongArray(palabras);
+            this.cantidadBits = 64L * palabras;
+            this.hashes = Math.max(1, (int) Math.round((double) cantidadBits / capacidad * Math.log(2)));
+            this.capacidad = capacidad;
+        }
+
+        Capa(long[] palabras, int hashes, int capacidad, int cantidad) {
+            this.bits = new AtomicLongArray(palabras);
+            this.cantidadBits = 64L * palabras.length;
+            this.hashes = hashes;
+            this.capacidad = capacidad;
+            this.cantidad = cantidad;
+        }
+
+        boolean contiene(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % cantidadBits;
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void agregar(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % cantidadBits;
+                int palabra = (int) (bit >>> 6);
+                // Single writer: the read and the volatile write need not be atomic together
+                bits.set(palabra, bits.get(palabra) | (1L << bit));
+            }
+            cantidad++;
+        }
+    }
+
+    private final double error;
+    private volatile Capa[] capas;
+
+    /**
+     * Creates an empty filter with the default error rate.
+     *
+     * @param capacidadInicial The number of elements expected; more may be added.
+     */
+    public FiltroBloom(int capacidadInicial) {
+        this(capacidadInicial, ERROR_PREDETERMINADO);
+    }
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param capacidadInicial The number of elements expected; more may be added.
+     * @param error The highest rate of false positives, between 0 and 1 exclusive.
+     */
+    public FiltroBloom(int capacidadInicial, double error) {
+        if (!(error > 0 && error < 1)) {
+            throw new IllegalArgumentException("La tasa de falsos positivos debe estar en (0, 1): " + error);
+        }
+        this.error = error;
+        this.capas = new Capa[] {new Capa(Math.max(MIN_CAPACIDAD, capacidadInicial), error * (1 - RAZON_ERROR))};
+    }
+
+    private FiltroBloom(double error, Capa[] capas) {
+        this.error = error;
+        this.capas = capas;
+    }
+
+    /**
+     * Adds a string, unless the filter may already hold it.
+     *
+     * @param elemento The string.
+     * @return {@code true} if the filter did not hold the string before.
+     */
+    public synchronized boolean agregar(String elemento) {
+        long hash = hash(elemento);
+        Capa[] actuales = capas;
+        for (Capa capa : actuales) {
+            if (capa.contiene(hash)) {
+                return false;
+            }
+        }
+        Capa ultima = actuales[actuales.length - 1];
+        if (ultima.cantidad >= ultima.capacidad) {
+            double errorCapa = error * (1 - RAZON_ERROR) * Math.pow(RAZON_ERROR, actuales.length);
+            int capacidad = (int) Math.min(Integer.MAX_VALUE / 2, 2L * ultima.capacidad);
+            Capa[] mas = new Capa[actuales.length + 1];
+            System.arraycopy(actuales, 0, mas, 0, actuales.length);
+            mas[actuales.length] = ultima = new Capa(capacidad, errorCapa);
+            capas = mas;
+        }
+        ultima.agregar(hash);
+        return true;
+    }
+
+    /**
+     * Returns whether a string may have been added. Never blocks.
+     *
+     * @param elemento The string.
+     * @return {@code false} if the string was certainly never added.
+     */
+    public boolean puedeContener(String elemento) {
+        long hash = hash(elemento);
+        for (Capa capa : capas) {
+            if (capa.contiene(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of distinct strings added, less those taken for ones already added
+     * because of a false positive.
+     *
+     * @return The number of elements.
+     */
+    public synchronized int cantidad() {
+        int cantidad = 0;
+        for (Capa capa : capas) {
+            cantidad += capa.cantidad;
+        }
+        return cantidad;
+    }
+
+    /**
+     * Returns the memory taken by the bits of the filter.
+     *
+     * @return The number of bytes.
+     */
+    public long bytes() {
+        long bytes = 0;
+        for (Capa capa : capas) {
+            bytes += capa.cantidadBits / 8;
+        }
+        return bytes;
+    }
+
+    /** 64-bit FNV-1a over the characters, then a finalizer so that both halves are well mixed. */
+    private static long hash(String elemento) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < elemento.length(); i++) {
+            h = (h ^ elemento.charAt(i)) * 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Writes the filter: the error rate, the number of layers, then per layer its capacity,
+     * hash count, element count, number of 64-bit words and the words.
+     *
+     * @param out The destination.
+     * @throws IOException If it cannot be written.
+     */
+    synchronized void escribir(DataOutputStream out) throws IOException {
+        out.writeDouble(error);
+        out.writeInt(capas.length);
+        for (Capa capa : capas) {
+            out.writeInt(capa.capacidad);
+            out.writeInt(capa.hashes);
+            out.writeInt(capa.cantidad);
+            out.writeInt(capa.bits.length());
+            for (int i = 0; i < capa.bits.length(); i++) {
+                out.writeLong(capa.bits.get(i));
+            }
+        }
+    }
+
+    /**
+     * Reads a filter written by {@link #escribir(DataOutputStream)}.
+     *
+     * @param buffer The source, positioned at the filter.
+     * @return The filter.
+     * @throws IllegalArgumentException If the data does not describe a valid filter.
+     */
+    static FiltroBloom leer(ByteBuffer buffer) {
+        double error = buffer.getDouble();
+        int cantidadCapas = buffer.getInt();
+        if (!(error > 0 && error < 1) || cantidadCapas < 1 || cantidadCapas > 32) {
+            throw new IllegalArgumentException("Filtro de Bloom dañado.");
+        }
+        Capa[] capas = new Capa[cantidadCapas];
+        for (int c = 0; c < cantidadCapas; c++) {
+            int capacidad = buffer.getInt();
+            int hashes = buffer.getInt();
+            int cantidad = buffer.getInt();
+            int palabras = buffer.getInt();
+            if (capacidad < 1 || hashes < 1 || hashes > 64 || cantidad < 0 || palabras < 1 || palabras > buffer.remaining() / 8) {
+                throw new IllegalArgumentException("Filtro de Bloom dañado.");
+            }
+            long[] bits = new long[palabras];
+            buffer.asLongBuffer().get(bits);
+            buffer.position(buffer.position() + 8 * palabras);
+            capas[c] = new Capa(bits, hashes, capacidad, cantidad);
+        }
+        return new FiltroBloom(error, capas);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FiltroBloom[%d elementos, %d capas, %d bytes]", cantidad(), capas.length, bytes());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+/**
+ * A term of a summary, with how often it occurs there and in how many summaries of the corpus,
+ * as listed by {@link IndiceTextoCompleto#terminosFrecuentes(Resumen, int)}, or only how often it
+ * occurs there, as listed by {@link IndiceTextoCompleto#terminosFrecuentesPropios(Resumen, int)}.
+ */
+public class FrecuenciaTermino {
+    private final String termino;
+    private final int frecuencia;
+    private final int documentos;
+    private final double peso;
+
+    /**
+     * Constructs a term breakdown entry.
+     *
+     * @param termino The normalized term.
+     * @param frecuencia The number of occurrences of the term in the summary.
+     * @param documentos The number of summaries of the corpus containing the term, or -1 if not known.
+     * @param peso The TF-IDF weight of the term in the summary, or its frequency if the corpus is not known.
+     */
+    public FrecuenciaTermino(String termino, int frecuencia, int documentos, double peso) {
+        this.termino = termino;
+        this.frecuencia = frecuencia;
+        this.documentos = documentos;
+        this.peso = peso;
+    }
+
+    /**
+     * Returns the term.
+     *
+     * @return The normalized term.
+     */
+    public String getTermino() {
+        return termino;
+    }
+
+    /**
+     * Returns the number of occurrences of the term in the summary.
+     *
+     * @return The term frequency.
+     */
+    public int getFrecuencia() {
+        return frecuencia;
+    }
+
+    /**
+     * Returns the number of summaries of the corpus containing the term.
+     *
+     * @return The document frequency, or -1 if not known.
+     */
+    public int getDocumentos() {
+        return documentos;
+    }
+
+    /**
+     * Returns the TF-IDF weight of the term in the summary. Higher means more characteristic.
+     *
+     * @return The weight.
+     */
+    public double getPeso() {
+        return peso;
+    }
+
+    @Override
+    public String toString() {
+        if (documentos < 0) {
+            return String.format("%s (%d en el resumen)", termino, frecuencia);
+        }
+        return String.format("%.3f  %s (%d en el resumen, en %d resúmenes)", peso, termino, frecuencia, documentos);
+    }
+}
\ No newline at end of file
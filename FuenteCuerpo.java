@@ -0,0 +1,13 @@
+/**
+ * Storage that can produce the body of a summary on demand, so summaries loaded from disk
+ * do not have to keep their body text in memory.
+ */
+public interface FuenteCuerpo {
+    /**
+     * Decodes the body of a summary.
+     *
+     * @param indice The position of the summary in this storage.
+     * @return The body of the summary, or {@code null} if it has none.
+     */
+    String leerCuerpo(int indice);
+}
\ No newline at end of file
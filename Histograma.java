@@ -0,0 +1,149 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with buckets of bounded relative width, in the style of HdrHistogram.
+ * <p>
+ * Values below 32 get a bucket each. Every larger power-of-two range is split into 32 equal
+ * buckets, so a recorded value is reported with a relative error below 1/32 (about 3%) whatever
+ * its magnitude, and the whole {@code long} range fits in 1920 counters. Recording is lock-free
+ * and may be done from any number of threads; percentiles read while values are being recorded
+ * may miss the most recent ones.
+ */
+public class Histograma {
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA + 1) * SUBCUBETAS;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(CUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator minimo = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    /**
+     * Records a value.
+     *
+     * @param valor The value, usually a duration in nanoseconds. Negative values count as 0.
+     */
+    public void registrar(long valor) {
+        valor = Math.max(0, valor);
+        cuentas.incrementAndGet(cubeta(valor));
+        cantidad.increment();
+        suma.add(valor);
+        minimo.accumulate(valor);
+        maximo.accumulate(valor);
+    }
+
+    /**
+     * Records the time elapsed since a given instant.
+     *
+     * @param inicio A value previously returned by {@link System#nanoTime()}.
+     */
+    public void registrarDesde(long inicio) {
+        registrar(System.nanoTime() - inicio);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return The number of values.
+     */
+    public long cantidad() {
+        return cantidad.sum();
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return The minimum, or 0 if nothing was recorded.
+     */
+    public long minimo() {
+        return cantidad() == 0 ? 0 : minimo.get();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return The maximum, or 0 if nothing was recorded.
+     */
+    public long maximo() {
+        return cantidad() == 0 ? 0 : maximo.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return The mean, or 0 if nothing was recorded.
+     */
+    public double media() {
+        long n = cantidad();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the recorded values fall,
+     * rounded up to the top of its bucket and capped at the maximum.
+     *
+     * @param percentil The percentage, from 0 to 100.
+     * @return The percentile, or 0 if nothing was recorded.
+     */
+    public long percentil(double percentil) {
+        long total = 0;
+        long[] instantanea = new long[CUBETAS];
+        for (int i = 0; i < CUBETAS; i++) {
+            instantanea[i] = cuentas.get(i);
+            total += instantanea[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentil)) / 100));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += instantanea[i];
+            if (acumulado >= objetivo) {
+                return Math.min(maximoCubeta(i), maximo());
+            }
+        }
+        return maximo();
+    }
+
+    /**
+     * Appends this histogram to a JSON document as an object with its count, mean and percentiles.
+     *
+     * @param json The document being built.
+     */
+    public void agregarJson(StringBuilder json) {
+        json.append("{\"cantidad\": ").append(cantidad())
+                .append(", \"min\": ").append(minimo())
+                .append(", \"media\": ").append(String.format(Locale.ROOT, "%.1f", media()))
+                .append(", \"p50\": ").append(percentil(50))
+                .append(", \"p90\": ").append(percentil(90))
+                .append(", \"p99\": ").append(percentil(99))
+                .append(", \"p999\": ").append(percentil(99.9))
+                .append(", \"max\": ").append(maximo()).append('}');
+    }
+
+    static int cubeta(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return (exponente - BITS_SUBCUBETA + 1) * SUBCUBETAS + sub;
+    }
+
+    static long maximoCubeta(int cubeta) {
+        if (cubeta < SUBCUBETAS) {
+            return cubeta;
+        }
+        int exponente = cubeta / SUBCUBETAS + BITS_SUBCUBETA - 1;
+        int sub = cubeta % SUBCUBETAS;
+        long ancho = 1L << (exponente - BITS_SUBCUBETA);
+        long inicio = (1L << exponente) + sub * ancho;
+        return inicio + (ancho - 1);
+    }
+}
\ No newline at end of file
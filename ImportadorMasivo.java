@@ -0,0 +1,172 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Imports every abstract file under a directory tree.
+ * Files are parsed in parallel on a fork-join pool, in chunks of {@link #TAMANIO_LOTE}; each
+ * parsed chunk is handed to {@link ResumenManager#agregarResumenes(MyLinkedList)} as one batch,
+ * in file order, while later chunks are still being parsed.
+ */
+public class ImportadorMasivo {
+    /** Number of files parsed by one task and added to the manager as one batch. */
+    static final int TAMANIO_LOTE = 256;
+
+    /**
+     * Outcome of an import.
+     */
+    public static class Informe {
+        private int archivos;
+        private int importados;
+        private int errores;
+        private long nanos;
+
+        public int getArchivos() {
+            return archivos;
+        }
+
+        public int getImportados() {
+            return importados;
+        }
+
+        /**
+         * Returns the number of files that were parsed but not added: their title was already
+         * present or, when near-duplicate detection is enabled, their body nearly repeated one
+         * already present. The metrics {@code resumenes.duplicados} and
+         * {@code resumenes.casiDuplicados} tell the two apart.
+         */
+        public int getDuplicados() {
+            return archivos - errores - importados;
+        }
+
+        public int getErrores() {
+            return errores;
+        }
+
+        /**
+         * Returns the number of files processed per second, parsing and indexing included.
+         */
+        public double getDocumentosPorSegundo() {
+            return nanos == 0 ? 0 : archivos * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d archivos, %d importados, %d duplicados, %d con errores en %.2f s (%.0f documentos/s)",
+                    archivos, importados, getDuplicados(), errores, nanos / 1e9, getDocumentosPorSegundo());
+        }
+    }
+
+    /** Parsed summaries of a chunk, plus the number of files that could not be parsed. */
+    private static class Lote {
+        final MyLinkedList<Resumen> resumenes = new MyLinkedList<>();
+        int errores;
+    }
+
+    private final ResumenManager resumenManager;
+    private final int hilos;
+
+    /**
+     * Constructs an importer that adds to the given manager.
+     *
+     * @param resumenManager The manager receiving the summaries.
+     * @param hilos The number of parser threads.
+     */
+    public ImportadorMasivo(ResumenManager resumenManager, int hilos) {
+        if (hilos <= 0) throw new IllegalArgumentException("El número de hilos debe ser positivo.");
+        this.resumenManager = resumenManager;
+        this.hilos = hilos;
+    }
+
+    /**
+     * Imports every {@code .txt} file under the given directory.
+     *
+     * @param directorio The root of the directory tree.
+     * @return A report of the import.
+     * @throws IOException If the directory tree cannot be walked.
+     */
+    public Informe importar(Path directorio) throws IOException {
+        long inicio = System.nanoTime();
+        Path[] archivos = listarArchivos(directorio);
+        Informe informe = new Informe();
+        informe.archivos = archivos.length;
+
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            int cantidadLotes = (archivos.length + TAMANIO_LOTE - 1) / TAMANIO_LOTE;
+            // Generic arrays cannot be created; the array only ever holds futures of batches
+            @SuppressWarnings("unchecked")
+            Future<Lote>[] lotes = (Future<Lote>[]) new Future<?>[cantidadLotes];
+            for (int i = 0; i < cantidadLotes; i++) {
+                int desde = i * TAMANIO_LOTE;
+                int hasta = Math.min(archivos.length, desde + TAMANIO_LOTE);
+                lotes[i] = pool.submit(() -> parsear(archivos, desde, hasta));
+            }
+            for (int i = 0; i < cantidadLotes; i++) {
+                Lote lote = esperar(lotes[i]);
+                lotes[i] = null;
+                informe.errores += lote.errores;
+                informe.importados += resumenManager.agregarResumenes(lote.resumenes);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        informe.nanos = System.nanoTime() - inicio;
+        return informe;
+    }
+
+    private static Path[] listarArchivos(Path directorio) throws IOException {
+        try (Stream<Path> recorrido = Files.walk(directorio)) {
+            return recorrido
+                    .filter(Files::isRegularFile)
+                    .filter(ruta -> ruta.getFileName().toString().toLowerCase().endsWith(".txt"))
+                    .sorted()
+                    .toArray(Path[]::new);
+        }
+    }
+
+    private static Lote parsear(Path[] archivos, int desde, int hasta) {
+        Lote lote = new Lote();
+        for (int i = desde; i < hasta; i++) {
+            try {
+                lote.resumenes.add(ParserResumen.leer(archivos[i]));
+            } catch (IOException e) {
+                Registro.advertencia("No se pudo importar " + archivos[i] + ": " + e.getMessage(), null);
+                lote.errores++;
+            }
+        }
+        return lote;
+    }
+
+    private static Lote esperar(Future<Lote> lote) throws IOException {
+        try {
+            return lote.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error al importar un lote.", e.getCause());
+        }
+    }
+
+    /**
+     * Imports a directory tree into the summaries stored in the working directory.
+     *
+     * @param args The directory to import and, optionally, the number of parser threads.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: java ImportadorMasivo <directorio> [hilos]");
+            return;
+        }
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ResumenManager resumenManager = new ResumenManager();
+        Informe informe = new ImportadorMasivo(resumenManager, hilos).importar(Paths.get(args[0]));
+        System.out.println(informe);
+    }
+}
\ No newline at end of file
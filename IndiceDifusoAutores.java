@@ -0,0 +1,363 @@
+import java.util.Arrays;
+
+/**
+ * Approximate search over author names, tolerant to accents, hyphens, spacing and small typos.
+ * <p>
+ * Names are compared in a folded form: accents removed and lower-cased as in
+ * {@link Tokenizador#normalizar(char)}, every run of non-alphanumeric characters turned into
+ * one space. "Christian Guillén-Drija " is thus compared as "christian guillen drija". A query
+ * matches a name when it is within a bounded edit distance of the whole name or of any run of
+ * consecutive words in it, so a surname alone also matches.
+ * <p>
+ * Candidates come from a trigram index over the folded names. A string within {@code k} edits
+ * of the query keeps all but at most {@code 3k} of the query's trigrams, so a name can only match
+ * if it appears in at least one of the {@code 3k + 1} rarest query trigram lists. Only names from
+ * those lists become candidates; their hits in the longer lists are then counted, and only
+ * those reaching the trigram bound are verified with the edit distance.
+ * <p>
+ * Several threads may search at once, each reusing its own scratch arrays, but not while a
+ * name is being added.
+ */
+public class IndiceDifusoAutores {
+
+    /** Ascending ids of the names containing a trigram. */
+    private static final class Lista {
+        int[] ids = new int[2];
+        int tamanio;
+
+        void agregar(int id) {
+            if (tamanio > 0 && ids[tamanio - 1] == id) {
+                return;
+            }
+            if (tamanio == ids.length) {
+                int[] mayor = new int[tamanio * 2];
+                System.arraycopy(ids, 0, mayor, 0, tamanio);
+                ids = mayor;
+            }
+            ids[tamanio++] = id;
+        }
+
+        boolean contiene(int id) {
+            int bajo = 0;
+            int alto = tamanio - 1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (ids[medio] < id) {
+                    bajo = medio + 1;
+                } else if (ids[medio] > id) {
+                    alto = medio - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** A verified match, ordered by distance and then by how much of the name it covers. */
+    private static final class Coincidencia {
+        final int id;
+        final int distancia;
+        final int sinCubrir;
+
+        Coincidencia(int id, int distancia, int sinCubrir) {
+            this.id = id;
+            this.distancia = distancia;
+            this.sinCubrir = sinCubrir;
+        }
+
+        boolean mejorQue(Coincidencia otra) {
+            if (distancia != otra.distancia) {
+                return distancia < otra.distancia;
+            }
+            return sinCubrir < otra.sinCubrir;
+        }
+    }
+
+    /** Scratch arrays of the searches run by one thread. */
+    private static final class Borrador {
+        /** Hits per name during a search; all zero between searches. */
+        int[] contadores = new int[0];
+        /** Names with a non-zero hit count during a search. */
+        int[] candidatos = new int[64];
+    }
+
+    private final MyMap<String, Lista> listasPorTrigrama = new MyMap<>();
+    private String[] autores = new String[16];
+    private String[] formas = new String[16];
+    private int cantidad;
+    private final ThreadLocal<Borrador> borradores = ThreadLocal.withInitial(Borrador::new);
+
+    /**
+     * Adds an author name to the index.
+     *
+     * @param autor The author as indexed by {@link BusquedaResumen}.
+     */
+    public void agregar(String autor) {
+        String forma = plegar(autor);
+        if (forma.isEmpty()) {
+            return;
+        }
+        if (cantidad == autores.length) {
+            autores = Arrays.copyOf(autores, cantidad * 2);
+            formas = Arrays.copyOf(formas, cantidad * 2);
+        }
+        int id = cantidad++;
+        autores[id] = autor;
+        formas[id] = forma;
+        String relleno = " " + forma + " ";
+        for (int i = 0; i + 3 <= relleno.length(); i++) {
+            String trigrama = relleno.substring(i, i + 3);
+            Lista lista = listasPorTrigrama.get(trigrama);
+            if (lista == null) {
+                lista = new Lista();
+                listasPorTrigrama.put(trigrama, lista);
+            }
+            lista.agregar(id);
+        }
+    }
+
+    /**
+     * Returns the number of names in the index.
+     *
+     * @return The number of names.
+     */
+    public int size() {
+        return cantidad;
+    }
+
+    /**
+     * Finds the author names closest to a query.
+     *
+     * @param consulta The name, or part of a name, as typed by the user.
+     * @param maxResultados The maximum number of names to return.
+     * @return The matching authors as indexed by {@link BusquedaResumen}, closest first.
+     */
+    public MyLinkedList<String> buscar(String consulta, int maxResultados) {
+        MyLinkedList<String> resultado = new MyLinkedList<>();
+        String forma = plegar(consulta);
+        if (forma.isEmpty() || maxResultados <= 0) {
+            return resultado;
+        }
+        int k = distanciaMaxima(forma.length());
+
+        // Distinct trigrams of the query that occur in some name, rarest first.
+        String relleno = " " + forma + " ";
+        int totalTrigramas = 0;
+        Lista[] listas = new Lista[relleno.length()];
+        int cantidadListas = 0;
+        MyMap<String, Boolean> vistos = new MyMap<>();
+        for (int i = 0; i + 3 <= relleno.length(); i++) {
+            String trigrama = relleno.substring(i, i + 3);
+            if (vistos.containsKey(trigrama)) {
+                continue;
+            }
+            vistos.put(trigrama, Boolean.TRUE);
+            totalTrigramas++;
+            Lista lista = listasPorTrigrama.get(trigrama);
+            if (lista != null) {
+                listas[cantidadListas++] = lista;
+            }
+        }
+        int minimoComun = totalTrigramas - 3 * k;
+        if (cantidadListas < minimoComun) {
+            return resultado;
+        }
+        ordenarPorTamanio(listas, cantidadListas);
+
+        // Count hits in the lists that every match must touch at least once.
+        int listasRaras = Math.min(cantidadListas, cantidadListas - minimoComun + 1);
+        Borrador borrador = borradores.get();
+        if (borrador.contadores.length < cantidad) {
+            borrador.contadores = new int[autores.length];
+        }
+        int[] contadores = borrador.contadores;
+        int[] candidatos = borrador.candidatos;
+        int cantidadCandidatos = 0;
+        for (int i = 0; i < listasRaras; i++) {
+            Lista lista = listas[i];
+            for (int j = 0; j < lista.tamanio; j++) {
+                int id = lista.ids[j];
+                if (contadores[id]++ == 0) {
+                    if (cantidadCandidatos == candidatos.length) {
+                        candidatos = Arrays.copyOf(candidatos, cantidadCandidatos * 2);
+                        borrador.candidatos = candidatos;
+                    }
+                    candidatos[cantidadCandidatos++] = id;
+                }
+            }
+        }
+
+        // Add the hits of the remaining lists, scanning each list or probing it for every
+        // candidate, whichever touches fewer entries.
+        for (int i = listasRaras; i < cantidadListas; i++) {
+            Lista lista = listas[i];
+            int pasosBusqueda = 32 - Integer.numberOfLeadingZeros(lista.tamanio);
+            if (lista.tamanio <= (long) cantidadCandidatos * pasosBusqueda) {
+                for (int j = 0; j < lista.tamanio; j++) {
+                    if (contadores[lista.ids[j]] > 0) {
+                        contadores[lista.ids[j]]++;
+                    }
+                }
+            } else {
+                for (int c = 0; c < cantidadCandidatos; c++) {
+                    if (lista.contiene(candidatos[c])) {
+                        contadores[candidatos[c]]++;
+                    }
+                }
+            }
+        }
+
+        Coincidencia[] mejores = new Coincidencia[maxResultados];
+        int cantidadMejores = 0;
+        for (int c = 0; c < cantidadCandidatos; c++) {
+            int id = candidatos[c];
+            int comunes = contadores[id];
+            contadores[id] = 0;
+            if (comunes < minimoComun) {
+                continue;
+            }
+            Coincidencia coincidencia = verificar(forma, id, k);
+            if (coincidencia == null) {
+                continue;
+            }
+            // Insertion into the small sorted array of the best matches so far.
+            if (cantidadMejores == maxResultados && !coincidencia.mejorQue(mejores[cantidadMejores - 1])) {
+                continue;
+            }
+            int posicion = cantidadMejores == maxResultados ? cantidadMejores - 1 : cantidadMejores++;
+            while (posicion > 0 && coincidencia.mejorQue(mejores[posicion - 1])) {
+                mejores[posicion] = mejores[posicion - 1];
+                posicion--;
+            }
+            mejores[posicion] = coincidencia;
+        }
+        for (int i = 0; i < cantidadMejores; i++) {
+            resultado.add(autores[mejores[i].id]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Returns the number of edits tolerated for a query of the given folded length. Short
+     * queries must match exactly, otherwise almost every name would qualify.
+     */
+    static int distanciaMaxima(int longitud) {
+        if (longitud <= 3) {
+            return 0;
+        }
+        return longitud <= 7 ? 1 : 2;
+    }
+
+    /**
+     * Compares the query with the whole name and with every run of consecutive words in it.
+     *
+     * @return The best match, or {@code null} if no run is within {@code k} edits.
+     */
+    private Coincidencia verificar(String consulta, int id, int k) {
+        String forma = formas[id];
+        Coincidencia mejor = null;
+        for (int desde = 0; desde < forma.length(); desde++) {
+            if (desde > 0 && forma.charAt(desde - 1) != ' ') {
+                continue;
+            }
+            for (int hasta = desde + 1; hasta <= forma.length(); hasta++) {
+                if (hasta < forma.length() && forma.charAt(hasta) != ' ') {
+                    continue;
+                }
+                int distancia = distanciaAcotada(consulta, forma, desde, hasta, k);
+                if (distancia <= k) {
+                    Coincidencia candidata = new Coincidencia(id, distancia, forma.length() - (hasta - desde));
+                    if (mejor == null || candidata.mejorQue(mejor)) {
+                        mejor = candidata;
+                    }
+                }
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Levenshtein distance between {@code a} and {@code b[desde, hasta)}, computed only on the
+     * diagonal band of width {@code 2k + 1}. This is the row-by-row simulation of the Levenshtein
+     * automaton for {@code a} with {@code k} errors; it stops as soon as no state is alive.
+     *
+     * @return The distance, or {@code k + 1} if it exceeds {@code k}.
+     */
+    static int distanciaAcotada(String a, String b, int desde, int hasta, int k) {
+        int n = a.length();
+        int m = hasta - desde;
+        int fuera = k + 1;
+        if (Math.abs(n - m) > k) {
+            return fuera;
+        }
+        int[] anterior = new int[m + 1];
+        int[] actual = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            anterior[j] = j <= k ? j : fuera;
+        }
+        for (int i = 1; i <= n; i++) {
+            int inicio = Math.max(1, i - k);
+            int fin = Math.min(m, i + k);
+            actual[0] = i <= k ? i : fuera;
+            if (inicio > 1) {
+                actual[inicio - 1] = fuera;
+            }
+            int minimoFila = actual[0];
+            char c = a.charAt(i - 1);
+            for (int j = inicio; j <= fin; j++) {
+                int sustitucion = anterior[j - 1] + (c == b.charAt(desde + j - 1) ? 0 : 1);
+                int borrado = anterior[j] + 1;
+                int insercion = actual[j - 1] + 1;
+                int valor = Math.min(sustitucion, Math.min(borrado, insercion));
+                actual[j] = Math.min(valor, fuera);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (fin < m) {
+                actual[fin + 1] = fuera;
+            }
+            if (minimoFila > k) {
+                return fuera;
+            }
+            int[] t = anterior;
+            anterior = actual;
+            actual = t;
+        }
+        return Math.min(anterior[m], fuera);
+    }
+
+    /**
+     * Folds a name for comparison: accents removed, lower-cased, and every run of characters
+     * other than letters and digits replaced with a single space, trimmed at both ends.
+     */
+    static String plegar(String nombre) {
+        StringBuilder forma = new StringBuilder(nombre.length());
+        boolean separador = false;
+        for (int i = 0; i < nombre.length(); i++) {
+            char c = nombre.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (separador && forma.length() > 0) {
+                    forma.append(' ');
+                }
+                separador = false;
+                forma.append(Tokenizador.normalizar(c));
+            } else {
+                separador = true;
+            }
+        }
+        return forma.toString();
+    }
+
+    /** Insertion sort by list length; queries have a few dozen trigrams at most. */
+    private static void ordenarPorTamanio(Lista[] listas, int cantidad) {
+        for (int i = 1; i < cantidad; i++) {
+            Lista lista = listas[i];
+            int j = i - 1;
+            while (j >= 0 && listas[j].tamanio > lista.tamanio) {
+                listas[j + 1] = listas[j];
+                j--;
+            }
+            listas[j + 1] = lista;
+        }
+    }
+}
\ No newline at end of file
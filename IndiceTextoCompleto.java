@@ -0,0 +1,498 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index over the title and body of each summary, ranked with BM25.
+ * Text is tokenized once when a summary is added. Each term keeps a postings list of
+ * document numbers with the term frequency in that document, in the order documents were
+ * added, so a query only visits the documents that contain at least one of its terms.
+ * <p>
+ * Each document also keeps its term frequency vector: the ids of its distinct terms, in
+ * increasing order, each with its count. The vectors of all documents share one {@code int}
+ * array, so asking how often a term occurs in a summary, or which terms characterize it, reads
+ * that vector instead of tokenizing the text again. The number of documents containing a term
+ * is the length of its postings list, kept up to date as documents are added.
+ * <p>
+ * Additions are serialized; reads take no lock and may run while documents are added. After each
+ * addition the index publishes a {@link Vista}: the document count and total length, and the
+ * arrays holding them. An addition only writes past the bounds of the last view, into arrays that
+ * are copied when they grow, so a reader sees every document of the view it took and none of the
+ * one being added.
+ */
+public class IndiceTextoCompleto {
+    /** BM25 term frequency saturation. */
+    private static final double K1 = 1.2;
+    /** BM25 document length normalization. */
+    private static final double B = 0.75;
+
+    /**
+     * Documents containing a term, in increasing document number, with the term frequency in each.
+     * The arrays are replaced, never shrunk, when they grow, and the size is written after the
+     * entry it covers, so a reader that reads the size first finds every entry below it.
+     */
+    private static final class Postings {
+        final String termino;
+        final int id;
+        volatile int[] documentos = new int[4];
+        volatile int[] frecuencias = new int[4];
+        volatile int tamanio;
+
+        Postings(String termino, int id) {
+            this.termino = termino;
+            this.id = id;
+        }
+
+        void agregar(int documento, int frecuencia) {
+            int n = tamanio;
+            if (n == documentos.length) {
+                documentos = Arrays.copyOf(documentos, n * 2);
+                frecuencias = Arrays.copyOf(frecuencias, n * 2);
+            }
+            documentos[n] = documento;
+            frecuencias[n] = frecuencia;
+            tamanio = n + 1;
+        }
+
+        /**
+         * Returns the number of documents of a view holding the term. Documents added after the
+         * view have higher numbers, so they are the last entries.
+         */
+        int tamanio(Vista vista) {
+            int n = tamanio;
+            int[] documentos = this.documentos;
+            while (n > 0 && documentos[n - 1] >= vista.numDocumentos) {
+                n--;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * The documents indexed at one point, with the arrays that hold them. Never changed after it
+     * is published; entries past its bounds may be written meanwhile and must not be read.
+     */
+    private static final class Vista {
+        final int numDocumentos;
+        final long longitudTotal;
+        final Postings[] porId;
+        final Resumen[] documentos;
+        final int[] longitudes;
+        final int[] vectores;
+        final int[] iniciosVector;
+        final int[] documentoPorId;
+
+        Vista(int numDocumentos, long longitudTotal, Postings[] porId, Resumen[] documentos, int[] longitudes,
+              int[] vectores, int[] iniciosVector, int[] documentoPorId) {
+            this.numDocumentos = numDocumentos;
+            this.longitudTotal = longitudTotal;
+            this.porId = porId;
+            this.documentos = documentos;
+            this.longitudes = longitudes;
+            this.vectores = vectores;
+            this.iniciosVector = iniciosVector;
+            this.documentoPorId = documentoPorId;
+        }
+    }
+
+    private final MyConcurrentMap<String, Postings> terminos = new MyConcurrentMap<>();
+    /** Serializes additions; the fields below it are only used while holding it. */
+    private final ReentrantLock escritura = new ReentrantLock();
+    private int cantidadTerminos;
+    /** Postings by term id; ids are assigned in the order terms are first seen. */
+    private Postings[] porId = new Postings[64];
+    private Resumen[] documentos = new Resumen[16];
+    private int[] longitudes = new int[16];
+    private int numDocumentos;
+    private long longitudTotal;
+    /** Term frequency vectors of every document, one after the other, as pairs of term id and count. */
+    private int[] vectores = new int[1024];
+    /** Where the vector of each document starts in {@link #vectores}; it ends where the next one starts. */
+    private int[] iniciosVector = new int[17];
+    /** Document number of each summary, by the summary's document ID, or -1. */
+    private int[] documentoPorId = new int[0];
+    /** What readers see: the documents added so far. */
+    private volatile Vista vista = new Vista(0, 0, porId, documentos, longitudes, vectores, iniciosVector, documentoPorId);
+
+    /**
+     * Tokenizes the title and body of a summary and adds it to the index.
+     *
+     * @param resumen The summary to index.
+     * @return The document number assigned to the summary within this index.
+     */
+    public int agregar(Resumen resumen) {
+        return agregar(resumen, termino -> { });
+    }
+
+    /**
+     * Tokenizes the title and body of a summary and adds it to the index, reporting its terms.
+     *
+     * @param resumen The summary to index.
+     * @param terminosIndexados Receives each distinct term of the summary once.
+     * @return The document number assigned to the summary within this index.
+     */
+    public int agregar(Resumen resumen, Consumer<String> terminosIndexados) {
+        // Tokenizing needs no lock
+        String[] titulo = Tokenizador.tokenizar(resumen.getTitulo());
+        String[] cuerpo = Tokenizador.tokenizar(resumen.getCuerpo());
+        MyLinkedList<String> indexados = new MyLinkedList<>();
+        int documento;
+        escritura.lock();
+        try {
+            documento = agregar(resumen, titulo, cuerpo, indexados);
+        } finally {
+            escritura.unlock();
+        }
+        Iterator<String> it = indexados.iterator();
+        while (it.hasNext()) {
+            terminosIndexados.accept(it.next());
+        }
+        return documento;
+    }
+
+    private int agregar(Resumen resumen, String[] titulo, String[] cuerpo, MyLinkedList<String> terminosIndexados) {
+        int documento = numDocumentos;
+        if (documento == documentos.length) {
+            documentos = Arrays.copyOf(documentos, documento * 2);
+            longitudes = Arrays.copyOf(longitudes, documento * 2);
+            iniciosVector = Arrays.copyOf(iniciosVector, documento * 2 + 1);
+        }
+
+        // Sorting the term ids of the tokens groups the occurrences of each term
+        int[] ids = new int[titulo.length + cuerpo.length];
+        int cantidad = 0;
+        for (String token : titulo) {
+            ids[cantidad++] = idTermino(token);
+        }
+        for (String token : cuerpo) {
+            ids[cantidad++] = idTermino(token);
+        }
+        Arrays.sort(ids);
+
+        int inicio = iniciosVector[documento];
+        if (inicio + 2 * cantidad > vectores.length) {
+            vectores = Arrays.copyOf(vectores, Math.max(vectores.length * 2, inicio + 2 * cantidad));
+        }
+        int fin = inicio;
+        for (int i = 0; i < cantidad; ) {
+            int id = ids[i];
+            int frecuencia = 0;
+            while (i < cantidad && ids[i] == id) {
+                frecuencia++;
+                i++;
+            }
+            vectores[fin++] = id;
+            vectores[fin++] = frecuencia;
+            porId[id].agregar(documento, frecuencia);
+            terminosIndexados.add(porId[id].termino);
+        }
+        iniciosVector[documento + 1] = fin;
+
+        int idResumen = resumen.getId();
+        if (idResumen >= 0) {
+            if (idResumen >= documentoPorId.length) {
+                int tamanio = documentoPorId.length;
+                documentoPorId = Arrays.copyOf(documentoPorId, Math.max(idResumen + 1, tamanio * 2));
+                Arrays.fill(documentoPorId, tamanio, documentoPorId.length, -1);
+            }
+            documentoPorId[idResumen] = documento;
+        }
+        documentos[documento] = resumen;
+        longitudes[documento] = titulo.length + cuerpo.length;
+        longitudTotal += longitudes[documento];
+        numDocumentos++;
+        vista = new Vista(numDocumentos, longitudTotal, porId, documentos, longitudes, vectores, iniciosVector, documentoPorId);
+        return documento;
+    }
+
+    /**
+     * Returns the id of a term, adding the term to the index if it is new.
+     */
+    private int idTermino(String termino) {
+        Postings postings = terminos.get(termino);
+        if (postings == null) {
+            int id = cantidadTerminos++;
+            if (id == porId.length) {
+                porId = Arrays.copyOf(porId, id * 2);
+            }
+            postings = new Postings(termino, id);
+            porId[id] = postings;
+            terminos.put(termino, postings);
+        }
+        return postings.id;
+    }
+
+    /**
+     * Returns the document number of an indexed summary, or -1.
+     */
+    private static int documento(Vista vista, Resumen resumen) {
+        int id = resumen.getId();
+        if (id >= 0) {
+            int documento = id < vista.documentoPorId.length ? vista.documentoPorId[id] : -1;
+            return documento >= 0 && documento < vista.numDocumentos && vista.documentos[documento] == resumen ? documento : -1;
+        }
+        for (int documento = 0; documento < vista.numDocumentos; documento++) {
+            if (vista.documentos[documento] == resumen) {
+                return documento;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns how many times a term occurs in the title and body of an indexed summary, with a
+     * binary search over its term frequency vector.
+     *
+     * @param resumen The summary.
+     * @param termino The term, as produced by {@link Tokenizador}.
+     * @return The term frequency, or 0 if the summary is not indexed or lacks the term.
+     */
+    public int frecuencia(Resumen resumen, String termino) {
+        Vista vista = this.vista;
+        int documento = documento(vista, resumen);
+        Postings postings = terminos.get(termino);
+        if (documento < 0 || postings == null) {
+            return 0;
+        }
+        int desde = vista.iniciosVector[documento] / 2;
+        int hasta = vista.iniciosVector[documento + 1] / 2;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int id = vista.vectores[2 * medio];
+            if (id == postings.id) {
+                return vista.vectores[2 * medio + 1];
+            } else if (id < postings.id) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of indexed documents containing a term.
+     *
+     * @param termino The term, as produced by {@link Tokenizador}.
+     * @return The document frequency of the term.
+     */
+    public int frecuenciaDocumental(String termino) {
+        Postings postings = terminos.get(termino);
+        return postings == null ? 0 : postings.tamanio(vista);
+    }
+
+    /**
+     * Returns the terms that best characterize an indexed summary: those of its term frequency
+     * vector with the highest TF-IDF weight, {@code tf * ln(N / df)}, so terms frequent in the
+     * summary and rare in the corpus come first. Sorting the vector costs O(N log N) in its
+     * number N of distinct terms; the text is not read.
+     *
+     * @param resumen The summary.
+     * @param n The maximum number of terms.
+     * @return Up to {@code n} terms, the highest weight first; empty if the summary is not indexed.
+     */
+    public MyLinkedList<FrecuenciaTermino> terminosFrecuentes(Resumen resumen, int n) {
+        MyLinkedList<FrecuenciaTermino> resultado = new MyLinkedList<>();
+        Vista vista = this.vista;
+        int documento = documento(vista, resumen);
+        if (documento < 0 || n <= 0) {
+            return resultado;
+        }
+        int inicio = vista.iniciosVector[documento];
+        FrecuenciaTermino[] terminosDocumento = new FrecuenciaTermino[(vista.iniciosVector[documento + 1] - inicio) / 2];
+        for (int i = 0; i < terminosDocumento.length; i++) {
+            Postings postings = vista.porId[vista.vectores[inicio + 2 * i]];
+            int frecuencia = vista.vectores[inicio + 2 * i + 1];
+            int frecuenciaDocumental = postings.tamanio(vista);
+            double peso = frecuencia * Math.log((double) vista.numDocumentos / frecuenciaDocumental);
+            terminosDocumento[i] = new FrecuenciaTermino(postings.termino, frecuencia, frecuenciaDocumental, peso);
+        }
+        Arrays.sort(terminosDocumento, (a, b) -> a.getPeso() != b.getPeso()
+                ? Double.compare(b.getPeso(), a.getPeso())
+                : Integer.compare(b.getFrecuencia(), a.getFrecuencia()));
+        for (int i = 0; i < Math.min(n, terminosDocumento.length); i++) {
+            resultado.add(terminosDocumento[i]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Returns the most frequent terms of a summary from its own text, for when no index holds it.
+     * The tokens are sorted once to count each term, so the cost is O(L log L) in the number L
+     * of tokens of the summary, whatever the size of the corpus. Without the corpus there are no
+     * document frequencies: the weight is the term frequency and the document count is -1.
+     *
+     * @param resumen The summary.
+     * @param n The maximum number of terms.
+     * @return Up to {@code n} terms, the most frequent first.
+     */
+    public static MyLinkedList<FrecuenciaTermino> terminosFrecuentesPropios(Resumen resumen, int n) {
+        MyLinkedList<FrecuenciaTermino> resultado = new MyLinkedList<>();
+        if (n <= 0) {
+            return resultado;
+        }
+        String[] titulo = Tokenizador.tokenizar(resumen.getTitulo());
+        String[] cuerpo = Tokenizador.tokenizar(resumen.getCuerpo());
+        String[] tokens = Arrays.copyOf(titulo, titulo.length + cuerpo.length);
+        System.arraycopy(cuerpo, 0, tokens, titulo.length, cuerpo.length);
+        Arrays.sort(tokens);
+        FrecuenciaTermino[] terminosDocumento = new FrecuenciaTermino[tokens.length];
+        int cantidad = 0;
+        for (int i = 0; i < tokens.length; ) {
+            int j = i;
+            while (j < tokens.length && tokens[j].equals(tokens[i])) {
+                j++;
+            }
+            terminosDocumento[cantidad++] = new FrecuenciaTermino(tokens[i], j - i, -1, j - i);
+            i = j;
+        }
+        // Stable sort: equally frequent terms stay in alphabetical order
+        Arrays.sort(terminosDocumento, 0, cantidad, (a, b) -> Integer.compare(b.getFrecuencia(), a.getFrecuencia()));
+        for (int i = 0; i < Math.min(n, cantidad); i++) {
+            resultado.add(terminosDocumento[i]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Returns the summaries that best match a free-text query, ranked by BM25.
+     * Postings of the query terms are merged document by document, so only documents that
+     * contain at least one query term are scored.
+     *
+     * @param consulta The free-text query.
+     * @param k The maximum number of results to return.
+     * @return Up to {@code k} results, best first.
+     */
+    public MyLinkedList<ResultadoBusqueda> buscar(String consulta, int k) {
+        MyLinkedList<ResultadoBusqueda> resultados = new MyLinkedList<>();
+        Vista vista = this.vista;
+        int numDocumentos = vista.numDocumentos;
+        if (k <= 0 || numDocumentos == 0) {
+            return resultados;
+        }
+        String[] tokens = Tokenizador.tokenizar(consulta);
+        // Each list is read once, as of the view, so the merge below sees fixed sizes and arrays
+        int[][] documentosLista = new int[tokens.length][];
+        int[][] frecuenciasLista = new int[tokens.length][];
+        int[] tamanios = new int[tokens.length];
+        double[] idf = new double[tokens.length];
+        int cantidad = 0;
+        MyMap<String, Boolean> vistos = new MyMap<>();
+        for (String token : tokens) {
+            Postings postings = terminos.get(token);
+            if (postings == null || vistos.containsKey(token)) {
+                continue;
+            }
+            vistos.put(token, Boolean.TRUE);
+            int tamanio = postings.tamanio(vista);
+            if (tamanio == 0) {
+                continue;
+            }
+            tamanios[cantidad] = tamanio;
+            documentosLista[cantidad] = postings.documentos;
+            frecuenciasLista[cantidad] = postings.frecuencias;
+            idf[cantidad] = Math.log(1 + (numDocumentos - tamanio + 0.5) / (tamanio + 0.5));
+            cantidad++;
+        }
+
+        double longitudMedia = (double) vista.longitudTotal / numDocumentos;
+        int[] posiciones = new int[cantidad];
+        // Min-heap holding the best k documents seen so far.
+        int[] heapDocumentos = new int[k];
+        double[] heapPuntuaciones = new double[k];
+        int enHeap = 0;
+        while (true) {
+            int documento = Integer.MAX_VALUE;
+            for (int t = 0; t < cantidad; t++) {
+                if (posiciones[t] < tamanios[t]) {
+                    documento = Math.min(documento, documentosLista[t][posiciones[t]]);
+                }
+            }
+            if (documento == Integer.MAX_VALUE) {
+                break;
+            }
+            double normalizacion = K1 * (1 - B + B * vista.longitudes[documento] / longitudMedia);
+            double puntuacion = 0;
+            for (int t = 0; t < cantidad; t++) {
+                int p = posiciones[t];
+                if (p < tamanios[t] && documentosLista[t][p] == documento) {
+                    int tf = frecuenciasLista[t][p];
+                    puntuacion += idf[t] * tf * (K1 + 1) / (tf + normalizacion);
+                    posiciones[t]++;
+                }
+            }
+            if (enHeap < k) {
+                heapDocumentos[enHeap] = documento;
+                heapPuntuaciones[enHeap] = puntuacion;
+                subir(heapDocumentos, heapPuntuaciones, enHeap);
+                enHeap++;
+            } else if (puntuacion > heapPuntuaciones[0]) {
+                heapDocumentos[0] = documento;
+                heapPuntuaciones[0] = puntuacion;
+                bajar(heapDocumentos, heapPuntuaciones, enHeap);
+            }
+        }
+
+        // Popping the min-heap yields results worst first; fill an array from the back.
+        ResultadoBusqueda[] ordenados = new ResultadoBusqueda[enHeap];
+        for (int i = enHeap - 1; i >= 0; i--) {
+            ordenados[i] = new ResultadoBusqueda(vista.documentos[heapDocumentos[0]], heapPuntuaciones[0]);
+            heapDocumentos[0] = heapDocumentos[i];
+            heapPuntuaciones[0] = heapPuntuaciones[i];
+            bajar(heapDocumentos, heapPuntuaciones, i);
+        }
+        for (ResultadoBusqueda resultado : ordenados) {
+            resultados.add(resultado);
+        }
+        return resultados;
+    }
+
+    /**
+     * Returns the number of documents in the index.
+     *
+     * @return The number of indexed documents.
+     */
+    public int size() {
+        return vista.numDocumentos;
+    }
+
+    private static void subir(int[] documentos, double[] puntuaciones, int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (puntuaciones[padre] <= puntuaciones[i]) {
+                return;
+            }
+            intercambiar(documentos, puntuaciones, i, padre);
+            i = padre;
+        }
+    }
+
+    private static void bajar(int[] documentos, double[] puntuaciones, int tamanio) {
+        int i = 0;
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamanio && puntuaciones[izquierdo] < puntuaciones[menor]) {
+                menor = izquierdo;
+            }
+            if (derecho < tamanio && puntuaciones[derecho] < puntuaciones[menor]) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            intercambiar(documentos, puntuaciones, i, menor);
+            i = menor;
+        }
+    }
+
+    private static void intercambiar(int[] documentos, double[] puntuaciones, int a, int b) {
+        int documento = documentos[a];
+        documentos[a] = documentos[b];
+        documentos[b] = documento;
+        double puntuacion = puntuaciones[a];
+        puntuaciones[a] = puntuaciones[b];
+        puntuaciones[b] = puntuacion;
+    }
+}
\ No newline at end of file
@@ -26,16 +26,20 @@ public class Investigacion {
     }
 
     /**
-     * Constructs a new Investigacion instance with a specified summary. Other fields are initialized with default values.
+     * Constructs a new Investigacion instance with a specified summary. The title and authors are taken
+     * from the summary when there is one; the ID is the document ID of the summary, or -1 if it has none.
+     * The authors are not copied: {@link #getAutores()} reads them from the summary.
      * 
      * @param resumen The summary of the investigation. Can be null.
      */
     public Investigacion(Resumen resumen) {
         this.resumen = resumen;
         // Initialize other fields with default values or based on the Resumen object
-        this.id = 0;
+        this.id = resumen != null ? resumen.getId() : -1;
         this.titulo = "";
-        this.autores = new MyLinkedList<String>();
+        if (resumen != null && resumen.getTitulo() != null) {
+            this.titulo = resumen.getTitulo();
+        }
     }
 
     /**
@@ -47,6 +51,16 @@ public class Investigacion {
         return id;
     }
 
+    /**
+     * Sets the ID of the investigation. {@link BusquedaResumen} refers to investigations by this
+     * ID in its postings, and numbers those that have none as it indexes them.
+     *
+     * @param id The new ID.
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Returns the title of the investigation.
      * 
@@ -66,12 +80,22 @@ public class Investigacion {
     }
 
     /**
-     * Returns the list of authors of the investigation.
+     * Returns the list of authors of the investigation. For an investigation built from a summary,
+     * the list is built from the summary on every call.
      * 
      * @return The list of authors.
      */
     public MyLinkedList<String> getAutores() {
-        return autores;
+        if (autores != null) {
+            return autores;
+        }
+        MyLinkedList<String> delResumen = new MyLinkedList<>();
+        if (resumen != null && resumen.getAutores() != null) {
+            for (String autor : resumen.getAutores()) {
+                delResumen.add(autor.trim());
+            }
+        }
+        return delResumen;
     }
 
     /**
@@ -85,7 +109,7 @@ public class Investigacion {
                 "id=" + id +
                 ", titulo='" + titulo + '\'' +
                 ", resumen=" + resumen +
-                ", autores=" + autores +
+                ", autores=" + getAutores() +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+/**
+ * Helpers for writing JSON by hand into a {@link StringBuilder}, as the command-line and HTTP
+ * front ends do for their responses.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Appends a string as a quoted JSON string, escaping quotes, backslashes and control characters.
+     *
+     * @param json The destination.
+     * @param texto The string to append, or {@code null} to append {@code null}.
+     * @return The destination.
+     */
+    public static StringBuilder texto(StringBuilder json, String texto) {
+        if (texto == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"');
+    }
+
+    /**
+     * Appends a duration in nanoseconds as milliseconds with three decimals.
+     *
+     * @param json The destination.
+     * @param nanos The duration.
+     * @return The destination.
+     */
+    public static StringBuilder milisegundos(StringBuilder json, long nanos) {
+        long micros = nanos / 1000;
+        json.append(micros / 1000).append('.');
+        long fraccion = micros % 1000;
+        if (fraccion < 100) {
+            json.append('0');
+        }
+        if (fraccion < 10) {
+            json.append('0');
+        }
+        return json.append(fraccion);
+    }
+}
\ No newline at end of file
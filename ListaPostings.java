@@ -0,0 +1,348 @@
+import java.util.Arrays;
+
+/**
+ * Postings list of a term: the ids of the documents that contain it, in increasing order,
+ * compressed.
+ * <p>
+ * Ids are grouped in blocks of {@link #TAMANIO_BLOQUE}. The first id of each block is kept
+ * uncompressed in a skip table, together with the offset of the block in a byte array; the
+ * other ids are stored there as varint gaps from the id before them. Documents are numbered
+ * densely, so most gaps take a single byte instead of the four of an {@code int}.
+ * {@link Instantanea#avanzarHasta(int, int)} jumps over whole blocks through the skip table and
+ * decodes only the block where the id sought lies.
+ * <p>
+ * Documents are numbered as they are indexed, so ids almost always arrive in order and are
+ * appended in place. Readers never lock: each append publishes, through a volatile write, a
+ * small immutable view of the arrays, and the arrays never change inside any view already
+ * published. An id that arrives out of order, when two batches are indexed at once, makes the
+ * list be encoded again into fresh arrays.
+ */
+public class ListaPostings {
+    /** Ids per block. */
+    static final int TAMANIO_BLOQUE = 128;
+    private static final int BITS_BLOQUE = 7;
+    private static final byte[] SIN_DATOS = new byte[0];
+
+    /** The arrays and the number of ids a reader may use. */
+    private static final class Bloques {
+        /** Varint gaps of every block, one block after the other. */
+        final byte[] datos;
+        /** For each block, its first id and the offset of its gaps in {@link #datos}. */
+        final int[] saltos;
+        final int tamanio;
+
+        Bloques(byte[] datos, int[] saltos, int tamanio) {
+            this.datos = datos;
+            this.saltos = saltos;
+            this.tamanio = tamanio;
+        }
+    }
+
+    private volatile Bloques bloques;
+    /** Bytes of {@code datos} in use. Guarded by {@code this}, like {@link #ultimo}. */
+    private int longitud;
+    private int ultimo;
+
+    /**
+     * Creates an empty list.
+     */
+    public ListaPostings() {
+        this.bloques = new Bloques(SIN_DATOS, new int[2], 0);
+    }
+
+    /**
+     * Creates a list over ids already sorted and without repetitions.
+     */
+    ListaPostings(int[] ids, int tamanio) {
+        codificar(ids, tamanio);
+    }
+
+    /**
+     * Adds a document id, keeping the list sorted.
+     *
+     * @param id The document id.
+     * @return {@code false} if the id was already in the list.
+     */
+    public synchronized boolean agregar(int id) {
+        Bloques actuales = bloques;
+        int n = actuales.tamanio;
+        if (n > 0 && id <= ultimo) {
+            Instantanea ids = new Instantanea(actuales);
+            int posicion = ids.avanzarHasta(0, id);
+            if (ids.get(posicion) == id) {
+                return false;
+            }
+            int[] todos = new int[n + 1];
+            for (int i = 0; i < posicion; i++) {
+                todos[i] = ids.get(i);
+            }
+            todos[posicion] = id;
+            for (int i = posicion; i < n; i++) {
+                todos[i + 1] = ids.get(i);
+            }
+            codificar(todos, n + 1);
+            return true;
+        }
+        byte[] datos = actuales.datos;
+        int[] saltos = actuales.saltos;
+        if ((n & (TAMANIO_BLOQUE - 1)) == 0) {
+            int bloque = n >>> BITS_BLOQUE;
+            if (2 * bloque == saltos.length) {
+                saltos = Arrays.copyOf(saltos, saltos.length * 2);
+            }
+            saltos[2 * bloque] = id;
+            saltos[2 * bloque + 1] = longitud;
+        } else {
+            if (longitud + 5 > datos.length) {
+                datos = Arrays.copyOf(datos, Math.max(16, datos.length * 2));
+            }
+            longitud = escribirVarint(datos, longitud, id - ultimo);
+        }
+        ultimo = id;
+        bloques = new Bloques(datos, saltos, n + 1);
+        return true;
+    }
+
+    /**
+     * Replaces the contents with the given sorted ids, in arrays of exactly the size needed.
+     */
+    private void codificar(int[] ids, int tamanio) {
+        int cantidadBloques = (tamanio + TAMANIO_BLOQUE - 1) >>> BITS_BLOQUE;
+        int[] saltos = new int[Math.max(2, 2 * cantidadBloques)];
+        int bytes = 0;
+        for (int i = 0; i < tamanio; i++) {
+            if ((i & (TAMANIO_BLOQUE - 1)) != 0) {
+                bytes += longitudVarint(ids[i] - ids[i - 1]);
+            }
+        }
+        byte[] datos = bytes == 0 ? SIN_DATOS : new byte[bytes];
+        int posicion = 0;
+        for (int i = 0; i < tamanio; i++) {
+            if ((i & (TAMANIO_BLOQUE - 1)) == 0) {
+                saltos[2 * (i >>> BITS_BLOQUE)] = ids[i];
+                saltos[2 * (i >>> BITS_BLOQUE) + 1] = posicion;
+            } else {
+                posicion = escribirVarint(datos, posicion, ids[i] - ids[i - 1]);
+            }
+        }
+        longitud = posicion;
+        ultimo = tamanio == 0 ? 0 : ids[tamanio - 1];
+        bloques = new Bloques(datos, saltos, tamanio);
+    }
+
+    private static int escribirVarint(byte[] datos, int posicion, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            datos[posicion++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        datos[posicion++] = (byte) valor;
+        return posicion;
+    }
+
+    private static int longitudVarint(int valor) {
+        int longitud = 1;
+        while ((valor & ~0x7F) != 0) {
+            valor >>>= 7;
+            longitud++;
+        }
+        return longitud;
+    }
+
+    /**
+     * Returns the number of documents in the list.
+     *
+     * @return The number of ids.
+     */
+    public int size() {
+        return bloques.tamanio;
+    }
+
+    /**
+     * Returns an estimate of the memory taken by the list, headers included.
+     *
+     * @return The number of bytes.
+     */
+    public long bytesEstimados() {
+        Bloques actuales = bloques;
+        // This object, the view and the headers of its two arrays
+        long bytes = 32 + 24 + 16 + 16;
+        if (actuales.datos != SIN_DATOS) {
+            bytes += actuales.datos.length;
+        }
+        return bytes + 4L * actuales.saltos.length;
+    }
+
+    /**
+     * Returns a read-only view of the ids present now, without copying them.
+     *
+     * @return A sorted snapshot of the list.
+     */
+    public Instantanea instantanea() {
+        return new Instantanea(bloques);
+    }
+
+    /**
+     * Sorted, read-only set of document ids: a snapshot of a postings list or the result of
+     * combining several, which are kept as plain arrays.
+     * <p>
+     * A snapshot of a postings list keeps the last block it decoded, so reading ids in order
+     * decodes each block once. For that reason an instance must not be shared between threads.
+     */
+    public static final class Instantanea {
+        /** The empty set. */
+        public static final Instantanea VACIA = new Instantanea(new int[0], 0);
+
+        /** The ids, or {@code null} if they are compressed in {@link #datos}. */
+        private final int[] ids;
+        private final byte[] datos;
+        private final int[] saltos;
+        private final int tamanio;
+        /** The last block decoded and its number, or -1. */
+        private int[] bloque;
+        private int numeroBloque = -1;
+
+        Instantanea(int[] ids, int tamanio) {
+            this.ids = ids;
+            this.datos = null;
+            this.saltos = null;
+            this.tamanio = tamanio;
+        }
+
+        private Instantanea(Bloques bloques) {
+            this.ids = null;
+            this.datos = bloques.datos;
+            this.saltos = bloques.saltos;
+            this.tamanio = bloques.tamanio;
+        }
+
+        /**
+         * Returns the id at the given position.
+         *
+         * @param index The position, below {@link #size()}.
+         * @return The id.
+         */
+        public int get(int index) {
+            if (index < 0 || index >= tamanio) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + tamanio);
+            }
+            if (ids != null) {
+                return ids[index];
+            }
+            return decodificar(index >>> BITS_BLOQUE)[index & (TAMANIO_BLOQUE - 1)];
+        }
+
+        /**
+         * Returns the number of ids.
+         *
+         * @return The number of ids.
+         */
+        public int size() {
+            return tamanio;
+        }
+
+        /**
+         * Returns the first position at or after {@code desde} holding an id not below
+         * {@code objetivo}. Plain arrays are searched galloping: the probe distance doubles
+         * until it overshoots, then a binary search closes in. Compressed lists gallop the same
+         * way over the first ids of their blocks and decode only the block found. Either way,
+         * finding a position {@code d} places ahead costs about O(log d), so walking a short
+         * list through a long one skips most of the long one.
+         *
+         * @param desde The position to start from.
+         * @param objetivo The id sought.
+         * @return The position found, or {@link #size()} if every remaining id is below {@code objetivo}.
+         */
+        public int avanzarHasta(int desde, int objetivo) {
+            if (desde >= tamanio || get(desde) >= objetivo) {
+                return desde;
+            }
+            if (ids != null) {
+                return galopar(ids, desde, tamanio, objetivo);
+            }
+            int actual = desde >>> BITS_BLOQUE;
+            int cantidadBloques = (tamanio + TAMANIO_BLOQUE - 1) >>> BITS_BLOQUE;
+            int desdeEnBloque = desde & (TAMANIO_BLOQUE - 1);
+            if (actual + 1 < cantidadBloques && saltos[2 * (actual + 1)] <= objetivo) {
+                // Skip to the last block starting at or before the target
+                int anterior = actual + 1;
+                int salto = 1;
+                int siguiente = anterior + 1;
+                while (siguiente < cantidadBloques && saltos[2 * siguiente] <= objetivo) {
+                    anterior = siguiente;
+                    salto <<= 1;
+                    siguiente = actual + 1 + salto;
+                }
+                int hasta = Math.min(siguiente, cantidadBloques);
+                while (hasta - anterior > 1) {
+                    int medio = (anterior + hasta) >>> 1;
+                    if (saltos[2 * medio] <= objetivo) {
+                        anterior = medio;
+                    } else {
+                        hasta = medio;
+                    }
+                }
+                actual = anterior;
+                desdeEnBloque = 0;
+            }
+            int[] valores = decodificar(actual);
+            int enBloque = Math.min(TAMANIO_BLOQUE, tamanio - (actual << BITS_BLOQUE));
+            int posicion = Arrays.binarySearch(valores, desdeEnBloque, enBloque, objetivo);
+            // Past the end of the block, the next block starts above the target
+            return (actual << BITS_BLOQUE) + (posicion >= 0 ? posicion : -posicion - 1);
+        }
+
+        private static int galopar(int[] ids, int desde, int tamanio, int objetivo) {
+            int anterior = desde;
+            int salto = 1;
+            int siguiente = desde + 1;
+            while (siguiente < tamanio && ids[siguiente] < objetivo) {
+                anterior = siguiente;
+                salto <<= 1;
+                siguiente = desde + salto;
+            }
+            int posicion = Arrays.binarySearch(ids, anterior + 1, Math.min(siguiente, tamanio), objetivo);
+            return posicion >= 0 ? posicion : -posicion - 1;
+        }
+
+        /**
+         * Returns the ids of a block, decoding it unless it was the last one decoded.
+         */
+        private int[] decodificar(int numero) {
+            if (numero == numeroBloque) {
+                return bloque;
+            }
+            if (bloque == null) {
+                bloque = new int[TAMANIO_BLOQUE];
+            }
+            int enBloque = Math.min(TAMANIO_BLOQUE, tamanio - (numero << BITS_BLOQUE));
+            int id = saltos[2 * numero];
+            int posicion = saltos[2 * numero + 1];
+            bloque[0] = id;
+            for (int i = 1; i < enBloque; i++) {
+                int gap = 0;
+                for (int desplazamiento = 0; ; desplazamiento += 7) {
+                    byte b = datos[posicion++];
+                    gap |= (b & 0x7F) << desplazamiento;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                id += gap;
+                bloque[i] = id;
+            }
+            numeroBloque = numero;
+            return bloque;
+        }
+
+        /**
+         * Returns whether the set holds the given id.
+         *
+         * @param id The id.
+         * @return {@code true} if it is in the set.
+         */
+        public boolean contiene(int id) {
+            int posicion = avanzarHasta(0, id);
+            return posicion < tamanio && get(posicion) == id;
+        }
+    }
+}
\ No newline at end of file
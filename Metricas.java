@@ -0,0 +1,281 @@
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+/**
+ * Registry of the counters, gauges and latency histograms of MetroMendeley.
+ * <p>
+ * Metrics are created on first use by name and live for the whole process. Counters and
+ * histograms may be updated from any thread without locking. Gauges are read when the metrics
+ * are dumped and hold their object weakly, so registering one does not keep a discarded
+ * {@link ResumenManager} alive.
+ * <p>
+ * The metrics can be dumped as JSON with {@link #aJson()}, and are published through JMX under
+ * {@value #NOMBRE_JMX} by {@link #registrarJmx()}: every counter and gauge is an attribute, every
+ * histogram contributes its count, mean and percentiles, and the {@code aJson} operation returns
+ * the full dump.
+ */
+public class Metricas {
+    /** Name of the MBean published by {@link #registrarJmx()}. */
+    public static final String NOMBRE_JMX = "MetroMendeley:type=Metricas";
+
+    private static final Metricas GLOBAL = new Metricas();
+
+    private final MyConcurrentMap<String, LongAdder> contadores = new MyConcurrentMap<>();
+    private final MyConcurrentMap<String, Histograma> histogramas = new MyConcurrentMap<>();
+    private final MyConcurrentMap<String, Medidor<?>> medidores = new MyConcurrentMap<>();
+
+    /** Value read from an object each time the metrics are dumped. */
+    private static final class Medidor<T> {
+        private final WeakReference<T> objeto;
+        private final ToLongFunction<T> valor;
+
+        Medidor(T objeto, ToLongFunction<T> valor) {
+            this.objeto = new WeakReference<>(objeto);
+            this.valor = valor;
+        }
+
+        long leer() {
+            T actual = objeto.get();
+            return actual == null ? 0 : valor.applyAsLong(actual);
+        }
+    }
+
+    /**
+     * Returns the registry shared by the whole process.
+     *
+     * @return The registry.
+     */
+    public static Metricas global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the counter with the given name, creating it at 0 if it does not exist.
+     *
+     * @param nombre The name of the counter.
+     * @return The counter.
+     */
+    public LongAdder contador(String nombre) {
+        LongAdder contador = contadores.get(nombre);
+        if (contador == null) {
+            LongAdder nuevo = new LongAdder();
+            contador = contadores.putIfAbsent(nombre, nuevo);
+            if (contador == null) {
+                contador = nuevo;
+            }
+        }
+        return contador;
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it empty if it does not exist.
+     *
+     * @param nombre The name of the histogram. Durations are recorded in nanoseconds.
+     * @return The histogram.
+     */
+    public Histograma histograma(String nombre) {
+        Histograma histograma = histogramas.get(nombre);
+        if (histograma == null) {
+            Histograma nuevo = new Histograma();
+            histograma = histogramas.putIfAbsent(nombre, nuevo);
+            if (histograma == null) {
+                histograma = nuevo;
+            }
+        }
+        return histograma;
+    }
+
+    /**
+     * Registers a gauge that reads a value from an object, replacing any gauge with the same name.
+     * The gauge reads 0 once the object has been garbage collected.
+     *
+     * @param nombre The name of the gauge.
+     * @param objeto The object to read, held weakly.
+     * @param valor How to read the value from the object.
+     * @param <T> The type of the object.
+     */
+    public <T> void medidor(String nombre, T objeto, ToLongFunction<T> valor) {
+        medidores.put(nombre, new Medidor<>(objeto, valor));
+    }
+
+    /**
+     * Returns the current value of a counter or gauge.
+     *
+     * @param nombre The name of the counter or gauge.
+     * @return Its value, or {@code null} if there is none with that name.
+     */
+    public Long valor(String nombre) {
+        LongAdder contador = contadores.get(nombre);
+        if (contador != null) {
+            return contador.sum();
+        }
+        Medidor<?> medidor = medidores.get(nombre);
+        return medidor == null ? null : medidor.leer();
+    }
+
+    /**
+     * Dumps every metric as a JSON object with {@code contadores}, {@code medidores} and
+     * {@code histogramas} members, each keyed by metric name. Histogram values are in nanoseconds.
+     *
+     * @return The JSON document.
+     */
+    public String aJson() {
+        StringBuilder json = new StringBuilder("{\n  \"contadores\": {");
+        String separador = "";
+        Iterator<MyMap.Entry<String, LongAdder>> contador = contadores.entryList().iterator();
+        while (contador.hasNext()) {
+            MyMap.Entry<String, LongAdder> entrada = contador.next();
+            json.append(separador).append("\n    \"").append(entrada.getKey()).append("\": ").append(entrada.getValue().sum());
+            separador = ",";
+        }
+        json.append("\n  },\n  \"medidores\": {");
+        separador = "";
+        Iterator<MyMap.Entry<String, Medidor<?>>> medidor = medidores.entryList().iterator();
+        while (medidor.hasNext()) {
+            MyMap.Entry<String, Medidor<?>> entrada = medidor.next();
+            json.append(separador).append("\n    \"").append(entrada.getKey()).append("\": ").append(entrada.getValue().leer());
+            separador = ",";
+        }
+        json.append("\n  },\n  \"histogramas\": {");
+        separador = "";
+        Iterator<MyMap.Entry<String, Histograma>> histograma = histogramas.entryList().iterator();
+        while (histograma.hasNext()) {
+            MyMap.Entry<String, Histograma> entrada = histograma.next();
+            json.append(separador).append("\n    \"").append(entrada.getKey()).append("\": ");
+            entrada.getValue().agregarJson(json);
+            separador = ",";
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    /**
+     * Publishes the registry on the platform MBean server under {@value #NOMBRE_JMX}.
+     * Does nothing if it is already published.
+     */
+    public synchronized void registrarJmx() {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(NOMBRE_JMX);
+            if (!servidor.isRegistered(nombre)) {
+                servidor.registerMBean(new Publicacion(), nombre);
+            }
+        } catch (JMException e) {
+            Registro.advertencia("No se pudieron publicar las métricas por JMX", e);
+        }
+    }
+
+    /**
+     * Exposes the registry through JMX. Attributes are computed when read, so metrics created
+     * after publication appear the next time a console asks for the MBean info.
+     */
+    private final class Publicacion implements DynamicMBean {
+        private static final String[] SUFIJOS = {".cantidad", ".media", ".p50", ".p90", ".p99", ".p999", ".max"};
+
+        @Override
+        public Object getAttribute(String atributo) throws AttributeNotFoundException {
+            Long valor = valor(atributo);
+            if (valor != null) {
+                return valor;
+            }
+            for (String sufijo : SUFIJOS) {
+                if (atributo.endsWith(sufijo)) {
+                    Histograma histograma = histogramas.get(atributo.substring(0, atributo.length() - sufijo.length()));
+                    if (histograma != null) {
+                        return leer(histograma, sufijo);
+                    }
+                }
+            }
+            throw new AttributeNotFoundException(atributo);
+        }
+
+        private Object leer(Histograma histograma, String sufijo) {
+            switch (sufijo) {
+                case ".cantidad": return histograma.cantidad();
+                case ".media": return histograma.media();
+                case ".p50": return histograma.percentil(50);
+                case ".p90": return histograma.percentil(90);
+                case ".p99": return histograma.percentil(99);
+                case ".p999": return histograma.percentil(99.9);
+                default: return histograma.maximo();
+            }
+        }
+
+        @Override
+        public void setAttribute(Attribute atributo) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Las métricas son de solo lectura: " + atributo.getName());
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] atributos) {
+            AttributeList lista = new AttributeList();
+            for (String atributo : atributos) {
+                try {
+                    lista.add(new Attribute(atributo, getAttribute(atributo)));
+                } catch (AttributeNotFoundException e) {
+                    // Se omite, como indica el contrato de DynamicMBean
+                }
+            }
+            return lista;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList atributos) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String operacion, Object[] parametros, String[] firma) throws ReflectionException {
+            if ("aJson".equals(operacion)) {
+                return aJson();
+            }
+            throw new ReflectionException(new NoSuchMethodException(operacion));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MyLinkedList<MBeanAttributeInfo> atributos = new MyLinkedList<>();
+            Iterator<MyMap.Entry<String, LongAdder>> contador = contadores.entryList().iterator();
+            while (contador.hasNext()) {
+                atributos.add(atributo(contador.next().getKey(), "long", "Contador"));
+            }
+            Iterator<MyMap.Entry<String, Medidor<?>>> medidor = medidores.entryList().iterator();
+            while (medidor.hasNext()) {
+                atributos.add(atributo(medidor.next().getKey(), "long", "Medidor"));
+            }
+            Iterator<MyMap.Entry<String, Histograma>> histograma = histogramas.entryList().iterator();
+            while (histograma.hasNext()) {
+                String nombre = histograma.next().getKey();
+                for (String sufijo : SUFIJOS) {
+                    atributos.add(atributo(nombre + sufijo, sufijo.equals(".media") ? "double" : "long",
+                            "Histograma en nanosegundos"));
+                }
+            }
+            MBeanAttributeInfo[] arreglo = new MBeanAttributeInfo[atributos.size()];
+            Iterator<MBeanAttributeInfo> it = atributos.iterator();
+            for (int i = 0; it.hasNext(); i++) {
+                arreglo[i] = it.next();
+            }
+            MBeanOperationInfo aJson = new MBeanOperationInfo("aJson", "Todas las métricas en JSON",
+                    null, "java.lang.String", MBeanOperationInfo.INFO);
+            return new MBeanInfo(Metricas.class.getName(), "Métricas de MetroMendeley", arreglo, null,
+                    new MBeanOperationInfo[] {aJson}, null);
+        }
+
+        private MBeanAttributeInfo atributo(String nombre, String tipo, String descripcion) {
+            return new MBeanAttributeInfo(nombre, tipo, descripcion, true, false, false);
+        }
+    }
+}
\ No newline at end of file
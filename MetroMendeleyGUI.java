@@ -1,40 +1,178 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 
 /**
  * La clase MetroMendeleyGUI proporciona la interfaz gráfica de usuario para el sistema MetroMendeley.
  * Permite a los usuarios interactuar con el sistema a través de una serie de paneles y botones,
  * facilitando la gestión de resúmenes de investigaciones.
+ * <p>
+ * La carga, el guardado, las altas, el análisis y las búsquedas se ejecutan en segundo plano con
+ * {@link SwingWorker}, de modo que el hilo de eventos solo actualiza componentes. La barra de estado
+ * muestra el avance de la tarea en curso y permite cancelarla.
  */
 public class MetroMendeleyGUI extends JFrame {
     private MyMap<String, Resumen> tablaResumenes = new MyMap<String, Resumen>();
     private JTextArea resultArea = new JTextArea();
-    private ResumenManager resumenManager = new ResumenManager();
+    /** Se asigna en el hilo de eventos cuando termina la carga inicial; hasta entonces es {@code null}. */
+    private ResumenManager resumenManager;
     private JList<String> listaResultados = new JList<>();
-    private DefaultListModel<String> modeloLista = new DefaultListModel<>();
-    private BusquedaResumen busquedaResumen = new BusquedaResumen(); 
+    private JPanel panelAcciones = new JPanel();
+    private JLabel etiquetaEstado = new JLabel(" ");
+    private JProgressBar barraProgreso = new JProgressBar(0, 100);
+    private JButton btnCancelar = new JButton("Cancelar");
+    /** Tarea que muestra la barra de estado, o {@code null} si no hay ninguna. */
+    private transient SwingWorker<?, ?> tareaActual;
+    private boolean cerrando;
+
+    /**
+     * Trabajo que se ejecuta fuera del hilo de eventos.
+     *
+     * @param <T> El tipo del resultado.
+     */
+    private interface TareaSegundoPlano<T> {
+        /**
+         * Ejecuta el trabajo.
+         *
+         * @param progreso Recibe el porcentaje completado, de 0 a 100.
+         * @return El resultado, que se entrega en el hilo de eventos.
+         * @throws Exception Si el trabajo falla; el error se muestra al usuario.
+         */
+        T ejecutar(IntConsumer progreso) throws Exception;
+    }
 
 
     /**
      * Constructor de la clase MetroMendeleyGUI.
-     * Inicializa la ventana principal y carga la interfaz de usuario.
+     * Inicializa la ventana principal y empieza a cargar los resúmenes en segundo plano;
+     * las acciones se habilitan cuando la carga termina.
      */
     public MetroMendeleyGUI() {
         setTitle("MetroMendeley");
         setSize(800, 600);
         setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
-        resumenManager.cargarResumenesDesdeJson();
         initUI();
+        habilitarAcciones(false);
 
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
-                resumenManager.guardarResumenesComoJson();
-                System.exit(0);
+                cerrar();
             }
         });
+
+        // Los resúmenes se cargan una sola vez, fuera del hilo de eventos
+        enSegundoPlano("Cargando resúmenes", false, progreso -> {
+            ResumenManager manager = new ResumenManager(Paths.get(""), false);
+            manager.publicarMedidores();
+            manager.cargarResumenesDesdeJson(progreso);
+            return manager;
+        }, manager -> {
+            resumenManager = manager;
+            habilitarAcciones(true);
+        });
+    }
+
+    /**
+     * Guarda los resúmenes en segundo plano y termina la aplicación cuando el guardado concluye.
+     * Si la carga inicial no ha terminado no hay nada que guardar.
+     */
+    private void cerrar() {
+        if (cerrando) {
+            return;
+        }
+        if (resumenManager == null) {
+            System.exit(0);
+        }
+        cerrando = true;
+        habilitarAcciones(false);
+        enSegundoPlano("Guardando resúmenes", false, progreso -> {
+            resumenManager.guardarResumenesComoJson();
+            return null;
+        }, resultado -> System.exit(0));
+    }
+
+    /**
+     * Ejecuta una tarea con un {@link SwingWorker} y muestra su avance en la barra de estado.
+     * El resultado se entrega a {@code alTerminar} en el hilo de eventos, salvo que la tarea se
+     * cancele o falle.
+     * <p>
+     * Cancelar no interrumpe el hilo de la tarea: una interrupción durante una escritura cerraría
+     * el canal del diario. La tarea termina por su cuenta y su resultado se descarta.
+     *
+     * @param descripcion El texto que se muestra mientras la tarea se ejecuta.
+     * @param cancelable Si el botón Cancelar puede descartar la tarea.
+     * @param tarea El trabajo a ejecutar en segundo plano.
+     * @param alTerminar Lo que se hace con el resultado en el hilo de eventos.
+     * @param <T> El tipo del resultado.
+     */
+    private <T> void enSegundoPlano(String descripcion, boolean cancelable, TareaSegundoPlano<T> tarea,
+                                    Consumer<T> alTerminar) {
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return tarea.ejecutar(this::setProgress);
+            }
+
+            @Override
+            protected void done() {
+                // Una tarea posterior puede haber ocupado la barra de estado
+                boolean actual = tareaActual == this;
+                if (actual) {
+                    tareaActual = null;
+                    barraProgreso.setIndeterminate(false);
+                    barraProgreso.setValue(0);
+                    btnCancelar.setEnabled(false);
+                }
+                if (isCancelled()) {
+                    if (actual) {
+                        etiquetaEstado.setText(descripcion + ": cancelado");
+                    }
+                    return;
+                }
+                try {
+                    T resultado = get();
+                    if (actual) {
+                        etiquetaEstado.setText(" ");
+                    }
+                    alTerminar.accept(resultado);
+                } catch (ExecutionException ex) {
+                    if (actual) {
+                        etiquetaEstado.setText(descripcion + ": error");
+                    }
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(MetroMendeleyGUI.this, causa.toString(),
+                            descripcion, JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        worker.addPropertyChangeListener(evento -> {
+            if ("progress".equals(evento.getPropertyName()) && tareaActual == worker) {
+                barraProgreso.setIndeterminate(false);
+                barraProgreso.setValue((Integer) evento.getNewValue());
+            }
+        });
+        tareaActual = worker;
+        etiquetaEstado.setText(descripcion + "...");
+        // Indeterminada hasta que la tarea informe su primer avance
+        barraProgreso.setIndeterminate(true);
+        btnCancelar.setEnabled(cancelable);
+        worker.execute();
+    }
+
+    private void habilitarAcciones(boolean habilitar) {
+        for (Component componente : panelAcciones.getComponents()) {
+            componente.setEnabled(habilitar);
+        }
     }
 
     /**
@@ -53,15 +191,14 @@ public class MetroMendeleyGUI extends JFrame {
         add(panelLista, BorderLayout.WEST);
 
         // Panel de acciones
-        JPanel panelAcciones = new JPanel();
-        panelAcciones.setLayout(new GridLayout(5, 1));
+        panelAcciones.setLayout(new GridLayout(8, 1));
         JButton btnAgregar = new JButton("Agregar Resumen");
         JButton btnAnalizar = new JButton("Analizar Resumen");
         btnAnalizar.addActionListener(e -> {
             int indiceSeleccionado = listaInvestigaciones.getSelectedIndex();
             if (indiceSeleccionado != -1) { // Ensure a selection has been made
-                String infoResumen = resumenManager.analizarResumen(indiceSeleccionado);
-                mostrarInfoResumen(infoResumen); 
+                enSegundoPlano("Analizando resumen", true,
+                        progreso -> resumenManager.analizarResumen(indiceSeleccionado), this::mostrarInfoResumen);
             } else {
 
                 JOptionPane.showMessageDialog(this, "Por favor, seleccione un resumen para analizar.");
@@ -71,32 +208,57 @@ public class MetroMendeleyGUI extends JFrame {
         });
         JButton btnBuscarPalabra = new JButton("Buscar por Palabra Clave");
         JButton btnBuscarAutor = new JButton("Buscar por Autor");
+        JButton btnBuscarTexto = new JButton("Buscar en Texto Completo");
+        JButton btnBusquedaAvanzada = new JButton("Búsqueda Avanzada");
+        JButton btnMetricas = new JButton("Ver Métricas");
         JButton btnSalir = new JButton("Salir");
         panelAcciones.add(btnAgregar);
         panelAcciones.add(btnAnalizar);
         panelAcciones.add(btnBuscarPalabra);
         panelAcciones.add(btnBuscarAutor);
+        panelAcciones.add(btnBuscarTexto);
+        panelAcciones.add(btnBusquedaAvanzada);
+        panelAcciones.add(btnMetricas);
 
         // Panel de resultados
         resultArea.setEditable(false);
         add(new JScrollPane(resultArea), BorderLayout.CENTER);
 
-        listaResultados.setModel(modeloLista);
+        // Con celdas de tamaño fijo la lista no mide cada fila, solo pide las visibles al modelo
+        listaResultados.setPrototypeCellValue("Título de una investigación de longitud habitual");
         add(new JScrollPane(listaResultados), BorderLayout.WEST);
 
         // Botón de salida
         panelAcciones.add(btnSalir);
         add(panelAcciones, BorderLayout.EAST);
 
+        // Barra de estado con el avance de la tarea en segundo plano
+        JPanel panelEstado = new JPanel(new BorderLayout(5, 0));
+        btnCancelar.setEnabled(false);
+        btnCancelar.addActionListener(e -> {
+            if (tareaActual != null) {
+                tareaActual.cancel(false);
+            }
+        });
+        panelEstado.add(etiquetaEstado, BorderLayout.CENTER);
+        panelEstado.add(barraProgreso, BorderLayout.EAST);
+        panelEstado.add(btnCancelar, BorderLayout.WEST);
+        add(panelEstado, BorderLayout.SOUTH);
+
         // Eventos de botones
         btnAgregar.addActionListener(e -> agregarResumen());
         btnAnalizar.addActionListener(e -> {
             int indiceSeleccionado = listaInvestigaciones.getSelectedIndex();
-            String infoResumen = resumenManager.analizarResumen(indiceSeleccionado);
-            mostrarInfoResumen(infoResumen);
+            enSegundoPlano("Analizando resumen", true,
+                    progreso -> resumenManager.analizarResumen(indiceSeleccionado), this::mostrarInfoResumen);
         });
         btnBuscarPalabra.addActionListener(e -> buscarPorPalabraClave());
         btnBuscarAutor.addActionListener(e -> buscarPorAutor());
+        btnBuscarTexto.addActionListener(e -> buscarTextoCompleto());
+        btnBusquedaAvanzada.addActionListener(e -> busquedaAvanzada());
+        // Las métricas también se publican por JMX; aquí se muestran en JSON
+        btnMetricas.addActionListener(e -> enSegundoPlano("Leyendo métricas", true,
+                progreso -> Metricas.global().aJson(), this::mostrarInfoResumen));
         btnSalir.addActionListener(e -> System.exit(0));
     }
 
@@ -141,11 +303,20 @@ public class MetroMendeleyGUI extends JFrame {
             String rutaArchivo = rutaArchivoField.getText();
             String[] palabrasClave = palabrasClaveField.getText().split(",");
     
-            // Llamada al método agregarResumen de ResumenManager y captura del Resumen devuelto
-            Resumen nuevoResumen = resumenManager.agregarResumen(titulo, autores, cuerpo, rutaArchivo, palabrasClave);
-            tablaResumenes.put(nuevoResumen.getTitulo(), nuevoResumen);
-    
-            frame.dispose(); // Cierra la ventana después de agregar
+            submitButton.setEnabled(false);
+            // Llamada al método agregarResumen de ResumenManager y captura del Resumen devuelto.
+            // Un alta ya escrita en el diario no se puede deshacer, así que no es cancelable.
+            enSegundoPlano("Agregando resumen", false,
+                    progreso -> resumenManager.agregarResumen(titulo, autores, cuerpo, rutaArchivo, palabrasClave),
+                    nuevoResumen -> {
+                        if (nuevoResumen == null) {
+                            JOptionPane.showMessageDialog(frame, "El resumen ya existe, o su cuerpo casi repite el de otro, y no se agregó.");
+                            submitButton.setEnabled(true);
+                            return;
+                        }
+                        tablaResumenes.put(nuevoResumen.getTitulo(), nuevoResumen);
+                        frame.dispose(); // Cierra la ventana después de agregar
+                    });
         });
     
         rutaArchivoButton.addActionListener(e -> {
@@ -206,7 +377,7 @@ public class MetroMendeleyGUI extends JFrame {
     // Asumiendo que el nuevo método analizarResumen(int indiceResumenSeleccionado) está correctamente implementado y accesible
     private void buscarPorPalabraClave() {
         JFrame frame = new JFrame("Buscar por Palabra Clave");
-        frame.setSize(300, 200);
+        frame.setSize(300, 300);
         frame.setLayout(new BorderLayout());
     
         JPanel panel = new JPanel();
@@ -215,17 +386,21 @@ public class MetroMendeleyGUI extends JFrame {
         JTextField palabraClaveField = new JTextField();
         panel.add(new JLabel("Palabra Clave:"));
         panel.add(palabraClaveField);
+        agregarSugerencias(panel, palabraClaveField, false);
     
         JButton buscarButton = new JButton("Buscar");
         buscarButton.addActionListener(e -> {
             String palabraClave = palabraClaveField.getText().trim(); // Eliminar espacios adicionales
-            MyLinkedList<Investigacion> resultados = busquedaResumen.buscarPorPalabraClave(palabraClave); // Llamada al método
-            if (resultados.size() == 0) {
-                JOptionPane.showMessageDialog(frame, "No hay resultados para mostrar.");
-            } else {
-                displayResults(resultados); // Muestra los resultados utilizando un método para actualizar la interfaz gráfica
-            }
-            frame.dispose(); // Cierra la ventana después de buscar
+            frame.dispose(); // Cierra la ventana; los resultados llegan cuando termina la búsqueda
+            enSegundoPlano("Buscando \"" + palabraClave + "\"", true,
+                    progreso -> resumenManager.getBusquedaResumen().instantaneaPorPalabraClave(palabraClave),
+                    resultados -> {
+                        if (resultados.size() == 0) {
+                            JOptionPane.showMessageDialog(this, "No hay resultados para mostrar.");
+                        } else {
+                            displayResults(resultados); // Muestra los resultados utilizando un método para actualizar la interfaz gráfica
+                        }
+                    });
         });
     
         frame.add(panel, BorderLayout.CENTER);
@@ -234,34 +409,101 @@ public class MetroMendeleyGUI extends JFrame {
         frame.setVisible(true);
     }
     
-    public void displayResults(MyLinkedList<Investigacion> results) {
-        // Paso 1: Verificar si results es nulo o está vacío
-        if (results == null || results.size() == 0) {
-            // Manejar la situación, por ejemplo, mostrar un mensaje de que no hay resultados
-            System.out.println("No hay resultados para mostrar.");
-            return;
-        }
-    
-        // Paso 2: Inicializar el índice
-        int i = 0;
-    
-        // Paso 3: Iterar sobre results con un bucle while
-        while (i < results.size()) {
-            // Obtener el elemento en la posición i
-            Investigacion investigacion = results.get(i);
-    
-            // Realizar operaciones con el elemento, por ejemplo, mostrarlo en la GUI
-            // (Este paso depende de cómo se manejen los elementos en la GUI)
-            System.out.println(investigacion); // Ejemplo de operación: imprimir el elemento
-    
-            // Incrementar el índice
-            i++;
-        }
+    private void buscarTextoCompleto() {
+        JFrame frame = new JFrame("Buscar en Texto Completo");
+        frame.setSize(300, 200);
+        frame.setLayout(new BorderLayout());
+
+        JPanel panel = new JPanel();
+        panel.setLayout(new GridLayout(0, 2));
+
+        JTextField consultaField = new JTextField();
+        panel.add(new JLabel("Consulta:"));
+        panel.add(consultaField);
+
+        JButton buscarButton = new JButton("Buscar");
+        buscarButton.addActionListener(e -> {
+            String consulta = consultaField.getText().trim();
+            frame.dispose();
+            // La primera búsqueda construye el índice de texto completo; si se cancela, el índice
+            // se termina de construir igual y queda listo para la siguiente
+            enSegundoPlano("Buscando en texto completo", true, progreso -> {
+                MyLinkedList<ResultadoBusqueda> resultados = resumenManager.buscarTextoCompleto(consulta, 20);
+                if (resultados.size() == 0) {
+                    return null;
+                }
+                // Mostrar los títulos ordenados por relevancia en resultArea
+                StringBuilder texto = new StringBuilder("Resultados para: ").append(consulta).append("\n");
+                Iterator<ResultadoBusqueda> iterador = resultados.iterator();
+                while (iterador.hasNext()) {
+                    texto.append(iterador.next()).append("\n");
+                }
+                return texto.toString();
+            }, texto -> {
+                if (texto == null) {
+                    JOptionPane.showMessageDialog(this, "No hay resultados para mostrar.");
+                } else {
+                    resultArea.setText(texto);
+                }
+            });
+        });
+
+        frame.add(panel, BorderLayout.CENTER);
+        frame.add(buscarButton, BorderLayout.SOUTH);
+
+        frame.setVisible(true);
+    }
+
+    /**
+     * Busca con una consulta booleana sobre palabras clave y autores, por ejemplo
+     * {@code AutoCAD AND fundaciones NOT C#} o {@code author:Sandoval OR author:Loscher}.
+     * Una consulta mal escrita se informa con el mensaje de error del analizador.
+     */
+    private void busquedaAvanzada() {
+        JFrame frame = new JFrame("Búsqueda Avanzada");
+        frame.setSize(400, 200);
+        frame.setLayout(new BorderLayout());
+
+        JPanel panel = new JPanel();
+        panel.setLayout(new GridLayout(0, 1));
+
+        JTextField consultaField = new JTextField();
+        panel.add(new JLabel("Consulta (AND, OR, NOT, paréntesis, author:):"));
+        panel.add(consultaField);
+
+        JButton buscarButton = new JButton("Buscar");
+        buscarButton.addActionListener(e -> {
+            String consulta = consultaField.getText().trim();
+            frame.dispose();
+            enSegundoPlano("Buscando " + consulta, true,
+                    progreso -> resumenManager.getBusquedaResumen().buscar(consulta),
+                    resultados -> {
+                        displayResults(resultados);
+                        JOptionPane.showMessageDialog(this, "Resultados para: " + consulta + " - "
+                                + resultados.size() + " encontrados");
+                    });
+        });
+
+        frame.add(panel, BorderLayout.CENTER);
+        frame.add(buscarButton, BorderLayout.SOUTH);
+
+        frame.setVisible(true);
+    }
+
+    /**
+     * Muestra los títulos de un resultado de búsqueda en listaResultados. Los títulos se leen
+     * por páginas a medida que se vuelven visibles, así que el costo no depende del tamaño del resultado.
+     *
+     * @param results Las investigaciones encontradas.
+     */
+    public void displayResults(ResultadosConsulta results) {
+        listaResultados.setModel(new ModeloResultadosPaginado(results));
+        listaResultados.ensureIndexIsVisible(0);
     }
 
     private void buscarPorAutor() {
         JFrame frame = new JFrame("Buscar por Autor");
-        frame.setSize(300, 200);
+        frame.setSize(300, 300);
         frame.setLayout(new BorderLayout());
     
         JPanel panel = new JPanel();
@@ -270,20 +512,38 @@ public class MetroMendeleyGUI extends JFrame {
         JTextField autorField = new JTextField();
         panel.add(new JLabel("Autor:"));
         panel.add(autorField);
+        agregarSugerencias(panel, autorField, true);
     
         JButton buscarButton = new JButton("Buscar");
         buscarButton.addActionListener(e -> {
-            String autor = autorField.getText(); // Get the author from the text field
-            MyLinkedList<Investigacion> resultados = buscarPorAutor(autor); // Correctly pass the author to the method
-            // Display results
-            if (resultados.size() > 0) {
-                // Mostrar el mensaje con el número correcto de resultados
-                JOptionPane.showMessageDialog(frame, "Resultados para: " + autor + " - " + resultados.size() + " encontrados");
-            } else {
-                // Manejar el caso donde no se encuentran resultados
-                JOptionPane.showMessageDialog(frame, "No se encontraron resultados para: " + autor);
-            }
-            frame.dispose(); // Close the window after searching
+            String autorBuscado = autorField.getText().trim(); // Get the author from the text field
+            frame.dispose(); // Close the window; results arrive when the search finishes
+            enSegundoPlano("Buscando autor \"" + autorBuscado + "\"", true, progreso -> {
+                String autor = autorBuscado;
+                BusquedaResumen busqueda = resumenManager.getBusquedaResumen();
+                ResultadosConsulta resultados = busqueda.instantaneaPorAutor(autor);
+                if (resultados.size() == 0) {
+                    // Sin coincidencia exacta: se busca el autor más parecido (acentos, guiones, errores de tipeo)
+                    MyLinkedList<Sugerencia> similares = busqueda.buscarAutoresSimilares(autor, 5);
+                    if (similares.size() > 0) {
+                        autor = similares.get(0).getTermino();
+                        resultados = busqueda.instantaneaPorAutor(autor);
+                    }
+                }
+                return new Object[] {autor, resultados};
+            }, encontrado -> {
+                String autor = (String) encontrado[0];
+                ResultadosConsulta resultados = (ResultadosConsulta) encontrado[1];
+                displayResults(resultados);
+                // Display results
+                if (resultados.size() > 0) {
+                    // Mostrar el mensaje con el número correcto de resultados
+                    JOptionPane.showMessageDialog(this, "Resultados para: " + autor + " - " + resultados.size() + " encontrados");
+                } else {
+                    // Manejar el caso donde no se encuentran resultados
+                    JOptionPane.showMessageDialog(this, "No se encontraron resultados para: " + autor);
+                }
+            });
         });
     
         frame.add(panel, BorderLayout.CENTER);
@@ -292,18 +552,81 @@ public class MetroMendeleyGUI extends JFrame {
         frame.setVisible(true);
     }
 
-    private MyLinkedList<Investigacion> buscarPorAutor(String autor) {
-        // Create a custom list to store matching investigations
-        MyLinkedList<Investigacion> resultados = new MyLinkedList<>();
-        Iterator<Investigacion> iterador = resultados.iterator();
-        modeloLista.clear();
-        // Iterate over the entries in the tablaResumenes (or your data structure)
-        while(iterador.hasNext()) {
-            // Assuming Resumen has a method getAutores that returns a list of authors
-            Investigacion investigacion = iterador.next();
-            modeloLista.addElement(investigacion.getTitulo()); 
-        }
-        return resultados;
+    /**
+     * Agrega al panel una lista de sugerencias que se actualiza mientras se escribe en el campo.
+     * Al seleccionar una sugerencia, su término reemplaza el texto del campo.
+     *
+     * @param panel El panel del diálogo de búsqueda.
+     * @param campo El campo de texto a completar.
+     * @param autores {@code true} para sugerir autores, {@code false} para sugerir palabras clave.
+     */
+    private void agregarSugerencias(JPanel panel, JTextField campo, boolean autores) {
+        DefaultListModel<Sugerencia> modeloSugerencias = new DefaultListModel<>();
+        JList<Sugerencia> listaSugerencias = new JList<>(modeloSugerencias);
+        campo.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                actualizar();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                actualizar();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                actualizar();
+            }
+
+            /** Consulta de sugerencias en curso; solo se muestra la del texto más reciente. */
+            private SwingWorker<MyLinkedList<Sugerencia>, Void> consulta;
+
+            private void actualizar() {
+                if (consulta != null) {
+                    consulta.cancel(false);
+                }
+                modeloSugerencias.clear();
+                String texto = campo.getText();
+                if (texto.isBlank()) {
+                    consulta = null;
+                    return;
+                }
+                BusquedaResumen busqueda = resumenManager.getBusquedaResumen();
+                // No pasa por la barra de estado: se lanza una por tecla y dura microsegundos
+                consulta = new SwingWorker<MyLinkedList<Sugerencia>, Void>() {
+                    @Override
+                    protected MyLinkedList<Sugerencia> doInBackground() {
+                        return autores ? busqueda.sugerirAutores(texto, 8) : busqueda.sugerirPalabrasClave(texto, 8);
+                    }
+
+                    @Override
+                    protected void done() {
+                        if (isCancelled() || consulta != this) {
+                            return;
+                        }
+                        try {
+                            Iterator<Sugerencia> iterador = get().iterator();
+                            while (iterador.hasNext()) {
+                                modeloSugerencias.addElement(iterador.next());
+                            }
+                        } catch (InterruptedException | ExecutionException ex) {
+                            Registro.advertencia("No se pudieron obtener sugerencias", ex);
+                        }
+                    }
+                };
+                consulta.execute();
+            }
+        });
+        listaSugerencias.addListSelectionListener(e -> {
+            Sugerencia seleccionada = listaSugerencias.getSelectedValue();
+            if (!e.getValueIsAdjusting() && seleccionada != null) {
+                // Se difiere para no modificar el documento mientras la lista notifica la selección
+                SwingUtilities.invokeLater(() -> campo.setText(seleccionada.getTermino()));
+            }
+        });
+        panel.add(new JLabel("Sugerencias:"));
+        panel.add(new JScrollPane(listaSugerencias));
     }
 
     private void analizarResumenSeleccionado() {
@@ -315,7 +638,11 @@ public class MetroMendeleyGUI extends JFrame {
     }
     
     public static void main(String[] args) {
-        MetroMendeleyGUI gui = new MetroMendeleyGUI();
-        gui.setVisible(true);
+        Metricas.global().registrarJmx();
+        // Los componentes de Swing se crean y se muestran en el hilo de eventos
+        SwingUtilities.invokeLater(() -> {
+            MetroMendeleyGUI gui = new MetroMendeleyGUI();
+            gui.setVisible(true);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+import javax.swing.AbstractListModel;
+import java.util.Arrays;
+
+/**
+ * Modelo de lista que muestra los títulos de un resultado de búsqueda sin copiarlo.
+ * <p>
+ * Los títulos se leen por páginas a medida que la lista los pide, y solo se guardan las últimas
+ * páginas leídas, de modo que el costo depende de las filas visibles y no de la cantidad de
+ * resultados. Para que la lista no recorra todas las filas al medir su tamaño, debe tener una
+ * altura y un ancho de celda fijos (por ejemplo con {@code setPrototypeCellValue}).
+ */
+public class ModeloResultadosPaginado extends AbstractListModel<String> {
+    private static final long serialVersionUID = 1L;
+    /** Filas que se leen juntas. */
+    static final int TAMANIO_PAGINA = 128;
+    /** Páginas que se conservan; alcanza para la vista y las páginas vecinas al desplazarse. */
+    private static final int PAGINAS_EN_CACHE = 8;
+
+    /** Vista de un índice en memoria; no tiene sentido serializarla con el modelo. */
+    private final transient ResultadosConsulta resultados;
+    /** Número de la página guardada en cada posición de la cache, o -1 si está vacía. */
+    private final int[] numerosPagina = new int[PAGINAS_EN_CACHE];
+    private final String[][] paginas = new String[PAGINAS_EN_CACHE][];
+
+    /**
+     * Crea un modelo sobre el resultado de una búsqueda.
+     *
+     * @param resultados Las investigaciones encontradas; no se copian.
+     */
+    public ModeloResultadosPaginado(ResultadosConsulta resultados) {
+        this.resultados = resultados;
+        Arrays.fill(numerosPagina, -1);
+    }
+
+    @Override
+    public int getSize() {
+        return resultados.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        int pagina = index / TAMANIO_PAGINA;
+        // Cache de correspondencia directa: cada página tiene una sola posición posible
+        int posicion = pagina % PAGINAS_EN_CACHE;
+        if (numerosPagina[posicion] != pagina) {
+            paginas[posicion] = leerPagina(pagina);
+            numerosPagina[posicion] = pagina;
+        }
+        return paginas[posicion][index - pagina * TAMANIO_PAGINA];
+    }
+
+    /**
+     * Devuelve la investigación de una fila.
+     *
+     * @param index La fila.
+     * @return La investigación que se muestra en esa fila.
+     */
+    public Investigacion getInvestigacion(int index) {
+        return resultados.get(index);
+    }
+
+    private String[] leerPagina(int pagina) {
+        int inicio = pagina * TAMANIO_PAGINA;
+        String[] titulos = new String[Math.min(TAMANIO_PAGINA, resultados.size() - inicio)];
+        for (int i = 0; i < titulos.length; i++) {
+            titulos[i] = resultados.get(inicio + i).getTitulo();
+        }
+        return titulos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+import java.util.Arrays;
+
+/**
+ * List that grows at the end and that any number of threads may read while others add to it.
+ * Elements are appended, or stored at a position with {@link #colocar(int, Object)}; none is removed.
+ * <p>
+ * Elements live in an array that is replaced by a larger copy when full. A writer stores the
+ * element before publishing the new size through a volatile write, and readers read the size
+ * before the array, so every element below the size they read is visible. Readers never lock;
+ * writers synchronize on the list.
+ *
+ * @param <T> the type of elements held in this list
+ */
+public class MyConcurrentList<T> implements Iterable<T> {
+    private volatile Object[] elementos = new Object[4];
+    private volatile int tamanio;
+
+    /**
+     * Appends an element.
+     *
+     * @param data the element to append
+     * @return the position of the element
+     */
+    public synchronized int add(T data) {
+        int n = tamanio;
+        Object[] destino = elementos;
+        if (n == destino.length) {
+            destino = Arrays.copyOf(destino, n * 2);
+            elementos = destino;
+        }
+        destino[n] = data;
+        tamanio = n + 1;
+        return n;
+    }
+
+    /**
+     * Stores an element at the given position, extending the list up to it if needed. Positions
+     * skipped over hold {@code null} until something is stored there.
+     *
+     * @param index the position of the element
+     * @param data the element to store
+     * @return the element that was at that position, or {@code null}
+     */
+    public synchronized T colocar(int index, T data) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        int n = tamanio;
+        Object[] destino = elementos;
+        if (index >= destino.length) {
+            destino = Arrays.copyOf(destino, Math.max(destino.length * 2, index + 1));
+            elementos = destino;
+        }
+        @SuppressWarnings("unchecked")
+        T anterior = (T) destino[index];
+        destino[index] = data;
+        // Volatile write even when the size is unchanged, so readers see the element
+        tamanio = Math.max(n, index + 1);
+        return anterior;
+    }
+
+    /**
+     * Returns the element at the given position.
+     *
+     * @param index the position of the element
+     * @return the element
+     * @throws IndexOutOfBoundsException if the position is not below {@link #size()}
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        int n = tamanio;
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + n);
+        }
+        return (T) elementos[index];
+    }
+
+    /**
+     * Returns the number of elements added so far.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return tamanio;
+    }
+
+    /**
+     * Returns an iterator over the elements present when it was created.
+     *
+     * @return an Iterator over a snapshot of the list
+     */
+    @Override
+    public Iterator<T> iterator() {
+        int n = tamanio;
+        Object[] arreglo = elementos;
+        return new Iterator<T>() {
+            private int posicion;
+
+            @Override
+            public boolean hasNext() {
+                return posicion < n;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new RuntimeException("No hay más elementos");
+                }
+                return (T) arreglo[posicion++];
+            }
+        };
+    }
+
+    /**
+     * Returns a read-only view of the elements present now, without copying them.
+     * Elements added afterwards are not part of the view.
+     *
+     * @return a snapshot with constant-time access by position
+     */
+    public Instantanea<T> instantanea() {
+        int n = tamanio;
+        return new Instantanea<>(elementos, n);
+    }
+
+    /**
+     * Copies the elements present now into a new linked list.
+     *
+     * @return a list that is not backed by this one
+     */
+    @SuppressWarnings("unchecked")
+    public MyLinkedList<T> toLinkedList() {
+        int n = tamanio;
+        Object[] arreglo = elementos;
+        MyLinkedList<T> lista = new MyLinkedList<>();
+        for (int i = 0; i < n; i++) {
+            lista.add((T) arreglo[i]);
+        }
+        return lista;
+    }
+
+    /**
+     * Fixed-size, read-only view of a {@link MyConcurrentList}.
+     * <p>
+     * Positions below the size of the list never change once written and a full array is
+     * replaced rather than reused, so the view can keep reading the array it was created with.
+     *
+     * @param <T> the type of elements held in the view
+     */
+    public static class Instantanea<T> implements Iterable<T> {
+        private final Object[] elementos;
+        private final int tamanio;
+
+        private Instantanea(Object[] elementos, int tamanio) {
+            this.elementos = elementos;
+            this.tamanio = tamanio;
+        }
+
+        /**
+         * Returns the element at the given position.
+         *
+         * @param index the position of the element
+         * @return the element
+         * @throws IndexOutOfBoundsException if the position is not below {@link #size()}
+         */
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= tamanio) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + tamanio);
+            }
+            return (T) elementos[index];
+        }
+
+        /**
+         * Returns the number of elements in the view.
+         *
+         * @return the number of elements
+         */
+        public int size() {
+            return tamanio;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int posicion;
+
+                @Override
+                public boolean hasNext() {
+                    return posicion < tamanio;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public T next() {
+                    if (!hasNext()) {
+                        throw new RuntimeException("No hay más elementos");
+                    }
+                    return (T) elementos[posicion++];
+                }
+            };
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,391 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe counterpart of {@link MyMap}: any number of threads may read while others write.
+ * <p>
+ * Keys are spread over a fixed number of segments, each a chained hash table guarded by its own
+ * lock, so writers only wait for writers of keys in the same segment. Readers never lock. Chain
+ * nodes are immutable and published through an {@link AtomicReferenceArray}, and values are
+ * volatile; removing a key or resizing a segment builds new nodes instead of changing those a
+ * reader may be walking. A read thus sees every write that completed before it started, and
+ * never a half-made one.
+ * <p>
+ * Like {@link MyMap}, iteration follows insertion order. Every mapping is also appended, with a
+ * compare-and-set, to a singly linked list that iterators walk without locking; they see the
+ * mappings added while they run. Removed mappings stay in that list, skipped by iterators,
+ * until there are more of them than live ones and the list is relinked around them.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+public class MyConcurrentMap<K, V> implements Iterable<V> {
+    private static final int SEGMENTOS_POR_DEFECTO = 16;
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    /** A mapping, linked to the next one in insertion order. */
+    private static final class Entrada<K, V> {
+        final K clave;
+        volatile V valor;
+        volatile boolean borrada;
+        volatile Entrada<K, V> siguiente;
+
+        Entrada(K clave, V valor) {
+            this.clave = clave;
+            this.valor = valor;
+        }
+    }
+
+    private static final VarHandle SIGUIENTE;
+
+    static {
+        try {
+            SIGUIENTE = MethodHandles.lookup().findVarHandle(Entrada.class, "siguiente", Entrada.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Immutable link of a hash chain. */
+    private static final class Nodo<K, V> {
+        final int hash;
+        final Entrada<K, V> entrada;
+        final Nodo<K, V> siguiente;
+
+        Nodo(int hash, Entrada<K, V> entrada, Nodo<K, V> siguiente) {
+            this.hash = hash;
+            this.entrada = entrada;
+            this.siguiente = siguiente;
+        }
+    }
+
+    /** Hash table of the keys whose hash falls in this segment. Written only with the lock held. */
+    private static final class Segmento<K, V> extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        volatile AtomicReferenceArray<Nodo<K, V>> tabla = new AtomicReferenceArray<>(CAPACIDAD_INICIAL);
+        volatile int tamanio;
+    }
+
+    private final Segmento<K, V>[] segmentos;
+    /** Bits of the mixed hash that select a segment. */
+    private final int desplazamientoSegmento;
+    /** Sentinel before the first mapping in insertion order. */
+    private final Entrada<K, V> cabeza = new Entrada<>(null, null);
+    /** Last mapping in insertion order, or a mapping shortly before it while an append completes. */
+    private final AtomicReference<Entrada<K, V>> cola = new AtomicReference<>(cabeza);
+    /** Removed mappings still linked in insertion order. */
+    private final AtomicInteger borradas = new AtomicInteger();
+
+    /**
+     * Constructs an empty map with enough segments for a few writer threads.
+     */
+    public MyConcurrentMap() {
+        this(SEGMENTOS_POR_DEFECTO);
+    }
+
+    /**
+     * Constructs an empty map.
+     *
+     * @param segmentos The expected number of concurrent writers, rounded up to a power of two.
+     */
+    @SuppressWarnings("unchecked")
+    public MyConcurrentMap(int segmentos) {
+        if (segmentos <= 0) throw new IllegalArgumentException("El número de segmentos debe ser positivo.");
+        int cantidad = Integer.highestOneBit(Math.min(segmentos, 1 << 16) * 2 - 1);
+        this.segmentos = (Segmento<K, V>[]) new Segmento<?, ?>[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            this.segmentos[i] = new Segmento<>();
+        }
+        desplazamientoSegmento = 32 - Integer.numberOfTrailingZeros(cantidad);
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old value is replaced.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     */
+    public void put(K key, V value) {
+        insertar(key, value, true);
+    }
+
+    /**
+     * Associates the specified value with the specified key unless the key is already mapped.
+     * Checking and inserting is atomic, so of several threads adding the same key only one succeeds.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the value already mapped to the key, or {@code null} if the value was added
+     */
+    public V putIfAbsent(K key, V value) {
+        return insertar(key, value, false);
+    }
+
+    private V insertar(K key, V value, boolean reemplazar) {
+        int hash = hash(key);
+        Segmento<K, V> segmento = segmento(hash);
+        segmento.lock();
+        try {
+            AtomicReferenceArray<Nodo<K, V>> tabla = segmento.tabla;
+            int posicion = hash & (tabla.length() - 1);
+            Nodo<K, V> primero = tabla.get(posicion);
+            for (Nodo<K, V> nodo = primero; nodo != null; nodo = nodo.siguiente) {
+                if (nodo.hash == hash && iguales(nodo.entrada.clave, key)) {
+                    V anterior = nodo.entrada.valor;
+                    if (reemplazar) {
+                        nodo.entrada.valor = value;
+                    }
+                    return anterior;
+                }
+            }
+            Entrada<K, V> entrada = new Entrada<>(key, value);
+            tabla.set(posicion, new Nodo<>(hash, entrada, primero));
+            enlazar(entrada);
+            segmento.tamanio++;
+            if (segmento.tamanio > tabla.length() - tabla.length() / 4) {
+                redimensionar(segmento);
+            }
+            return null;
+        } finally {
+            segmento.unlock();
+        }
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or {@code null} if this map contains no mapping for the key.
+     * Never blocks.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the specified key is mapped, or {@code null} if this map contains no mapping for the key
+     */
+    public V get(K key) {
+        Entrada<K, V> entrada = buscar(key);
+        return entrada == null ? null : entrada.valor;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the specified key. Never blocks.
+     *
+     * @param key key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified key
+     */
+    public boolean containsKey(K key) {
+        return buscar(key) != null;
+    }
+
+    private Entrada<K, V> buscar(K key) {
+        int hash = hash(key);
+        AtomicReferenceArray<Nodo<K, V>> tabla = segmento(hash).tabla;
+        for (Nodo<K, V> nodo = tabla.get(hash & (tabla.length() - 1)); nodo != null; nodo = nodo.siguiente) {
+            if (nodo.hash == hash && iguales(nodo.entrada.clave, key)) {
+                // A reader still walking the chain a removal replaced may meet the removed mapping.
+                return nodo.entrada.borrada ? null : nodo.entrada;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     */
+    public V remove(K key) {
+        int hash = hash(key);
+        Segmento<K, V> segmento = segmento(hash);
+        V anterior = null;
+        segmento.lock();
+        try {
+            AtomicReferenceArray<Nodo<K, V>> tabla = segmento.tabla;
+            int posicion = hash & (tabla.length() - 1);
+            Nodo<K, V> primero = tabla.get(posicion);
+            for (Nodo<K, V> nodo = primero; nodo != null; nodo = nodo.siguiente) {
+                if (nodo.hash == hash && iguales(nodo.entrada.clave, key)) {
+                    // Nodes are immutable: copy the ones before the removed node onto the rest of the chain.
+                    Nodo<K, V> resto = nodo.siguiente;
+                    for (Nodo<K, V> previo = primero; previo != nodo; previo = previo.siguiente) {
+                        resto = new Nodo<>(previo.hash, previo.entrada, resto);
+                    }
+                    tabla.set(posicion, resto);
+                    anterior = nodo.entrada.valor;
+                    nodo.entrada.borrada = true;
+                    segmento.tamanio--;
+                    borradas.incrementAndGet();
+                    break;
+                }
+            }
+        } finally {
+            segmento.unlock();
+        }
+        if (borradas.get() > Math.max(CAPACIDAD_INICIAL, size())) {
+            relinkear();
+        }
+        return anterior;
+    }
+
+    /**
+     * Returns a MyLinkedList containing the values in this map, in insertion order.
+     * The list is not backed by the map, so changes to the map are not reflected in the list, and vice-versa.
+     *
+     * @return a list of the values in this map
+     */
+    public MyLinkedList<V> values() {
+        MyLinkedList<V> valores = new MyLinkedList<>();
+        for (Entrada<K, V> entrada = primeraViva(cabeza.siguiente); entrada != null; entrada = primeraViva(entrada.siguiente)) {
+            valores.add(entrada.valor);
+        }
+        return valores;
+    }
+
+    /**
+     * Returns a list with the mappings of this map in insertion order.
+     * The list and its entries are built on each call and are not backed by the map.
+     *
+     * @return a list of the entries in this map
+     */
+    public MyLinkedList<MyMap.Entry<K, V>> entryList() {
+        MyLinkedList<MyMap.Entry<K, V>> lista = new MyLinkedList<>();
+        for (Entrada<K, V> entrada = primeraViva(cabeza.siguiente); entrada != null; entrada = primeraViva(entrada.siguiente)) {
+            lista.add(new MyMap.Entry<>(entrada.clave, entrada.valor));
+        }
+        return lista;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map. While other threads write, the count
+     * is a sum of per-segment counts read one after the other.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        int tamanio = 0;
+        for (Segmento<K, V> segmento : segmentos) {
+            tamanio += segmento.tamanio;
+        }
+        return tamanio;
+    }
+
+    /**
+     * Returns an iterator over the values in this map, in insertion order. The iterator never
+     * blocks and sees mappings added after it was created.
+     *
+     * @return an Iterator over the values in this map
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private Entrada<K, V> actual = primeraViva(cabeza.siguiente);
+
+            @Override
+            public boolean hasNext() {
+                return actual != null;
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new RuntimeException("No hay más elementos");
+                }
+                V value = actual.valor;
+                actual = primeraViva(actual.siguiente);
+                return value;
+            }
+        };
+    }
+
+    private static <K, V> Entrada<K, V> primeraViva(Entrada<K, V> entrada) {
+        while (entrada != null && entrada.borrada) {
+            entrada = entrada.siguiente;
+        }
+        return entrada;
+    }
+
+    /**
+     * Appends a new mapping to the insertion order. Called with the lock of the mapping's segment
+     * held; writers of other segments may append at the same time, so the tail is advanced with
+     * compare-and-set, each writer helping one that was interrupted between its two steps.
+     */
+    private void enlazar(Entrada<K, V> entrada) {
+        while (true) {
+            Entrada<K, V> ultima = cola.get();
+            Entrada<K, V> siguiente = ultima.siguiente;
+            if (siguiente != null) {
+                cola.compareAndSet(ultima, siguiente);
+            } else if (SIGUIENTE.compareAndSet(ultima, (Entrada<K, V>) null, entrada)) {
+                cola.compareAndSet(ultima, entrada);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Relinks the insertion order around removed mappings. Every segment lock is taken, in order,
+     * so no mapping is appended or removed meanwhile. Iterators keep working: removed mappings
+     * still point forward, and live ones only skip mappings iterators would skip anyway.
+     */
+    private void relinkear() {
+        for (Segmento<K, V> segmento : segmentos) {
+            segmento.lock();
+        }
+        try {
+            if (borradas.get() <= Math.max(CAPACIDAD_INICIAL, size())) {
+                return; // Another remover relinked first
+            }
+            Entrada<K, V> ultima = cola.get();
+            Entrada<K, V> anterior = cabeza;
+            for (Entrada<K, V> entrada = cabeza.siguiente; entrada != null; entrada = entrada.siguiente) {
+                // The tail stays linked even if removed, as the next append goes after it.
+                if (!entrada.borrada || entrada == ultima) {
+                    if (anterior.siguiente != entrada) {
+                        anterior.siguiente = entrada;
+                    }
+                    anterior = entrada;
+                }
+            }
+            borradas.set(ultima != cabeza && ultima.borrada ? 1 : 0);
+        } finally {
+            for (int i = segmentos.length - 1; i >= 0; i--) {
+                segmentos[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Doubles the table of a segment. The new chains are built from new nodes and published at
+     * once, so readers use either the old table or the complete new one.
+     */
+    private void redimensionar(Segmento<K, V> segmento) {
+        AtomicReferenceArray<Nodo<K, V>> vieja = segmento.tabla;
+        AtomicReferenceArray<Nodo<K, V>> nueva = new AtomicReferenceArray<>(vieja.length() * 2);
+        int mascara = nueva.length() - 1;
+        for (int i = 0; i < vieja.length(); i++) {
+            for (Nodo<K, V> nodo = vieja.get(i); nodo != null; nodo = nodo.siguiente) {
+                int posicion = nodo.hash & mascara;
+                nueva.lazySet(posicion, new Nodo<>(nodo.hash, nodo.entrada, nueva.get(posicion)));
+            }
+        }
+        segmento.tabla = nueva;
+    }
+
+    private Segmento<K, V> segmento(int hash) {
+        // The high bits of a multiplicative hash choose the segment; the low bits of the hash
+        // choose the bucket, so the two are independent.
+        return segmentos[(hash * 0x9E3779B9) >>> desplazamientoSegmento & (segmentos.length - 1)];
+    }
+
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean iguales(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
\ No newline at end of file
@@ -1,3 +1,7 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 class Node<T> {
@@ -12,28 +16,48 @@ class Node<T> {
     }
 }
 
+/**
+ * Doubly linked list with a tail pointer, so appends are O(1). Indexed access walks from
+ * whichever of the head, the tail or the last accessed node is closest, which makes
+ * in-order {@code get(i)} loops cost O(1) per step.
+ *
+ * @param <T> the type of elements held in this list
+ */
 public class MyLinkedList<T> implements Iterable<T>, Serializable {
     private static final long serialVersionUID = 1L;
-    private Node<T> head;
-    private int size;
+
+    /**
+     * Serialized form. {@code head} is kept only so older files still match the class
+     * descriptor; the elements are written as an array because {@link Node} is not serializable.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("size", int.class),
+        new ObjectStreamField("head", Node.class),
+        new ObjectStreamField("elementos", Object[].class)
+    };
+
+    private transient Node<T> head;
+    private transient Node<T> tail;
+    private transient int size;
+    /** Last node reached by {@link #get(int)} and its index, or {@code null} when unset. */
+    private transient Node<T> cursor;
+    private transient int cursorIndex;
 
     public MyLinkedList() {
         this.head = null;
+        this.tail = null;
         this.size = 0;
     }
 
     public void add(T data) {
+        Node<T> newNode = new Node<>(data);
         if (head == null) {
-            head = new Node<>(data);
+            head = newNode;
         } else {
-            Node<T> current = head;
-            while (current.next != null) {
-                current = current.next;
-            }
-            Node<T> newNode = new Node<>(data);
-            current.next = newNode;
-            newNode.prev = current;
+            tail.next = newNode;
+            newNode.prev = tail;
         }
+        tail = newNode;
         size++;
     }
 
@@ -41,10 +65,30 @@ public class MyLinkedList<T> implements Iterable<T>, Serializable {
         if (index < 0 || index >= size) {
             throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
         }
-        Node<T> current = head;
-        for (int i = 0; i < index; i++) {
+        Node<T> current;
+        int position;
+        int fromTail = size - 1 - index;
+        if (index <= fromTail) {
+            current = head;
+            position = 0;
+        } else {
+            current = tail;
+            position = size - 1;
+        }
+        if (cursor != null && Math.abs(index - cursorIndex) < Math.abs(index - position)) {
+            current = cursor;
+            position = cursorIndex;
+        }
+        while (position < index) {
             current = current.next;
+            position++;
+        }
+        while (position > index) {
+            current = current.prev;
+            position--;
         }
+        cursor = current;
+        cursorIndex = index;
         return current.data;
     }
 
@@ -86,4 +130,27 @@ public class MyLinkedList<T> implements Iterable<T>, Serializable {
             return data;
         }
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Object[] elementos = new Object[size];
+        int i = 0;
+        for (Node<T> current = head; current != null; current = current.next) {
+            elementos[i++] = current.data;
+        }
+        ObjectOutputStream.PutField campos = out.putFields();
+        campos.put("size", size);
+        campos.put("elementos", elementos);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField campos = in.readFields();
+        Object[] elementos = (Object[]) campos.get("elementos", null);
+        if (elementos != null) {
+            for (Object elemento : elementos) {
+                add((T) elemento);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * A custom implementation of a map data structure that associates keys with values.
  * It is not based on the standard Java Map interface but provides similar functionality.
- * This implementation uses a linked list to store entries, making it suitable for small datasets.
+ * This implementation is a hash table with open addressing: a power-of-two table of slots
+ * stores positions into a dense array of entries, so lookups probe a few slots instead of
+ * scanning every entry, and iteration follows insertion order.
  *
  * @param <K> the type of keys maintained by this map
  * @param <V> the type of mapped values
@@ -11,6 +18,20 @@ import java.io.Serializable;
 class MyMap<K, V> implements Iterable<V>, Serializable {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Serialized form. {@code entries} is the field written by the original list-based map and
+     * is only read back from old files; current versions write the keys and values as arrays.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("entries", MyLinkedList.class),
+        new ObjectStreamField("claves", Object[].class),
+        new ObjectStreamField("valores", Object[].class)
+    };
+
+    private static final int CAPACIDAD_INICIAL = 16;
+    private static final int VACIO = -1;
+    private static final int BORRADO = -2;
+
     /**
      * Represents a key-value pair in the map.
      *
@@ -51,17 +72,38 @@ class MyMap<K, V> implements Iterable<V>, Serializable {
         }
     }
 
-    private MyLinkedList<Entry<K, V>> entries;
+    /** Slot table: each slot holds a position in {@link #entradas}, {@link #VACIO} or {@link #BORRADO}. */
+    private transient int[] indices;
+    /** Entries in insertion order; removed entries leave a {@code null} hole until the next rehash. */
+    private transient Entry<K, V>[] entradas;
+    /** Cached hash code of the entry stored at the same position in {@link #entradas}. */
+    private transient int[] hashes;
+    /** Next free position in {@link #entradas}. */
+    private transient int siguiente;
+    /** Number of live mappings. */
+    private transient int tamanio;
 
     /**
      * Constructs an empty MyMap.
      */
     public MyMap() {
-        entries = new MyLinkedList<>();
+        inicializar(CAPACIDAD_INICIAL);
     }
 
+    /**
+     * Returns a list with the entries of this map in insertion order.
+     * The list is built on each call; the entries themselves are shared with the map.
+     *
+     * @return a list of the entries in this map
+     */
     public MyLinkedList<Entry<K, V>> entryList() {
-        return entries;
+        MyLinkedList<Entry<K, V>> lista = new MyLinkedList<>();
+        for (int i = 0; i < siguiente; i++) {
+            if (entradas[i] != null) {
+                lista.add(entradas[i]);
+            }
+        }
+        return lista;
     }
 
     /**
@@ -72,14 +114,36 @@ class MyMap<K, V> implements Iterable<V>, Serializable {
      * @param value value to be associated with the specified key
      */
     public void put(K key, V value) {
-        for (int i = 0; i < entries.size(); i++) {
-            Entry<K, V> entry = entries.get(i);
-            if (entry.key.equals(key)) {
-                entry.value = value;
+        int hash = hash(key);
+        int mascara = indices.length - 1;
+        int slot = hash & mascara;
+        int primerBorrado = -1;
+        while (true) {
+            int posicion = indices[slot];
+            if (posicion == VACIO) {
+                break;
+            }
+            if (posicion == BORRADO) {
+                if (primerBorrado < 0) {
+                    primerBorrado = slot;
+                }
+            } else if (hashes[posicion] == hash && iguales(entradas[posicion].key, key)) {
+                entradas[posicion].value = value;
                 return;
             }
+            slot = (slot + 1) & mascara;
+        }
+        if (siguiente == entradas.length) {
+            rehash();
+            put(key, value);
+            return;
         }
-        entries.add(new Entry<>(key, value));
+        int destino = primerBorrado >= 0 ? primerBorrado : slot;
+        indices[destino] = siguiente;
+        entradas[siguiente] = new Entry<>(key, value);
+        hashes[siguiente] = hash;
+        siguiente++;
+        tamanio++;
     }
 
     /**
@@ -89,13 +153,8 @@ class MyMap<K, V> implements Iterable<V>, Serializable {
      * @return the value to which the specified key is mapped, or {@code null} if this map contains no mapping for the key
      */
     public V get(K key) {
-        for (int i = 0; i < entries.size(); i++) {
-            Entry<K, V> entry = entries.get(i);
-            if (entry.key.equals(key)) {
-                return entry.value;
-            }
-        }
-        return null;
+        int posicion = buscarPosicion(key);
+        return posicion >= 0 ? entradas[posicion].value : null;
     }
 
     /**
@@ -105,13 +164,33 @@ class MyMap<K, V> implements Iterable<V>, Serializable {
      * @return {@code true} if this map contains a mapping for the specified key
      */
     public boolean containsKey(K key) {
-        for (int i = 0; i < entries.size(); i++) {
-            Entry<K, V> entry = entries.get(i);
-            if (entry.key.equals(key)) {
-                return true;
+        return buscarPosicion(key) >= 0;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     */
+    public V remove(K key) {
+        int hash = hash(key);
+        int mascara = indices.length - 1;
+        int slot = hash & mascara;
+        while (true) {
+            int posicion = indices[slot];
+            if (posicion == VACIO) {
+                return null;
             }
+            if (posicion != BORRADO && hashes[posicion] == hash && iguales(entradas[posicion].key, key)) {
+                V anterior = entradas[posicion].value;
+                indices[slot] = BORRADO;
+                entradas[posicion] = null;
+                tamanio--;
+                return anterior;
+            }
+            slot = (slot + 1) & mascara;
         }
-        return false;
     }
 
     /**
@@ -122,8 +201,10 @@ class MyMap<K, V> implements Iterable<V>, Serializable {
      */
     public MyLinkedList<V> values() {
         MyLinkedList<V> valuesList = new MyLinkedList<>();
-        for (int i = 0; i < entries.size(); i++) {
-            valuesList.add(entries.get(i).value);
+        for (int i = 0; i < siguiente; i++) {
+            if (entradas[i] != null) {
+                valuesList.add(entradas[i].value);
+            }
         }
         return valuesList;
     }
@@ -134,7 +215,7 @@ class MyMap<K, V> implements Iterable<V>, Serializable {
      * @return the number of key-value mappings in this map
      */
     public int size() {
-        return entries.size();
+        return tamanio;
     }
 
     /**
@@ -145,17 +226,140 @@ class MyMap<K, V> implements Iterable<V>, Serializable {
     @Override
     public Iterator<V> iterator() {
         return new Iterator<V>() {
-            private final Iterator<Entry<K, V>> entryIterator = entries.iterator();
+            private int posicion = avanzar(0);
+
+            private int avanzar(int desde) {
+                while (desde < siguiente && entradas[desde] == null) {
+                    desde++;
+                }
+                return desde;
+            }
 
             @Override
             public boolean hasNext() {
-                return entryIterator.hasNext();
+                return posicion < siguiente;
             }
 
             @Override
             public V next() {
-                return entryIterator.next().value;
+                if (!hasNext()) {
+                    throw new RuntimeException("No hay más elementos");
+                }
+                V value = entradas[posicion].value;
+                posicion = avanzar(posicion + 1);
+                return value;
             }
         };
     }
+
+    /**
+     * Probes the slot table for the given key.
+     *
+     * @param key the key to look for
+     * @return the position of the key in {@link #entradas}, or {@code -1} if it is not present
+     */
+    private int buscarPosicion(K key) {
+        int hash = hash(key);
+        int mascara = indices.length - 1;
+        int slot = hash & mascara;
+        while (true) {
+            int posicion = indices[slot];
+            if (posicion == VACIO) {
+                return -1;
+            }
+            if (posicion != BORRADO && hashes[posicion] == hash && iguales(entradas[posicion].key, key)) {
+                return posicion;
+            }
+            slot = (slot + 1) & mascara;
+        }
+    }
+
+    /**
+     * Rebuilds the table once the entry array is full. Holes left by removals are compacted away,
+     * and the capacity doubles when more than half of the entry array holds live mappings.
+     */
+    private void rehash() {
+        Entry<K, V>[] entradasViejas = entradas;
+        int[] hashesViejos = hashes;
+        int totalViejo = siguiente;
+        int capacidad = indices.length;
+        if (tamanio * 2 >= entradas.length) {
+            capacidad *= 2;
+        }
+        inicializar(capacidad);
+        int mascara = capacidad - 1;
+        for (int i = 0; i < totalViejo; i++) {
+            if (entradasViejas[i] != null) {
+                int slot = hashesViejos[i] & mascara;
+                while (indices[slot] != VACIO) {
+                    slot = (slot + 1) & mascara;
+                }
+                indices[slot] = siguiente;
+                entradas[siguiente] = entradasViejas[i];
+                hashes[siguiente] = hashesViejos[i];
+                siguiente++;
+            }
+        }
+        tamanio = siguiente;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void inicializar(int capacidad) {
+        indices = new int[capacidad];
+        Arrays.fill(indices, VACIO);
+        // Keeps the slot table at most three quarters full, counting removed entries.
+        entradas = (Entry<K, V>[]) new Entry<?, ?>[capacidad - capacidad / 4];
+        hashes = new int[entradas.length];
+        siguiente = 0;
+        tamanio = 0;
+    }
+
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean iguales(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Object[] claves = new Object[tamanio];
+        Object[] valores = new Object[tamanio];
+        int j = 0;
+        for (int i = 0; i < siguiente; i++) {
+            if (entradas[i] != null) {
+                claves[j] = entradas[i].key;
+                valores[j] = entradas[i].value;
+                j++;
+            }
+        }
+        ObjectOutputStream.PutField campos = out.putFields();
+        campos.put("claves", claves);
+        campos.put("valores", valores);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField campos = in.readFields();
+        inicializar(CAPACIDAD_INICIAL);
+        Object[] claves = (Object[]) campos.get("claves", null);
+        Object[] valores = (Object[]) campos.get("valores", null);
+        if (claves != null) {
+            for (int i = 0; i < claves.length; i++) {
+                put((K) claves[i], (V) valores[i]);
+            }
+            return;
+        }
+        // Files written by the list-based map only carry the entries list.
+        MyLinkedList<Entry<K, V>> legado = (MyLinkedList<Entry<K, V>>) campos.get("entries", null);
+        if (legado != null) {
+            Iterator<Entry<K, V>> it = legado.iterator();
+            while (it.hasNext()) {
+                Entry<K, V> entry = it.next();
+                put(entry.key, entry.value);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,274 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Parses abstract files in the format of the anexo samples:
+ * <pre>
+ *   Title, on one or more lines
+ *   Autores
+ *   one author per line
+ *   Resumen
+ *   body, one or more lines
+ *   Palabras claves: keyword, keyword, ...
+ * </pre>
+ * Section headers are matched ignoring case and accents; blank lines are ignored except inside the body.
+ * <p>
+ * Files are decoded as UTF-8 in a single streaming pass through a fixed-size byte buffer and
+ * char buffer, which an instance reuses from one file to the next. Only the current line and
+ * the body are accumulated, and reading stops at the keywords line, so the full text of the
+ * file is never held in memory. Instances are not thread-safe; {@link #leer(Path)} keeps one per thread.
+ */
+public final class ParserResumen {
+    private static final int TITULO = 0;
+    private static final int AUTORES = 1;
+    private static final int CUERPO = 2;
+    private static final int TAMANIO_BUFFER = 8 * 1024;
+
+    private static final ThreadLocal<ParserResumen> POR_HILO = ThreadLocal.withInitial(ParserResumen::new);
+
+    private final CharsetDecoder decodificador = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(TAMANIO_BUFFER);
+    private final CharBuffer caracteres = CharBuffer.allocate(TAMANIO_BUFFER);
+    private final StringBuilder linea = new StringBuilder();
+    private final StringBuilder cuerpo = new StringBuilder();
+
+    // State of the file being parsed.
+    private String titulo;
+    private MyLinkedList<String> autores;
+    private String[] palabrasClave;
+    private int seccion;
+    private int lineasEnBlancoPendientes;
+    private boolean inicioArchivo;
+
+    /**
+     * Reads and parses an abstract file encoded in UTF-8, reusing the calling thread's parser.
+     *
+     * @param ruta The path of the file.
+     * @return The parsed summary.
+     * @throws IOException If the file cannot be read or does not follow the expected format.
+     */
+    public static Resumen leer(Path ruta) throws IOException {
+        return POR_HILO.get().parsearArchivo(ruta);
+    }
+
+    /**
+     * Parses the content of an abstract file.
+     *
+     * @param contenido The content of the file.
+     * @param rutaArchivo The path to record in the summary.
+     * @return The parsed summary.
+     * @throws IOException If the content does not follow the expected format.
+     */
+    public static Resumen parsear(String contenido, String rutaArchivo) throws IOException {
+        ParserResumen parser = POR_HILO.get();
+        parser.reiniciar();
+        parser.consumir(CharBuffer.wrap(contenido));
+        parser.terminarLinea();
+        return parser.construir(rutaArchivo);
+    }
+
+    /**
+     * Reads and parses an abstract file encoded in UTF-8.
+     *
+     * @param ruta The path of the file.
+     * @return The parsed summary.
+     * @throws IOException If the file cannot be read or does not follow the expected format.
+     */
+    public Resumen parsearArchivo(Path ruta) throws IOException {
+        reiniciar();
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            boolean fin = false;
+            while (!fin && palabrasClave == null) {
+                fin = canal.read(bytes) < 0;
+                bytes.flip();
+                CoderResult resultado;
+                do {
+                    resultado = decodificador.decode(bytes, caracteres, fin);
+                    vaciarCaracteres();
+                } while (resultado.isOverflow() && palabrasClave == null);
+                bytes.compact();
+            }
+            if (palabrasClave == null) {
+                decodificador.flush(caracteres);
+                vaciarCaracteres();
+                terminarLinea();
+            }
+        }
+        return construir(ruta.toString());
+    }
+
+    private void reiniciar() {
+        decodificador.reset();
+        bytes.clear();
+        caracteres.clear();
+        linea.setLength(0);
+        cuerpo.setLength(0);
+        titulo = null;
+        autores = new MyLinkedList<>();
+        palabrasClave = null;
+        seccion = TITULO;
+        lineasEnBlancoPendientes = 0;
+        inicioArchivo = true;
+    }
+
+    private void vaciarCaracteres() {
+        caracteres.flip();
+        consumir(caracteres);
+        caracteres.clear();
+    }
+
+    /**
+     * Splits decoded characters into lines. Stops as soon as the keywords line has been read.
+     */
+    private void consumir(CharBuffer entrada) {
+        while (entrada.hasRemaining() && palabrasClave == null) {
+            char c = entrada.get();
+            if (inicioArchivo) {
+                inicioArchivo = false;
+                if (c == '\uFEFF') {
+                    continue; // Byte order mark
+                }
+            }
+            if (c == '\n') {
+                terminarLinea();
+            } else if (c != '\r') {
+                linea.append(c);
+            }
+        }
+    }
+
+    /**
+     * Handles the line accumulated so far, trimmed, and clears it.
+     */
+    private void terminarLinea() {
+        if (palabrasClave != null) {
+            return;
+        }
+        int inicio = 0;
+        int fin = linea.length();
+        while (inicio < fin && Character.isWhitespace(linea.charAt(inicio))) {
+            inicio++;
+        }
+        while (fin > inicio && Character.isWhitespace(linea.charAt(fin - 1))) {
+            fin--;
+        }
+        if (esEncabezado(inicio, fin, "palabras clave", true)) {
+            palabrasClave = separarPalabrasClave(inicio, fin);
+        } else if (inicio == fin) {
+            if (seccion == CUERPO && cuerpo.length() > 0) {
+                lineasEnBlancoPendientes++;
+            }
+        } else if (seccion == TITULO) {
+            if (titulo == null) {
+                titulo = linea.substring(inicio, fin);
+            } else if (esEncabezado(inicio, fin, "autores", false)) {
+                seccion = AUTORES;
+            } else {
+                titulo = titulo + " " + linea.substring(inicio, fin); // Title split across several lines
+            }
+        } else if (seccion == AUTORES) {
+            if (esEncabezado(inicio, fin, "resumen", false)) {
+                seccion = CUERPO;
+            } else {
+                autores.add(linea.substring(inicio, fin));
+            }
+        } else {
+            // Blank lines inside the body are kept; leading and trailing ones are dropped.
+            if (cuerpo.length() > 0) {
+                cuerpo.append('\n');
+                for (; lineasEnBlancoPendientes > 0; lineasEnBlancoPendientes--) {
+                    cuerpo.append('\n');
+                }
+            }
+            cuerpo.append(linea, inicio, fin);
+        }
+        linea.setLength(0);
+    }
+
+    private Resumen construir(String rutaArchivo) throws IOException {
+        if (titulo == null || seccion != CUERPO || palabrasClave == null) {
+            throw new IOException("El archivo " + rutaArchivo + " no tiene el formato esperado (título, Autores, Resumen, Palabras claves).");
+        }
+        return new Resumen(titulo, aArreglo(autores), cuerpo.toString(), palabrasClave, rutaArchivo);
+    }
+
+    /**
+     * Tells whether the current line, between {@code inicio} and {@code fin}, is the header of the
+     * given section, ignoring case and accents: the name, optionally in plural ("Palabras claves"
+     * matches "palabras clave"), then nothing but a colon. With {@code conContenido} the colon
+     * may be followed by the section's content, as on the keywords line. A line that merely
+     * starts with the name, such as "Autores de la revisión...", is not a header.
+     */
+    private boolean esEncabezado(int inicio, int fin, String nombre, boolean conContenido) {
+        if (fin - inicio < nombre.length()) {
+            return false;
+        }
+        for (int i = 0; i < nombre.length(); i++) {
+            if (Tokenizador.normalizar(linea.charAt(inicio + i)) != nombre.charAt(i)) {
+                return false;
+            }
+        }
+        int i = inicio + nombre.length();
+        if (i < fin && (linea.charAt(i) == 's' || linea.charAt(i) == 'S')) {
+            i++;
+        }
+        while (i < fin && Character.isWhitespace(linea.charAt(i))) {
+            i++;
+        }
+        if (i == fin) {
+            return true;
+        }
+        return linea.charAt(i) == ':' && (conContenido || i + 1 == fin);
+    }
+
+    private String[] separarPalabrasClave(int inicio, int fin) {
+        int i = inicio;
+        while (i < fin && linea.charAt(i) != ':') {
+            i++;
+        }
+        MyLinkedList<String> palabras = new MyLinkedList<>();
+        int desde = i + 1;
+        for (int j = desde; j <= fin; j++) {
+            if (j == fin || linea.charAt(j) == ',') {
+                int a = desde;
+                int b = j;
+                while (a < b && Character.isWhitespace(linea.charAt(a))) {
+                    a++;
+                }
+                while (b > a && Character.isWhitespace(linea.charAt(b - 1))) {
+                    b--;
+                }
+                if (b > a && linea.charAt(b - 1) == '.') {
+                    b--;
+                    while (b > a && Character.isWhitespace(linea.charAt(b - 1))) {
+                        b--;
+                    }
+                }
+                if (a < b) {
+                    palabras.add(linea.substring(a, b));
+                }
+                desde = j + 1;
+            }
+        }
+        return aArreglo(palabras);
+    }
+
+    private static String[] aArreglo(MyLinkedList<String> lista) {
+        String[] arreglo = new String[lista.size()];
+        Iterator<String> it = lista.iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            arreglo[i] = it.next();
+        }
+        return arreglo;
+    }
+}
\ No newline at end of file
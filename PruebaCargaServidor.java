@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test of {@link ServidorBusqueda}: for each concurrency level, that many clients send
+ * searches back to back for a fixed time, and the throughput and the p50/p99 latencies seen by
+ * the clients are reported.
+ * <p>
+ * Without {@code --url} the server is started in this same JVM over the summaries of
+ * {@code --datos}, on a free loopback port. The searches are the request paths of the
+ * {@code --consultas} file, one per line, or else keyword, author and full-text searches made
+ * up from the suggestions of the loaded catalog.
+ * <pre>
+ *   java PruebaCargaServidor [--url http://127.0.0.1:8080] [--datos dir] [--consultas archivo]
+ *                            [--niveles 1,4,16,64,256] [--segundos 5]
+ * </pre>
+ */
+public class PruebaCargaServidor {
+
+    /** What one concurrency level measured. */
+    private static final class Nivel {
+        final Histograma latencias = new Histograma();
+        final LongAdder errores = new LongAdder();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        String directorio = "";
+        String archivoConsultas = null;
+        String niveles = "1,4,16,64,256";
+        int segundos = 5;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--url":
+                        url = args[++i];
+                        break;
+                    case "--datos":
+                        directorio = args[++i];
+                        break;
+                    case "--consultas":
+                        archivoConsultas = args[++i];
+                        break;
+                    case "--niveles":
+                        niveles = args[++i];
+                        break;
+                    case "--segundos":
+                        segundos = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Uso: java PruebaCargaServidor [--url <url>] [--datos <directorio>] [--consultas <archivo>]"
+                    + " [--niveles 1,4,16,...] [--segundos <n>]");
+            return;
+        }
+
+        ServidorBusqueda servidor = null;
+        String[] consultas;
+        if (url == null || archivoConsultas == null) {
+            Registro.setNivel(Registro.Nivel.ADVERTENCIA);
+            ResumenManager resumenManager = new ResumenManager(Paths.get(directorio));
+            consultas = archivoConsultas == null ? consultasDelCatalogo(resumenManager) : leerConsultas(archivoConsultas);
+            if (url == null) {
+                resumenManager.prepararIndiceTextoCompleto();
+                servidor = new ServidorBusqueda(resumenManager, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                servidor.iniciar();
+                url = "http://127.0.0.1:" + servidor.getPuerto();
+            }
+        } else {
+            consultas = leerConsultas(archivoConsultas);
+        }
+        if (consultas.length == 0) {
+            System.err.println("No hay consultas que enviar.");
+            return;
+        }
+        URI[] uris = new URI[consultas.length];
+        for (int i = 0; i < consultas.length; i++) {
+            uris[i] = URI.create(url + consultas[i]);
+        }
+
+        ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(ejecutor)
+                .build();
+        try {
+            System.out.println("Prueba de carga contra " + url + " con " + uris.length + " consultas distintas, "
+                    + segundos + " s por nivel.");
+            // Calentamiento: compilación JIT y conexiones abiertas antes de medir
+            correr(cliente, uris, 4, Math.min(2, segundos));
+            System.out.printf("%12s %14s %10s %10s %10s %8s%n", "concurrencia", "peticiones/s", "p50 ms", "p99 ms", "máx. ms", "errores");
+            for (String texto : niveles.split(",")) {
+                int concurrencia = Integer.parseInt(texto.trim());
+                long inicio = System.nanoTime();
+                Nivel nivel = correr(cliente, uris, concurrencia, segundos);
+                double duracion = (System.nanoTime() - inicio) / 1e9;
+                System.out.printf("%12d %14.0f %10.3f %10.3f %10.3f %8d%n", concurrencia, nivel.latencias.cantidad() / duracion,
+                        nivel.latencias.percentil(50) / 1e6, nivel.latencias.percentil(99) / 1e6,
+                        nivel.latencias.maximo() / 1e6, nivel.errores.sum());
+            }
+        } finally {
+            ejecutor.shutdownNow();
+            if (servidor != null) {
+                servidor.detener(0);
+            }
+        }
+    }
+
+    /**
+     * Has the given number of virtual threads send random searches back to back until the time is up.
+     */
+    private static Nivel correr(HttpClient cliente, URI[] uris, int concurrencia, int segundos) throws InterruptedException {
+        Nivel nivel = new Nivel();
+        long fin = System.nanoTime() + segundos * 1_000_000_000L;
+        Thread[] hilos = new Thread[concurrencia];
+        for (int i = 0; i < concurrencia; i++) {
+            hilos[i] = Thread.ofVirtual().name("carga-" + i).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < fin) {
+                    HttpRequest peticion = HttpRequest.newBuilder(uris[random.nextInt(uris.length)])
+                            .timeout(Duration.ofSeconds(30))
+                            .GET()
+                            .build();
+                    long inicio = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofByteArray());
+                        nivel.latencias.registrarDesde(inicio);
+                        if (respuesta.statusCode() != 200) {
+                            nivel.errores.increment();
+                        }
+                    } catch (IOException e) {
+                        nivel.errores.increment();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        return nivel;
+    }
+
+    private static String[] leerConsultas(String archivo) throws IOException {
+        return Files.readAllLines(Paths.get(archivo), StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(linea -> !linea.isEmpty() && !linea.startsWith("#"))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Makes up a mix of keyword, author and full-text searches from the most used keywords and
+     * the most prolific authors of each initial.
+     */
+    private static String[] consultasDelCatalogo(ResumenManager resumenManager) {
+        BusquedaResumen busqueda = resumenManager.getBusquedaResumen();
+        MyLinkedList<String> consultas = new MyLinkedList<>();
+        for (char inicial = 'a'; inicial <= 'z'; inicial++) {
+            Iterator<Sugerencia> palabras = busqueda.sugerirPalabrasClave(String.valueOf(inicial), 3).iterator();
+            while (palabras.hasNext()) {
+                String palabra = palabras.next().getTermino();
+                consultas.add("/buscar/palabra?q=" + URLEncoder.encode(palabra, StandardCharsets.UTF_8));
+                consultas.add("/buscar/texto?q=" + URLEncoder.encode(palabra, StandardCharsets.UTF_8) + "&max=10");
+            }
+            Iterator<Sugerencia> autores = busqueda.sugerirAutores(String.valueOf(inicial), 3).iterator();
+            while (autores.hasNext()) {
+                consultas.add("/buscar/autor?q=" + URLEncoder.encode(autores.next().getTermino(), StandardCharsets.UTF_8));
+            }
+        }
+        String[] todas = new String[consultas.size()];
+        Iterator<String> it = consultas.iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            todas[i] = it.next();
+        }
+        return todas;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,372 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Stress test of the concurrent collections and indexes. Writer threads add while reader
+ * threads look up and iterate, checking on every read that they never see a half-made state;
+ * once the writers are done, the final contents are compared with what was added.
+ * <p>
+ * Three scenarios run in turn: {@link MyConcurrentMap} with puts and removes, {@link BusquedaResumen}
+ * with batches of investigations, and {@link ResumenManager} with overlapping batches and
+ * checkpoints, reloaded from disk at the end. The first failed check stops the run with an exception.
+ * <pre>
+ *   java PruebaEstresConcurrencia [hilos] [documentos]
+ * </pre>
+ */
+public class PruebaEstresConcurrencia {
+
+    /** Work of one thread, given its number. */
+    private interface Tarea {
+        void ejecutar(int hilo) throws Exception;
+    }
+
+    private static final AtomicReference<Throwable> primerError = new AtomicReference<>();
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        int documentos = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        System.out.println("Prueba de estrés con " + hilos + " escritores, " + hilos + " lectores y " + documentos + " documentos.");
+
+        long inicio = System.nanoTime();
+        probarMapa(hilos, documentos);
+        System.out.printf("MyConcurrentMap: correcto (%.2f s)%n", (System.nanoTime() - inicio) / 1e9);
+
+        inicio = System.nanoTime();
+        probarBusqueda(hilos, documentos);
+        System.out.printf("BusquedaResumen: correcto (%.2f s)%n", (System.nanoTime() - inicio) / 1e9);
+
+        inicio = System.nanoTime();
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            probarResumenManager(hilos, Math.min(documentos, 5_000));
+        } finally {
+            System.setOut(consola);
+        }
+        System.out.printf("ResumenManager: correcto (%.2f s)%n", (System.nanoTime() - inicio) / 1e9);
+    }
+
+    // ------------------------------------------------------------------ MyConcurrentMap
+
+    /**
+     * Each writer puts its own keys "hilo:i" mapped to i, then removes every tenth one. Readers
+     * check that a key maps to nothing or to its own number, and that iteration returns each
+     * writer's keys in the order they were put.
+     */
+    private static void probarMapa(int hilos, int documentos) throws Exception {
+        MyConcurrentMap<String, Integer> mapa = new MyConcurrentMap<>();
+        int porHilo = Math.max(1, documentos / hilos);
+        AtomicInteger activos = new AtomicInteger(hilos);
+        correr(hilos, hilo -> {
+            try {
+                for (int i = 0; i < porHilo; i++) {
+                    mapa.put(hilo + ":" + i, i);
+                    if (mapa.putIfAbsent(hilo + ":" + i, -1) != i) {
+                        throw new IllegalStateException("putIfAbsent reemplazó un valor existente");
+                    }
+                }
+                for (int i = 0; i < porHilo; i += 10) {
+                    if (mapa.remove(hilo + ":" + i) != i) {
+                        throw new IllegalStateException("remove no devolvió el valor de " + hilo + ":" + i);
+                    }
+                }
+            } finally {
+                activos.decrementAndGet();
+            }
+        }, hilos, hilo -> {
+            Random random = new Random(hilo);
+            while (activos.get() > 0) {
+                for (int j = 0; j < 1000; j++) {
+                    int i = random.nextInt(porHilo);
+                    Integer valor = mapa.get(random.nextInt(hilos) + ":" + i);
+                    verificar(valor == null || valor == i, "valor ajeno a su clave: " + valor + " para " + i);
+                }
+                int[] ultimos = new int[hilos];
+                Arrays.fill(ultimos, -1);
+                Iterator<MyMap.Entry<String, Integer>> it = mapa.entryList().iterator();
+                while (it.hasNext()) {
+                    MyMap.Entry<String, Integer> entrada = it.next();
+                    int escritor = Integer.parseInt(entrada.getKey().substring(0, entrada.getKey().indexOf(':')));
+                    verificar(entrada.getValue() > ultimos[escritor], "iteración fuera del orden de inserción");
+                    ultimos[escritor] = entrada.getValue();
+                }
+            }
+        });
+
+        int esperados = hilos * (porHilo - (porHilo + 9) / 10);
+        verificar(mapa.size() == esperados, "size() " + mapa.size() + " en lugar de " + esperados);
+        verificar(mapa.values().size() == esperados, "values() con " + mapa.values().size() + " valores");
+        for (int hilo = 0; hilo < hilos; hilo++) {
+            for (int i = 0; i < porHilo; i++) {
+                Integer valor = mapa.get(hilo + ":" + i);
+                verificar(i % 10 == 0 ? valor == null : valor != null && valor == i, "clave perdida o no borrada: " + hilo + ":" + i);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------ BusquedaResumen
+
+    /**
+     * Writers index disjoint slices of a corpus in batches. Readers check that a keyword search
+     * only returns summaries having the keyword, each once, and exercise completions and fuzzy
+     * author search. At the end every posting list must hold exactly the summaries using the term,
+     * and the completion counts must match.
+     */
+    private static void probarBusqueda(int hilos, int documentos) throws Exception {
+        Resumen[] corpus = corpus(documentos, new Random(42));
+        BusquedaResumen busqueda = new BusquedaResumen();
+        AtomicInteger activos = new AtomicInteger(hilos);
+        correr(hilos, hilo -> {
+            try {
+                MyLinkedList<Investigacion> lote = new MyLinkedList<>();
+                for (int i = hilo; i < corpus.length; i += hilos) {
+                    lote.add(new Investigacion(corpus[i]));
+                    if (lote.size() == 64) {
+                        busqueda.agregarInvestigaciones(lote);
+                        lote = new MyLinkedList<>();
+                    }
+                }
+                busqueda.agregarInvestigaciones(lote);
+            } finally {
+                activos.decrementAndGet();
+            }
+        }, hilos, hilo -> {
+            Random random = new Random(hilo);
+            while (activos.get() > 0) {
+                Resumen resumen = corpus[random.nextInt(corpus.length)];
+                String palabraClave = resumen.getPalabrasClave()[random.nextInt(resumen.getPalabrasClave().length)];
+                MyLinkedList<Investigacion> resultados = busqueda.buscarPorPalabraClave(palabraClave);
+                MyMap<Investigacion, Boolean> vistas = new MyMap<>();
+                Iterator<Investigacion> it = resultados.iterator();
+                while (it.hasNext()) {
+                    Investigacion investigacion = it.next();
+                    verificar(!vistas.containsKey(investigacion), "investigación repetida en " + palabraClave);
+                    vistas.put(investigacion, Boolean.TRUE);
+                    verificar(contiene(investigacion.getResumen().getPalabrasClave(), palabraClave),
+                            "resultado sin la palabra clave " + palabraClave);
+                }
+                String autor = resumen.getAutores()[0];
+                busqueda.sugerirAutores(autor.substring(0, 3), 5);
+                busqueda.buscarAutoresSimilares(autor, 3);
+            }
+        });
+
+        MyMap<String, int[]> porPalabraClave = new MyMap<>();
+        MyMap<String, int[]> porAutor = new MyMap<>();
+        for (Resumen resumen : corpus) {
+            contarDistintos(porPalabraClave, resumen.getPalabrasClave());
+            contarDistintos(porAutor, resumen.getAutores());
+        }
+        Iterator<MyMap.Entry<String, int[]>> it = porPalabraClave.entryList().iterator();
+        while (it.hasNext()) {
+            MyMap.Entry<String, int[]> entrada = it.next();
+            int encontrados = busqueda.buscarPorPalabraClave(entrada.getKey()).size();
+            verificar(encontrados == entrada.getValue()[0],
+                    entrada.getKey() + ": " + encontrados + " investigaciones en lugar de " + entrada.getValue()[0]);
+            int sugerida = -1;
+            Iterator<Sugerencia> sugerencias = busqueda.sugerirPalabrasClave(entrada.getKey(), porPalabraClave.size()).iterator();
+            while (sugerencias.hasNext()) {
+                Sugerencia sugerencia = sugerencias.next();
+                if (sugerencia.getTermino().equals(entrada.getKey())) {
+                    sugerida = sugerencia.getCantidad();
+                }
+            }
+            verificar(sugerida == entrada.getValue()[0],
+                    "sugerencia de " + entrada.getKey() + " con " + sugerida + " investigaciones en lugar de " + entrada.getValue()[0]);
+        }
+        it = porAutor.entryList().iterator();
+        while (it.hasNext()) {
+            MyMap.Entry<String, int[]> entrada = it.next();
+            int encontrados = busqueda.buscarPorAutor(entrada.getKey()).size();
+            verificar(encontrados == entrada.getValue()[0],
+                    entrada.getKey() + ": " + encontrados + " investigaciones en lugar de " + entrada.getValue()[0]);
+            verificar(busqueda.buscarAutoresSimilares(entrada.getKey(), 1).size() == 1,
+                    "autor ausente del índice aproximado: " + entrada.getKey());
+        }
+    }
+
+    // ------------------------------------------------------------------ ResumenManager
+
+    /**
+     * Writers add overlapping batches, so the same title is offered by several threads at once,
+     * while readers search and list titles and one thread takes checkpoints. Every title must be
+     * kept exactly once, in memory and after reloading the data directory.
+     */
+    private static void probarResumenManager(int hilos, int documentos) throws Exception {
+        Resumen[] corpus = corpus(documentos, new Random(7));
+        Path directorio = Files.createTempDirectory("metromendeley-estres");
+        try {
+            ResumenManager manager = new ResumenManager(directorio);
+            AtomicInteger activos = new AtomicInteger(hilos);
+            AtomicInteger agregados = new AtomicInteger();
+            correr(hilos, hilo -> {
+                try {
+                    // Every writer offers its own slice plus every fifth summary of the corpus.
+                    MyLinkedList<Resumen> lote = new MyLinkedList<>();
+                    for (int i = 0; i < corpus.length; i++) {
+                        if (i % hilos == hilo || i % 5 == 0) {
+                            lote.add(copia(corpus[i]));
+                        }
+                        if (lote.size() == 32) {
+                            agregados.addAndGet(manager.agregarResumenes(lote));
+                            lote = new MyLinkedList<>();
+                        }
+                    }
+                    agregados.addAndGet(manager.agregarResumenes(lote));
+                } finally {
+                    activos.decrementAndGet();
+                }
+            }, hilos, hilo -> {
+                Random random = new Random(hilo);
+                int vueltas = 0;
+                while (activos.get() > 0) {
+                    if (hilo == 0 && vueltas++ % 50 == 0) {
+                        manager.guardarResumenesComoJson();
+                        continue;
+                    }
+                    Resumen resumen = corpus[random.nextInt(corpus.length)];
+                    MyLinkedList<Investigacion> resultados = manager.getBusquedaResumen().buscarPorAutor(resumen.getAutores()[0]);
+                    Iterator<Investigacion> it = resultados.iterator();
+                    while (it.hasNext()) {
+                        verificar(contieneRecortado(it.next().getResumen().getAutores(), resumen.getAutores()[0]),
+                                "resultado sin el autor " + resumen.getAutores()[0]);
+                    }
+                    manager.listarTitulosResumenes();
+                }
+            });
+
+            verificar(agregados.get() == corpus.length, agregados.get() + " resúmenes agregados en lugar de " + corpus.length);
+            verificar(manager.listarTitulosResumenes().length == corpus.length, "títulos perdidos o repetidos en memoria");
+            ResumenManager recargado = new ResumenManager(directorio);
+            String[] titulos = recargado.listarTitulosResumenes();
+            verificar(titulos.length == corpus.length, titulos.length + " resúmenes recargados en lugar de " + corpus.length);
+            MyMap<String, Boolean> presentes = new MyMap<>();
+            for (String titulo : titulos) {
+                presentes.put(titulo, Boolean.TRUE);
+            }
+            for (Resumen resumen : corpus) {
+                verificar(presentes.containsKey(resumen.getTitulo()), "resumen perdido al recargar: " + resumen.getTitulo());
+            }
+        } finally {
+            try (Stream<Path> rutas = Files.walk(directorio)) {
+                for (Path ruta : rutas.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                    Files.delete(ruta);
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------ helpers
+
+    /**
+     * Runs the writers and the readers together and waits for all of them. Readers are expected
+     * to stop by themselves once the writers are done.
+     */
+    private static void correr(int escritores, Tarea escritura, int lectores, Tarea lectura) throws Exception {
+        Thread[] hilos = new Thread[escritores + lectores];
+        for (int i = 0; i < hilos.length; i++) {
+            int numero = i < escritores ? i : i - escritores;
+            Tarea tarea = i < escritores ? escritura : lectura;
+            hilos[i] = new Thread(() -> {
+                try {
+                    tarea.ejecutar(numero);
+                } catch (Throwable e) {
+                    primerError.compareAndSet(null, e);
+                }
+            }, (i < escritores ? "escritor-" : "lector-") + numero);
+        }
+        for (Thread hilo : hilos) {
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        Throwable error = primerError.getAndSet(null);
+        if (error instanceof Exception) {
+            throw (Exception) error;
+        }
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    private static void verificar(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new IllegalStateException(mensaje);
+        }
+    }
+
+    private static boolean contiene(String[] terminos, String buscado) {
+        for (String termino : terminos) {
+            if (termino.equalsIgnoreCase(buscado)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contieneRecortado(String[] terminos, String buscado) {
+        for (String termino : terminos) {
+            if (termino.trim().equalsIgnoreCase(buscado.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void contarDistintos(MyMap<String, int[]> cuentas, String[] terminos) {
+        MyMap<String, Boolean> vistos = new MyMap<>();
+        for (String termino : terminos) {
+            String clave = termino.trim().toLowerCase();
+            if (vistos.containsKey(clave)) {
+                continue;
+            }
+            vistos.put(clave, Boolean.TRUE);
+            int[] cuenta = cuentas.get(clave);
+            if (cuenta == null) {
+                cuentas.put(clave, new int[] {1});
+            } else {
+                cuenta[0]++;
+            }
+        }
+    }
+
+    private static Resumen copia(Resumen resumen) {
+        return new Resumen(resumen.getTitulo(), resumen.getAutores(), resumen.getCuerpo(), resumen.getPalabrasClave(),
+                resumen.getRutaArchivo());
+    }
+
+    /**
+     * Builds summaries with distinct titles sharing authors and keywords drawn from small pools,
+     * so posting lists are long and written by many threads.
+     */
+    private static Resumen[] corpus(int documentos, Random random) {
+        String[] autores = new String[Math.max(1, documentos / 20)];
+        for (int i = 0; i < autores.length; i++) {
+            autores[i] = "Investigadora " + i + " Guillén";
+        }
+        String[] palabrasClave = new String[Math.max(1, documentos / 50)];
+        for (int i = 0; i < palabrasClave.length; i++) {
+            palabrasClave[i] = "tema" + i;
+        }
+        Resumen[] resumenes = new Resumen[documentos];
+        for (int i = 0; i < documentos; i++) {
+            resumenes[i] = new Resumen("Estudio " + i,
+                    new String[] {autores[random.nextInt(autores.length)], autores[random.nextInt(autores.length)]},
+                    "Cuerpo del estudio " + i + ".",
+                    new String[] {palabrasClave[random.nextInt(palabrasClave.length)],
+                        palabrasClave[random.nextInt(palabrasClave.length)]},
+                    "");
+        }
+        return resumenes;
+    }
+}
\ No newline at end of file
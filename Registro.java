@@ -0,0 +1,214 @@
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Leveled, asynchronous log of MetroMendeley.
+ * <p>
+ * Callers only enqueue their message; a daemon thread formats it and writes it, INFO and below to
+ * standard output, unless {@link #setSalidaInformativa(PrintStream)} says otherwise, and warnings
+ * and errors to standard error. If the queue is full the message is
+ * dropped and counted in the {@code registro.descartados} metric rather than blocking the caller.
+ * Messages still queued when the JVM exits are written by a shutdown hook.
+ * <p>
+ * The minimum level is read from the {@code metromendeley.registro} system property
+ * ({@code DEPURACION}, {@code INFO}, {@code ADVERTENCIA} or {@code ERROR}) and defaults to INFO.
+ * Callers building an expensive debug message should check {@link #habilitado(Nivel)} first.
+ */
+public final class Registro {
+    /** Severity of a message, from least to most severe. */
+    public enum Nivel { DEPURACION, INFO, ADVERTENCIA, ERROR }
+
+    private static final int CAPACIDAD = 8192;
+
+    private static volatile Nivel nivelMinimo = leerNivel(System.getProperty("metromendeley.registro"));
+    private static volatile PrintStream salidaInformativa = System.out;
+    private static final BlockingQueue<Mensaje> cola = new ArrayBlockingQueue<>(CAPACIDAD);
+    /** Messages accepted and not yet written. The writer notifies {@code cola} when it drops. */
+    private static final AtomicLong pendientes = new AtomicLong();
+
+    private static final class Mensaje {
+        final Nivel nivel;
+        final long instante = System.currentTimeMillis();
+        final String hilo = Thread.currentThread().getName();
+        final String texto;
+        final Throwable error;
+
+        Mensaje(Nivel nivel, String texto, Throwable error) {
+            this.nivel = nivel;
+            this.texto = texto;
+            this.error = error;
+        }
+    }
+
+    static {
+        Thread escritor = new Thread(Registro::escribir, "registro");
+        escritor.setDaemon(true);
+        escritor.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> vaciar(1000), "registro-cierre"));
+    }
+
+    private Registro() {
+    }
+
+    /**
+     * Returns whether messages of the given level are written.
+     *
+     * @param nivel The level.
+     * @return {@code true} if the level is at or above the minimum level.
+     */
+    public static boolean habilitado(Nivel nivel) {
+        return nivel.compareTo(nivelMinimo) >= 0;
+    }
+
+    /**
+     * Changes the minimum level of the messages that are written.
+     *
+     * @param nivel The new minimum level.
+     */
+    public static void setNivel(Nivel nivel) {
+        nivelMinimo = nivel;
+    }
+
+    /**
+     * Changes where messages below ADVERTENCIA are written, so that a tool writing its results to
+     * standard output can keep it free of log lines.
+     *
+     * @param salida The new destination, standard output by default.
+     */
+    public static void setSalidaInformativa(PrintStream salida) {
+        salidaInformativa = salida;
+    }
+
+    /**
+     * Logs a debug message.
+     *
+     * @param texto The message.
+     */
+    public static void depuracion(String texto) {
+        registrar(Nivel.DEPURACION, texto, null);
+    }
+
+    /**
+     * Logs an informational message.
+     *
+     * @param texto The message.
+     */
+    public static void info(String texto) {
+        registrar(Nivel.INFO, texto, null);
+    }
+
+    /**
+     * Logs a warning.
+     *
+     * @param texto The message.
+     * @param error The cause, or {@code null}.
+     */
+    public static void advertencia(String texto, Throwable error) {
+        registrar(Nivel.ADVERTENCIA, texto, error);
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param texto The message.
+     * @param error The cause, or {@code null}.
+     */
+    public static void error(String texto, Throwable error) {
+        registrar(Nivel.ERROR, texto, error);
+    }
+
+    /**
+     * Logs a message at the given level, unless the level is disabled. Never blocks.
+     *
+     * @param nivel The level.
+     * @param texto The message.
+     * @param error The cause, or {@code null}.
+     */
+    public static void registrar(Nivel nivel, String texto, Throwable error) {
+        if (!habilitado(nivel)) {
+            return;
+        }
+        pendientes.incrementAndGet();
+        if (!cola.offer(new Mensaje(nivel, texto, error))) {
+            pendientes.decrementAndGet();
+            Metricas.global().contador("registro.descartados").increment();
+        }
+    }
+
+    /**
+     * Waits until every message logged so far has been written.
+     *
+     * @param milisegundos The longest time to wait.
+     * @return {@code true} if everything was written in time.
+     */
+    public static boolean vaciar(long milisegundos) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(milisegundos);
+        synchronized (cola) {
+            while (pendientes.get() > 0) {
+                long restante = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+                if (restante <= 0) {
+                    return false;
+                }
+                try {
+                    cola.wait(restante);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void escribir() {
+        MyLinkedList<Mensaje> lote = new MyLinkedList<>();
+        while (true) {
+            try {
+                lote.add(cola.take());
+                Mensaje siguiente;
+                while ((siguiente = cola.poll()) != null) {
+                    lote.add(siguiente);
+                }
+                PrintStream informativa = salidaInformativa;
+                Iterator<Mensaje> it = lote.iterator();
+                while (it.hasNext()) {
+                    Mensaje mensaje = it.next();
+                    PrintStream salida = mensaje.nivel.compareTo(Nivel.ADVERTENCIA) >= 0 ? System.err : informativa;
+                    salida.println(Instant.ofEpochMilli(mensaje.instante) + " " + mensaje.nivel
+                            + " [" + mensaje.hilo + "] " + mensaje.texto);
+                    if (mensaje.error != null) {
+                        mensaje.error.printStackTrace(salida);
+                    }
+                }
+                informativa.flush();
+                System.err.flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Un mensaje que no se puede escribir no debe detener el registro
+                e.printStackTrace();
+            } finally {
+                pendientes.addAndGet(-lote.size());
+                lote = new MyLinkedList<>();
+                synchronized (cola) {
+                    cola.notifyAll();
+                }
+            }
+        }
+    }
+
+    private static Nivel leerNivel(String nombre) {
+        if (nombre != null) {
+            for (Nivel nivel : Nivel.values()) {
+                if (nivel.name().equalsIgnoreCase(nombre.trim())) {
+                    return nivel;
+                }
+            }
+        }
+        return Nivel.INFO;
+    }
+}
\ No newline at end of file
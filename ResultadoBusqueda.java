@@ -0,0 +1,41 @@
+/**
+ * A summary returned by a ranked search, together with its relevance score.
+ */
+public class ResultadoBusqueda {
+    private final Resumen resumen;
+    private final double puntuacion;
+
+    /**
+     * Constructs a search result.
+     *
+     * @param resumen The matching summary.
+     * @param puntuacion The relevance score of the summary for the query. Higher is better.
+     */
+    public ResultadoBusqueda(Resumen resumen, double puntuacion) {
+        this.resumen = resumen;
+        this.puntuacion = puntuacion;
+    }
+
+    /**
+     * Returns the matching summary.
+     *
+     * @return The summary.
+     */
+    public Resumen getResumen() {
+        return resumen;
+    }
+
+    /**
+     * Returns the relevance score of the summary.
+     *
+     * @return The score.
+     */
+    public double getPuntuacion() {
+        return puntuacion;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.3f  %s", puntuacion, resumen.getTitulo());
+    }
+}
\ No newline at end of file
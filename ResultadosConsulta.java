@@ -0,0 +1,67 @@
+/**
+ * Investigations found by a search, as a sorted set of document ids resolved through the
+ * documents of the index that answered it. Nothing is copied: investigations are looked up when
+ * asked for, in constant time. The ids may be compressed and are decoded a block at a time, so
+ * an instance must not be read by several threads at once.
+ */
+public class ResultadosConsulta implements Iterable<Investigacion> {
+    private final ListaPostings.Instantanea ids;
+    private final MyConcurrentList.Instantanea<Investigacion> documentos;
+
+    ResultadosConsulta(ListaPostings.Instantanea ids, MyConcurrentList.Instantanea<Investigacion> documentos) {
+        this.ids = ids;
+        this.documentos = documentos;
+    }
+
+    /**
+     * Returns the investigation at the given position, in document id order.
+     *
+     * @param index The position, below {@link #size()}.
+     * @return The investigation.
+     */
+    public Investigacion get(int index) {
+        return documentos.get(ids.get(index));
+    }
+
+    /**
+     * Returns the number of investigations found.
+     *
+     * @return The number of results.
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Copies the investigations into a new linked list.
+     *
+     * @return A list that is not backed by these results.
+     */
+    public MyLinkedList<Investigacion> toLinkedList() {
+        MyLinkedList<Investigacion> lista = new MyLinkedList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            lista.add(get(i));
+        }
+        return lista;
+    }
+
+    @Override
+    public Iterator<Investigacion> iterator() {
+        return new Iterator<Investigacion>() {
+            private int posicion;
+
+            @Override
+            public boolean hasNext() {
+                return posicion < ids.size();
+            }
+
+            @Override
+            public Investigacion next() {
+                if (!hasNext()) {
+                    throw new RuntimeException("No hay más elementos");
+                }
+                return get(posicion++);
+            }
+        };
+    }
+}
\ No newline at end of file
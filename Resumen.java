@@ -1,5 +1,4 @@
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.io.Serializable;
 
@@ -8,32 +7,47 @@ import java.io.Serializable;
  * It can be constructed either by reading from a file or by directly providing the details.
  */
 public class Resumen implements Serializable {
+    /** Value computed for the original class, so snapshots written with Java serialization keep loading. */
+    private static final long serialVersionUID = -1519803698680008114L;
+
     String titulo;
     String[] autores;
     String cuerpo;
     String[] palabrasClave;
     String rutaArchivo;
+    /** Storage holding the body when {@link #cuerpo} has not been loaded, or {@code null}. */
+    transient FuenteCuerpo fuenteCuerpo;
+    /** Position of this summary in {@link #fuenteCuerpo}. */
+    transient int indiceCuerpo;
+    /**
+     * Dictionary holding the authors and keywords once they are encoded, or {@code null} while
+     * they are still held in {@link #autores} and {@link #palabrasClave}.
+     */
+    transient DiccionarioTerminos diccionario;
+    transient int[] idsAutores;
+    transient int[] idsPalabrasClave;
+    /**
+     * Document ID assigned by {@link ResumenManager} when the summary is added, or -1. IDs are
+     * dense, and a summary keeps its ID while the manager holds it: it is the position of the
+     * summary in the saved catalog.
+     */
+    transient int id = -1;
 
     /**
      * Constructs a Resumen object by reading the details from a specified file.
-     * The file is expected to have at least four lines: title, authors (comma-separated), body, and keywords (comma-separated).
+     * The file is expected to follow the format of the anexo samples, as read by {@link ParserResumen}:
+     * the title, an "Autores" section, a "Resumen" section and a "Palabras claves:" line.
      * 
      * @param archivoRuta The path to the file from which to read the Resumen details.
-     * @throws IOException If an I/O error occurs reading from the file or the file does not have enough lines.
+     * @throws IOException If an I/O error occurs reading from the file or the file does not follow the format.
      */
     public Resumen(String archivoRuta) throws IOException {
+        Resumen leido = ParserResumen.leer(Paths.get(archivoRuta));
+        this.titulo = leido.titulo;
+        this.autores = leido.autores;
+        this.cuerpo = leido.cuerpo;
+        this.palabrasClave = leido.palabrasClave;
         this.rutaArchivo = archivoRuta;
-        String contenido = new String(Files.readAllBytes(Paths.get(archivoRuta)));
-        String[] lineas = contenido.split("\n");
-        if (lineas.length >= 4) { // Ensure the file has at least 4 lines
-            this.titulo = lineas[0];
-            this.autores = lineas[1].split(",");
-            // Store the entire file content in cuerpo
-            this.cuerpo = contenido;
-            this.palabrasClave = lineas[3].split(",");
-        } else {
-            throw new IOException("El archivo no tiene suficientes líneas.");
-        }
     }
 
     /**
@@ -53,6 +67,68 @@ public class Resumen implements Serializable {
         this.rutaArchivo = rutaArchivo;
     }
 
+    /**
+     * Constructs a Resumen whose body stays in the given storage and is decoded on each call to {@link #getCuerpo()}.
+     *
+     * @param titulo The title of the summary.
+     * @param autores An array of authors of the summary.
+     * @param palabrasClave An array of keywords associated with the summary.
+     * @param rutaArchivo The file path where the summary is stored or associated with.
+     * @param fuenteCuerpo The storage holding the body.
+     * @param indiceCuerpo The position of the summary in that storage.
+     */
+    Resumen(String titulo, String[] autores, String[] palabrasClave, String rutaArchivo, FuenteCuerpo fuenteCuerpo, int indiceCuerpo) {
+        this.titulo = titulo;
+        this.autores = autores;
+        this.palabrasClave = palabrasClave;
+        this.rutaArchivo = rutaArchivo;
+        this.fuenteCuerpo = fuenteCuerpo;
+        this.indiceCuerpo = indiceCuerpo;
+    }
+
+    /**
+     * Constructs a Resumen whose authors and keywords are ids in a dictionary and whose body
+     * stays in the given storage, as read from a catalog.
+     *
+     * @param titulo The title of the summary.
+     * @param idsAutores The ids of the authors, or {@code null}.
+     * @param idsPalabrasClave The ids of the keywords, or {@code null}.
+     * @param diccionario The dictionary the ids refer to.
+     * @param rutaArchivo The file path where the summary is stored or associated with.
+     * @param fuenteCuerpo The storage holding the body.
+     * @param indiceCuerpo The position of the summary in that storage.
+     */
+    Resumen(String titulo, int[] idsAutores, int[] idsPalabrasClave, DiccionarioTerminos diccionario,
+            String rutaArchivo, FuenteCuerpo fuenteCuerpo, int indiceCuerpo) {
+        this.titulo = titulo;
+        this.idsAutores = idsAutores;
+        this.idsPalabrasClave = idsPalabrasClave;
+        this.diccionario = diccionario;
+        this.rutaArchivo = rutaArchivo;
+        this.fuenteCuerpo = fuenteCuerpo;
+        this.indiceCuerpo = indiceCuerpo;
+    }
+
+    /**
+     * Replaces the author and keyword strings with their ids in the given dictionary, so equal
+     * terms of different summaries share one string. Does nothing if the summary is already
+     * encoded with that dictionary.
+     *
+     * @param diccionario The dictionary to encode with.
+     */
+    void codificarTerminos(DiccionarioTerminos diccionario) {
+        if (this.diccionario == diccionario) {
+            return;
+        }
+        String[] autoresActuales = getAutores();
+        String[] palabrasClaveActuales = getPalabrasClave();
+        this.idsAutores = diccionario.codificar(autoresActuales);
+        this.idsPalabrasClave = diccionario.codificar(palabrasClaveActuales);
+        this.autores = null;
+        this.palabrasClave = null;
+        this.diccionario = diccionario;
+    }
+
     /**
      * Returns the title of the summary.
      * 
@@ -63,29 +139,38 @@ public class Resumen implements Serializable {
     }
 
     /**
-     * Returns the authors of the summary.
+     * Returns the authors of the summary. Encoded summaries return a new array on every call.
      * 
      * @return An array of authors.
      */
     public String[] getAutores() {
+        if (diccionario != null) {
+            return diccionario.decodificar(idsAutores);
+        }
         return autores;
     }
 
     /**
-     * Returns the body of the summary.
+     * Returns the body of the summary. Bodies kept in a catalog are decoded on every call and not cached.
      * 
      * @return The body of the summary.
      */
     public String getCuerpo() {
+        if (cuerpo == null && fuenteCuerpo != null) {
+            return fuenteCuerpo.leerCuerpo(indiceCuerpo);
+        }
         return cuerpo;
     }
 
     /**
-     * Returns the keywords associated with the summary.
+     * Returns the keywords associated with the summary. Encoded summaries return a new array on every call.
      * 
      * @return An array of keywords.
      */
     public String[] getPalabrasClave() {
+        if (diccionario != null) {
+            return diccionario.decodificar(idsPalabrasClave);
+        }
         return palabrasClave;
     }
 
@@ -97,4 +182,24 @@ public class Resumen implements Serializable {
     public String getRutaArchivo() {
         return rutaArchivo;
     }
+
+    /**
+     * Returns the document ID of the summary.
+     *
+     * @return The ID assigned when the summary was added to a {@link ResumenManager}, or -1.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Serializes a copy with the body and the terms loaded, since the storage and the dictionary
+     * they may come from are not serializable.
+     */
+    private Object writeReplace() {
+        if ((cuerpo == null && fuenteCuerpo != null) || diccionario != null) {
+            return new Resumen(titulo, getAutores(), getCuerpo(), getPalabrasClave(), rutaArchivo);
+        }
+        return this;
+    }
 }
\ No newline at end of file
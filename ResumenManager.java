@@ -1,22 +1,114 @@
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.io.FileOutputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.StandardCopyOption;
+import java.io.DataInputStream;
 import java.io.File;
-import java.io.IOException;
 import java.io.FileInputStream; 
 import java.io.ObjectInputStream;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Manages summaries (Resumenes) including their storage, retrieval, and analysis.
+ * <p>
+ * Summaries may be added from several threads while others search. Lookups by title, keyword
+ * and author never block. Adding takes the read side of a lock whose write side is held by
+ * {@link #guardarResumenesComoJson()} and {@link #cargarResumenesDesdeJson()}, so a checkpoint
+ * or a reload waits for additions in progress instead of losing them. Full-text searches never
+ * block either: they read the last published state of the full-text index.
  */
-public class ResumenManager {
+public final class ResumenManager {
+    /**
+     * Snapshot holding every summary as of the last checkpoint or compaction. Each one is written
+     * as a new generation, resumenes.dat.1, resumenes.dat.2 and so on, and the highest is loaded;
+     * a plain resumenes.dat, written before generations were used, counts as generation 0.
+     */
+    private static final String ARCHIVO_SNAPSHOT = "resumenes.dat";
+    /** Journal holding the summaries added after the snapshot was written. */
+    private static final String ARCHIVO_DIARIO = "resumenes.journal";
+    /** Keyword and author indexes of the summaries in the snapshot. */
+    private static final String ARCHIVO_INDICE_BUSQUEDA = "resumenes.idx";
+    /** Journal size above which it is folded into a new snapshot in the background. */
+    private static final long UMBRAL_COMPACTACION = 8L * 1024 * 1024;
+
+    private static final Histograma LATENCIA_AGREGAR = Metricas.global().histograma("resumenes.agregarResumen");
+    private static final Histograma LATENCIA_AGREGAR_LOTE = Metricas.global().histograma("resumenes.agregarResumenes");
+    private static final Histograma LATENCIA_GUARDAR = Metricas.global().histograma("persistencia.guardar");
+    private static final Histograma LATENCIA_CARGAR = Metricas.global().histograma("persistencia.cargar");
+    private static final Histograma LATENCIA_TEXTO_COMPLETO = Metricas.global().histograma("busqueda.textoCompleto");
+    private static final LongAdder AGREGADOS = Metricas.global().contador("resumenes.agregados");
+    private static final LongAdder DUPLICADOS = Metricas.global().contador("resumenes.duplicados");
+    private static final LongAdder CASI_DUPLICADOS = Metricas.global().contador("resumenes.casiDuplicados");
+    /**
+     * Similarity of the bodies from which a new summary is rejected as a near duplicate of one
+     * already present, when the {@code metromendeley.casiDuplicados} system property turns the
+     * check on without giving a number. The check is off unless the property is set.
+     */
+    static final double UMBRAL_CASI_DUPLICADOS = 0.9;
+    /** Full-text queries whose results are kept between searches. */
+    private static final int CONSULTAS_EN_CACHE = 256;
+    /** Terms listed in the breakdown of {@link #analizarResumen(int)}. */
+    private static final int TERMINOS_EN_ANALISIS = 10;
+    /** Titles the title filter is sized for when the number to come is not known. */
+    private static final int CAPACIDAD_FILTRO_TITULOS = 1024;
+
     /**
      * A map of summaries indexed by a hash key generated from their titles.
      */
-    MyMap<String, Resumen> resumenes = new MyMap<>();
-    private BusquedaResumen busquedaResumen;
+    volatile MyConcurrentMap<String, Resumen> resumenes = new MyConcurrentMap<>();
+    /**
+     * Serializes additions to {@link #resumenes} with the assignment of document IDs, so the
+     * map iterates in ID order and a summary saved to the catalog lands at the position of its ID.
+     */
+    private final Object altas = new Object();
+    /**
+     * Keys of every summary in {@link #resumenes}, so a new title is told apart without a map
+     * probe. A key is added before its summary is published. Replaced together with the map.
+     */
+    private volatile FiltroBloom filtroTitulos = new FiltroBloom(CAPACIDAD_FILTRO_TITULOS);
+    /** Document ID of the next summary added. Guarded by {@link #altas}. */
+    private int siguienteId;
+    private volatile BusquedaResumen busquedaResumen = new BusquedaResumen();
+    /** Authors and keywords of every summary in {@link #resumenes}, each stored once. */
+    private volatile DiccionarioTerminos diccionario = new DiccionarioTerminos();
+    /**
+     * Full-text index over the title and body of every summary in {@link #resumenes}.
+     * Built on the first full-text search, so loading a catalog does not decode every body.
+     * Searched without locking while summaries are added to it.
+     */
+    private volatile IndiceTextoCompleto indiceTextoCompleto;
+    /** Similarity from which a body is a near duplicate, or 0 if they are not looked for. */
+    private volatile double umbralCasiDuplicados = leerUmbral(System.getProperty("metromendeley.casiDuplicados"));
+    /**
+     * Near-duplicate detector over the bodies of every summary in {@link #resumenes}. Built on the
+     * first addition, so loading a catalog does not decode every body. Used while synchronized on it.
+     */
+    private volatile DetectorCasiDuplicados detectorCasiDuplicados;
+    /** Held while the detector is built, so it is built once and additions wait for it without the write lock. */
+    private final ReentrantLock construccionDetector = new ReentrantLock();
+    /**
+     * Recent full-text results, each invalidated when a summary sharing one of its query terms is
+     * indexed. Summaries without those terms cannot enter a result, though they shift the BM25
+     * document count and average length slightly, so cached scores may lag by that much.
+     */
+    private final CacheConsultas<MyLinkedList<ResultadoBusqueda>> cacheTextoCompleto =
+            new CacheConsultas<>("textoCompleto", CONSULTAS_EN_CACHE);
+    /** Read side held while adding summaries, write side while saving or reloading them. */
+    private final ReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private Path rutaSnapshot = Paths.get(ARCHIVO_SNAPSHOT);
+    private Path rutaDiario = Paths.get(ARCHIVO_DIARIO);
+    private Path rutaIndiceBusqueda = Paths.get(ARCHIVO_INDICE_BUSQUEDA);
+    /** Journal of additions, opened on load or on the first addition. */
+    private volatile DiarioResumenes diario;
+    /** Background thread writing a snapshot of a rotated journal, or {@code null} when idle. Guarded by {@code this}. */
+    private Thread compactacion;
 
     /**
      * Reads the content of a file and returns it as a String.
@@ -34,11 +126,38 @@ public class ResumenManager {
      */
     public ResumenManager() {
         if (this.resumenes == null) {
-            this.resumenes = new MyMap<>();
+            this.resumenes = new MyConcurrentMap<>();
         }
         cargarResumenesDesdeJson();
     }
 
+    /**
+     * Constructs a ResumenManager that keeps its snapshot and journal in the given directory
+     * instead of the working directory, and loads the summaries stored there.
+     *
+     * @param directorioDatos The directory holding resumenes.dat, resumenes.journal and resumenes.idx.
+     */
+    public ResumenManager(Path directorioDatos) {
+        this(directorioDatos, true);
+    }
+
+    /**
+     * Constructs a ResumenManager that keeps its snapshot and journal in the given directory,
+     * optionally leaving it empty until {@link #cargarResumenesDesdeJson(IntConsumer)} is called,
+     * for example from a background thread that reports progress.
+     *
+     * @param directorioDatos The directory holding resumenes.dat, resumenes.journal and resumenes.idx.
+     * @param cargar Whether to load the summaries stored there now.
+     */
+    public ResumenManager(Path directorioDatos, boolean cargar) {
+        this.rutaSnapshot = directorioDatos.resolve(ARCHIVO_SNAPSHOT);
+        this.rutaDiario = directorioDatos.resolve(ARCHIVO_DIARIO);
+        this.rutaIndiceBusqueda = directorioDatos.resolve(ARCHIVO_INDICE_BUSQUEDA);
+        if (cargar) {
+            cargarResumenesDesdeJson();
+        }
+    }
+
 /**
      * Constructs a ResumenManager with a list of summaries.
      * 
@@ -46,14 +165,80 @@ public class ResumenManager {
      */
     public ResumenManager(MyLinkedList<Resumen> resumenesList) {
         if (this.resumenes == null) {
-            this.resumenes = new MyMap<>();
+            this.resumenes = new MyConcurrentMap<>();
         }
         for (int i = 0; i < resumenesList.size(); i++) {
             Resumen resumen = resumenesList.get(i);
             String clave = generarClaveHash(resumen.getTitulo());
+            resumen.codificarTerminos(diccionario);
+            Resumen anterior = resumenes.get(clave);
+            if (anterior == null) {
+                registrar(clave, resumen);
+            } else {
+                // A later summary with the same title replaces the earlier one in its place
+                resumen.id = anterior.id;
+                resumenes.put(clave, resumen);
+            }
+        }
+    }
+
+    /**
+     * Publishes the sizes of this manager's summaries, dictionary, indexes and caches as gauges, replacing
+     * those of any manager published before. Not done by the constructors, so a manager is only
+     * reachable from the registry once fully built and only when it is the one being monitored.
+     */
+    public void publicarMedidores() {
+        Metricas metricas = Metricas.global();
+        metricas.medidor("resumenes.total", this, m -> m.resumenes.size());
+        metricas.medidor("diccionario.terminos", this, m -> m.diccionario.size());
+        metricas.medidor("indice.palabrasClave", this, m -> m.busquedaResumen.cantidadPalabrasClave());
+        metricas.medidor("indice.autores", this, m -> m.busquedaResumen.cantidadAutores());
+        metricas.medidor("indice.bytesPostings", this, m -> m.busquedaResumen.bytesPostings());
+        metricas.medidor("filtros.bytes", this, m -> m.filtroTitulos.bytes() + m.busquedaResumen.bytesFiltros());
+        metricas.medidor("cache.textoCompleto.entradas", this, m -> m.cacheTextoCompleto.size());
+        metricas.medidor("cache.autoresSimilares.entradas", this, m -> m.busquedaResumen.entradasCacheAutoresSimilares());
+    }
+
+    /**
+     * Adds a summary under the given key and assigns it the next document ID, unless a summary
+     * with the same key is already present.
+     *
+     * @return {@code true} if the summary was added.
+     */
+    private boolean registrar(String clave, Resumen resumen) {
+        synchronized (altas) {
+            if (resumenes.containsKey(clave)) {
+                return false;
+            }
+            resumen.id = siguienteId;
+            filtroTitulos.agregar(clave);
             resumenes.put(clave, resumen);
+            siguienteId++;
+            return true;
+        }
+    }
+
+    /**
+     * Returns whether a summary is held under the given key. Most new titles are answered by the
+     * title filter alone.
+     */
+    private boolean existeTitulo(String clave) {
+        return filtroTitulos.puedeContener(clave) && resumenes.containsKey(clave);
+    }
+
+    /**
+     * Replaces the summaries with an empty map, so document IDs start again from 0.
+     *
+     * @param capacidadEsperada The number of summaries about to be added.
+     */
+    private void vaciarResumenes(int capacidadEsperada) {
+        synchronized (altas) {
+            filtroTitulos = new FiltroBloom(Math.max(CAPACIDAD_FILTRO_TITULOS, capacidadEsperada));
+            resumenes = new MyConcurrentMap<>();
+            siguienteId = 0;
         }
     }
+
 /**
      * Adds a summary to the manager.
      * 
@@ -62,29 +247,110 @@ public class ResumenManager {
      * @param cuerpo The body of the summary.
      * @param rutaArchivo The file path where the summary is stored.
      * @param palabrasClave An array of keywords associated with the summary.
-     * @return The newly added summary, or null if a summary with the same title already exists.
+     * @return The newly added summary, or null if a summary with the same title, or with a body
+     *         that is a near duplicate of this one, already exists.
      */
     public Resumen agregarResumen(String titulo, String[] autores, String cuerpo, String rutaArchivo, String[] palabrasClave) {
-        String clave = generarClaveHash(titulo);
-        if (!resumenes.containsKey(clave)) {
-            Resumen nuevoResumen = new Resumen(titulo, autores, cuerpo, palabrasClave, rutaArchivo);
-            resumenes.put(clave, nuevoResumen);
-            System.out.println("Resumen agregado exitosamente.");
-            guardarResumenesComoJson(); // Guardar cambios después de agregar un resumen
-            
-            // Actualizar BusquedaResumen
-            Investigacion nuevaInvestigacion = new Investigacion(nuevoResumen);
-            for (String palabraClave : palabrasClave) {
-                busquedaResumen.agregarInvestigacion(palabraClave, nuevaInvestigacion);
-            }
-            
-            return nuevoResumen; // Devolver el nuevo Resumen si se agregó exitosamente
-        } else {
-            System.out.println("El resumen ya existe y no se agregará de nuevo.");
-            return null; // O considerar lanzar una excepción si el resumen ya existe
+        long inicio = System.nanoTime();
+        try {
+            String clave = generarClaveHash(titulo);
+            if (!existeTitulo(clave)) {
+                Resumen nuevoResumen = new Resumen(titulo, autores, cuerpo, palabrasClave, rutaArchivo);
+                // Se indexa y se escribe solo el nuevo resumen en el diario, no el mapa completo
+                MyLinkedList<Resumen> lote = new MyLinkedList<>();
+                lote.add(nuevoResumen);
+                if (agregarResumenes(lote) == 0) {
+                    return null; // Casi duplicado de otro, o agregado por otro hilo mientras tanto
+                }
+                Registro.depuracion("Resumen agregado exitosamente.");
+
+                return nuevoResumen; // Devolver el nuevo Resumen si se agregó exitosamente
+            } else {
+                DUPLICADOS.increment();
+                Registro.depuracion("El resumen ya existe y no se agregará de nuevo.");
+                return null; // O considerar lanzar una excepción si el resumen ya existe
+            }
+        } finally {
+            LATENCIA_AGREGAR.registrarDesde(inicio);
         }
     }
 
+    /**
+     * Adds a batch of already built summaries, skipping those whose title is already present and,
+     * if enabled, those whose body is a near duplicate of one already present (see
+     * {@link #setUmbralCasiDuplicados(double)}). The batch is written to the journal with a single
+     * sync and indexed in one pass. Several threads may add batches at once; of summaries with
+     * the same title added concurrently, exactly one is kept.
+     *
+     * @param lote The summaries to add.
+     * @return The number of summaries actually added.
+     */
+    public int agregarResumenes(MyLinkedList<Resumen> lote) {
+        long inicio = System.nanoTime();
+        MyLinkedList<Resumen> nuevos = new MyLinkedList<>();
+        MyLinkedList<Investigacion> investigaciones = new MyLinkedList<>();
+        obtenerDetectorCasiDuplicados();
+        cerrojo.readLock().lock();
+        try {
+            DiccionarioTerminos diccionario = this.diccionario;
+            IndiceTextoCompleto indice = indiceTextoCompleto;
+            // Null if disabled, or if a reload dropped it meanwhile; then it is rebuilt later from every summary
+            DetectorCasiDuplicados detector = detectorCasiDuplicados;
+            Iterator<Resumen> it = lote.iterator();
+            while (it.hasNext()) {
+                Resumen resumen = it.next();
+                String clave = generarClaveHash(resumen.getTitulo());
+                if (existeTitulo(clave)) {
+                    DUPLICADOS.increment();
+                    continue;
+                }
+                DetectorCasiDuplicados.Firma firma = detector == null ? null : detector.firma(resumen.getCuerpo());
+                resumen.codificarTerminos(diccionario);
+                if (firma == null) {
+                    if (!registrar(clave, resumen)) {
+                        DUPLICADOS.increment();
+                        continue; // Added by another thread meanwhile
+                    }
+                } else {
+                    // Checked and added under one lock, so of two near duplicates added at once one is kept
+                    synchronized (detector) {
+                        Resumen original = detector.buscar(firma);
+                        if (original != null) {
+                            CASI_DUPLICADOS.increment();
+                            Registro.info("\"" + resumen.getTitulo() + "\" no se agrega: su cuerpo casi repite el de \""
+                                    + original.getTitulo() + "\".");
+                            continue;
+                        }
+                        if (!registrar(clave, resumen)) {
+                            DUPLICADOS.increment();
+                            continue;
+                        }
+                        detector.agregar(resumen, firma);
+                    }
+                }
+                if (indice != null) {
+                    MyLinkedList<String> terminos = new MyLinkedList<>();
+                    indice.agregar(resumen, terminos::add);
+                    // After indexing, so a search that missed the summary is not cached
+                    cacheTextoCompleto.invalidar(terminos);
+                }
+                nuevos.add(resumen);
+                investigaciones.add(new Investigacion(resumen));
+            }
+            if (nuevos.size() > 0) {
+                // The journal is written after the map, so a snapshot that misses a summary
+                // finds it in the journal it rotates or keeps.
+                registrarLoteEnDiario(nuevos);
+                busquedaResumen.agregarInvestigaciones(investigaciones);
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+        AGREGADOS.add(nuevos.size());
+        LATENCIA_AGREGAR_LOTE.registrarDesde(inicio);
+        return nuevos.size();
+    }
+
     // Method to list all summary titles
     public String[] listarTitulosResumenes() {
         MyLinkedList<MyMap.Entry<String, Resumen>> entries = resumenes.entryList();
@@ -96,39 +362,535 @@ public class ResumenManager {
         return titulos;
     }
 
+    /**
+     * Appends newly added summaries to the journal and starts a compaction if the journal has grown too large.
+     *
+     * @param lote The summaries that were just added.
+     */
+    private void registrarLoteEnDiario(MyLinkedList<Resumen> lote) {
+        try {
+            DiarioResumenes diario = obtenerDiario();
+            diario.agregarLote(lote);
+            if (diario.tamanio() >= UMBRAL_COMPACTACION) {
+                synchronized (this) {
+                    if (diario.tamanio() >= UMBRAL_COMPACTACION && (compactacion == null || !compactacion.isAlive())) {
+                        iniciarCompactacion();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Registro.error("No se pudo escribir el diario " + rutaDiario, e);
+        }
+    }
+
+    private synchronized DiarioResumenes obtenerDiario() throws IOException {
+        if (diario == null) {
+            diario = new DiarioResumenes(rutaDiario.toString());
+        }
+        return diario;
+    }
+
+    /**
+     * Rotates the journal and writes a snapshot of the current summaries on a background thread.
+     * Additions made meanwhile go to the fresh journal, which is replayed on top of the new snapshot.
+     * The journal is rotated before the summaries are copied: a summary being added by another
+     * thread is then either in the copy or written to the fresh journal.
+     */
+    private void iniciarCompactacion() throws IOException {
+        diario.rotar();
+        MyMap<String, Resumen> copia = copiarResumenes();
+        Path rotado = diario.getRutaRotada();
+        compactacion = new Thread(() -> {
+            try {
+                escribirSnapshot(copia);
+                Files.deleteIfExists(rotado);
+                Registro.info("Diario compactado en " + rutaSnapshot + ".");
+            } catch (IOException e) {
+                // The rotated journal stays on disk and is replayed on the next start.
+                Registro.error("No se pudo compactar el diario en " + rutaSnapshot, e);
+            }
+        }, "compactacion-diario");
+        compactacion.start();
+    }
+
+    /**
+     * Waits for a running compaction, if any, to finish.
+     */
+    private void esperarCompactacion() {
+        Thread hilo;
+        synchronized (this) {
+            hilo = compactacion;
+        }
+        if (hilo == null) {
+            return;
+        }
+        try {
+            hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (compactacion == hilo) {
+                compactacion = null;
+            }
+        }
+    }
+
+    private MyMap<String, Resumen> copiarResumenes() {
+        MyMap<String, Resumen> copia = new MyMap<>();
+        MyLinkedList<MyMap.Entry<String, Resumen>> entries = resumenes.entryList();
+        Iterator<MyMap.Entry<String, Resumen>> it = entries.iterator();
+        while (it.hasNext()) {
+            MyMap.Entry<String, Resumen> entry = it.next();
+            copia.put(entry.getKey(), entry.getValue());
+        }
+        return copia;
+    }
+
+    /**
+     * Writes a snapshot as the next generation. The summaries loaded from the current one keep
+     * reading their bodies from its mapping, so it is never replaced: the new file gets a name
+     * no file has, which makes the rename atomic without replacing anything on every platform.
+     * The keyword and author indexes of the snapshot are written next to it afterwards. Older
+     * generations are deleted last, where the platform allows it.
+     */
+    private void escribirSnapshot(MyMap<String, Resumen> snapshot) throws IOException {
+        Path nueva = rutaSnapshot.resolveSibling(rutaSnapshot.getFileName() + "." + (generacion(snapshotActual()) + 1));
+        Path temporal = rutaSnapshot.resolveSibling(rutaSnapshot.getFileName() + ".tmp");
+        CatalogoBinario.escribir(snapshot, temporal);
+        Files.move(temporal, nueva, StandardCopyOption.ATOMIC_MOVE);
+        SegmentoBusqueda.escribir(snapshot, rutaIndiceBusqueda);
+        borrarSnapshotsAnteriores(nueva);
+    }
+
+    /**
+     * Returns the newest snapshot: the highest generation in the data directory, or the path of
+     * generation 0 if there is none, whether or not it exists.
+     */
+    private Path snapshotActual() throws IOException {
+        Path actual = rutaSnapshot;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorioSnapshot(), rutaSnapshot.getFileName() + ".*")) {
+            for (Path archivo : archivos) {
+                if (generacion(archivo) > generacion(actual)) {
+                    actual = archivo;
+                }
+            }
+        }
+        return actual;
+    }
+
+    /**
+     * Deletes the snapshots older than the given one. A file still mapped by summaries in use
+     * cannot be deleted on some platforms; it is left for a later save.
+     */
+    private void borrarSnapshotsAnteriores(Path actual) throws IOException {
+        long ultima = generacion(actual);
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorioSnapshot(), rutaSnapshot.getFileName() + "*")) {
+            for (Path archivo : archivos) {
+                long numero = generacion(archivo);
+                if (numero >= 0 && numero < ultima) {
+                    try {
+                        Files.deleteIfExists(archivo);
+                    } catch (IOException e) {
+                        Registro.depuracion("Snapshot anterior en uso, se borrará más adelante: " + archivo);
+                    }
+                }
+            }
+        }
+    }
+
+    private Path directorioSnapshot() {
+        Path directorio = rutaSnapshot.toAbsolutePath().getParent();
+        return directorio != null ? directorio : Paths.get(".");
+    }
+
+    /**
+     * Returns the generation of a snapshot file: N for resumenes.dat.N, 0 for resumenes.dat and
+     * -1 for any other file, such as a temporary one.
+     */
+    private long generacion(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        String base = rutaSnapshot.getFileName().toString();
+        if (nombre.equals(base)) {
+            return 0;
+        }
+        if (!nombre.startsWith(base + ".") || nombre.length() == base.length() + 1) {
+            return -1;
+        }
+        for (int i = base.length() + 1; i < nombre.length(); i++) {
+            if (!Character.isDigit(nombre.charAt(i))) {
+                return -1;
+            }
+        }
+        try {
+            return Long.parseLong(nombre.substring(base.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Writes every summary to the snapshot and empties the journal. Used as a checkpoint, for
+     * example when the application closes; regular additions only append to the journal.
+     */
     public void guardarResumenesComoJson() {
-        try (FileOutputStream fileOutputStream = new FileOutputStream("resumenes.dat");
-             ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream)) {
-            objectOutputStream.writeObject(resumenes);
-            System.out.println("Resúmenes guardados exitosamente en resumenes.dat.");
+        long inicio = System.nanoTime();
+        cerrojo.writeLock().lock();
+        try {
+            esperarCompactacion();
+            escribirSnapshot(copiarResumenes());
+            if (diario != null) {
+                diario.vaciar();
+                Files.deleteIfExists(diario.getRutaRotada());
+            }
+            Registro.info("Resúmenes guardados exitosamente en " + snapshotActual().getFileName() + ".");
         } catch (IOException e) {
-            e.printStackTrace();
+            Registro.error("No se pudieron guardar los resúmenes en " + rutaSnapshot, e);
+        } finally {
+            cerrojo.writeLock().unlock();
+            LATENCIA_GUARDAR.registrarDesde(inicio);
         }
     }
 
+    /**
+     * Loads the snapshot and replays the journal on top of it: first a journal left over from an
+     * interrupted compaction, then the current one. Replaying is idempotent because a summary
+     * whose title is already present is skipped.
+     */
     public void cargarResumenesDesdeJson() {
+        cargarResumenesDesdeJson(porcentaje -> { });
+    }
+
+    /**
+     * Loads the summaries as {@link #cargarResumenesDesdeJson()} does, reporting progress.
+     *
+     * @param progreso Receives the percentage loaded so far, from 0 to 100, on the loading thread.
+     */
+    public void cargarResumenesDesdeJson(IntConsumer progreso) {
+        long inicio = System.nanoTime();
+        progreso.accept(0);
+        cerrojo.writeLock().lock();
         try {
-            File file = new File("resumenes.dat");
-            if (file.exists()) {
-                try (FileInputStream fileInputStream = new FileInputStream("resumenes.dat");
+            esperarCompactacion();
+            if (diario != null) {
+                diario.close();
+                diario = null;
+            }
+            File file = snapshotActual().toFile();
+            Resumen[] catalogados = null;
+            if (file.exists() && esCatalogoBinario(file)) {
+                CatalogoBinario catalogo = CatalogoBinario.abrir(file.toPath());
+                vaciarResumenes(catalogo.size());
+                diccionario = catalogo.getDiccionario() != null ? catalogo.getDiccionario() : new DiccionarioTerminos();
+                catalogados = new Resumen[catalogo.size()];
+                int paso = Math.max(1, catalogo.size() / 100);
+                for (int i = 0; i < catalogo.size(); i++) {
+                    catalogados[i] = catalogo.leerResumen(i);
+                    reproducirResumen(catalogados[i]);
+                    if (i % paso == 0) {
+                        progreso.accept((int) (80L * i / catalogo.size()));
+                    }
+                }
+                Registro.info("Resúmenes cargados exitosamente desde " + file.getName() + ".");
+            } else if (file.exists()) {
+                // Snapshots written before the binary catalog are plain Java serialization.
+                try (FileInputStream fileInputStream = new FileInputStream(file);
                      ObjectInputStream objectInputStream = new ObjectInputStream(fileInputStream)) {
-                    resumenes = (MyMap<String, Resumen>) objectInputStream.readObject();
-                    System.out.println("Resúmenes cargados exitosamente desde resumenes.dat.");
+                    MyMap<String, Resumen> legado = (MyMap<String, Resumen>) objectInputStream.readObject();
+                    vaciarResumenes(legado.size());
+                    diccionario = new DiccionarioTerminos();
+                    Iterator<MyMap.Entry<String, Resumen>> it = legado.entryList().iterator();
+                    while (it.hasNext()) {
+                        MyMap.Entry<String, Resumen> entrada = it.next();
+                        entrada.getValue().codificarTerminos(diccionario);
+                        registrar(entrada.getKey(), entrada.getValue());
+                    }
+                    Registro.info("Resúmenes cargados exitosamente desde " + file.getName() + ".");
                 } catch (ClassNotFoundException e) {
-                    e.printStackTrace();
+                    Registro.error("Snapshot heredado ilegible: " + file, e);
                 }
             } else {
-                System.out.println("No se encontró el archivo resumenes.dat.");
+                Registro.info("No se encontró el archivo " + file.getName() + ".");
                 // Inicializar el mapa si el archivo no existe para evitar NullPointerException
-                if (this.resumenes == null) {
-                    this.resumenes = new MyMap<>();
-                }
+                vaciarResumenes(0);
+                diccionario = new DiccionarioTerminos();
+            }
+            progreso.accept(80);
+            Path rotado = DiarioResumenes.rutaRotada(rutaDiario);
+            int reproducidos = DiarioResumenes.reproducir(rotado, this::reproducirResumen);
+            reproducidos += DiarioResumenes.reproducir(rutaDiario, this::reproducirResumen);
+            if (reproducidos > 0) {
+                Registro.info(reproducidos + " resúmenes recuperados del diario.");
+            }
+            progreso.accept(85);
+            indiceTextoCompleto = null;
+            detectorCasiDuplicados = null;
+            cacheTextoCompleto.invalidarTodo();
+            cargarIndiceBusqueda(catalogados);
+            diario = new DiarioResumenes(rutaDiario.toString());
+            if (Files.exists(rotado)) {
+                // A compaction was interrupted; fold everything into a fresh snapshot now.
+                guardarResumenesComoJson();
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            Registro.error("No se pudieron cargar los resúmenes de " + rutaSnapshot, e);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+        LATENCIA_CARGAR.registrarDesde(inicio);
+        progreso.accept(100);
+    }
+
+    /**
+     * Loads the keyword and author indexes saved with the catalog and adds the summaries replayed
+     * from the journal, which follow the catalog ones in {@link #resumenes}. Without a matching
+     * saved index, for example after loading a legacy snapshot, the indexes are rebuilt from every summary.
+     *
+     * @param catalogados The summaries read from the catalog, by position, or {@code null} if there was no catalog.
+     */
+    private void cargarIndiceBusqueda(Resumen[] catalogados) {
+        BusquedaResumen cargado = null;
+        if (catalogados != null) {
+            try {
+                cargado = SegmentoBusqueda.leer(rutaIndiceBusqueda, catalogados);
+            } catch (IOException e) {
+                Registro.advertencia("Índice de búsqueda ilegible, se reconstruye: " + rutaIndiceBusqueda, e);
+            }
+        }
+        int yaIndexados = cargado == null ? 0 : catalogados.length;
+        busquedaResumen = cargado == null ? new BusquedaResumen() : cargado;
+        MyLinkedList<Investigacion> pendientes = new MyLinkedList<>();
+        Iterator<Resumen> it = resumenes.iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            Resumen resumen = it.next();
+            if (i >= yaIndexados) {
+                pendientes.add(new Investigacion(resumen));
+            }
+        }
+        busquedaResumen.agregarInvestigaciones(pendientes);
+    }
+
+    /**
+     * Returns the keyword and author index of the summaries held by the manager. The index is
+     * replaced when the summaries are loaded again, so callers should not keep it.
+     *
+     * @return The current search index.
+     */
+    public BusquedaResumen getBusquedaResumen() {
+        return busquedaResumen;
+    }
+
+    /**
+     * Returns the dictionary of authors and keywords shared by the summaries held by the manager.
+     *
+     * @return The current dictionary.
+     */
+    public DiccionarioTerminos getDiccionario() {
+        return diccionario;
+    }
+
+    private static boolean esCatalogoBinario(File file) throws IOException {
+        if (file.length() < 4) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == CatalogoBinario.MAGIC;
+        }
+    }
+
+    private void reproducirResumen(Resumen resumen) {
+        String clave = generarClaveHash(resumen.getTitulo());
+        if (!existeTitulo(clave)) {
+            resumen.codificarTerminos(diccionario);
+            registrar(clave, resumen);
+        }
+    }
+
+    /**
+     * Returns the full-text index, building it from the summaries held by the manager on first use.
+     * Additions wait while it is built, so none is missed.
+     */
+    private IndiceTextoCompleto obtenerIndiceTextoCompleto() {
+        IndiceTextoCompleto indice = indiceTextoCompleto;
+        if (indice != null) {
+            return indice;
+        }
+        cerrojo.writeLock().lock();
+        try {
+            if (indiceTextoCompleto == null) {
+                indice = new IndiceTextoCompleto();
+                Iterator<Resumen> it = resumenes.iterator();
+                while (it.hasNext()) {
+                    indice.agregar(it.next());
+                }
+                indiceTextoCompleto = indice;
+            }
+            return indiceTextoCompleto;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the near-duplicate detector, building it from the summaries held by the manager on
+     * first use. The bodies are decoded and signed without the write lock, so searches and saves
+     * go on meanwhile; additions wait for the detector, and those that got in before are signed
+     * under the write lock at the end, so none is missed.
+     *
+     * @return The detector, or {@code null} if near duplicates are not looked for.
+     */
+    private DetectorCasiDuplicados obtenerDetectorCasiDuplicados() {
+        if (umbralCasiDuplicados == 0 || detectorCasiDuplicados != null) {
+            return detectorCasiDuplicados;
+        }
+        construccionDetector.lock();
+        try {
+            double umbral = umbralCasiDuplicados;
+            if (umbral == 0 || detectorCasiDuplicados != null) {
+                return detectorCasiDuplicados;
+            }
+            long inicio = System.nanoTime();
+            MyConcurrentMap<String, Resumen> origen;
+            int limite;
+            synchronized (altas) {
+                origen = resumenes;
+                limite = siguienteId;
+            }
+            // Every summary with an ID below the limit is already in the map
+            Resumen[] todos = new Resumen[limite];
+            Iterator<Resumen> it = origen.iterator();
+            while (it.hasNext()) {
+                Resumen resumen = it.next();
+                if (resumen.getId() >= 0 && resumen.getId() < limite) {
+                    todos[resumen.getId()] = resumen;
+                }
+            }
+            DetectorCasiDuplicados detector = new DetectorCasiDuplicados(umbral);
+            DetectorCasiDuplicados.Firma[] firmas = new DetectorCasiDuplicados.Firma[limite];
+            IntStream.range(0, limite).parallel()
+                    .filter(i -> todos[i] != null)
+                    .forEach(i -> firmas[i] = detector.firma(todos[i].getCuerpo()));
+            for (int i = 0; i < limite; i++) {
+                if (firmas[i] != null) {
+                    detector.agregar(todos[i], firmas[i]);
+                }
+            }
+            cerrojo.writeLock().lock();
+            try {
+                if (resumenes != origen || umbralCasiDuplicados != umbral) {
+                    // Reloaded or reconfigured meanwhile: the next addition builds it again
+                    return detectorCasiDuplicados;
+                }
+                it = origen.iterator();
+                while (it.hasNext()) {
+                    Resumen resumen = it.next();
+                    if (resumen.getId() >= limite) {
+                        DetectorCasiDuplicados.Firma firma = detector.firma(resumen.getCuerpo());
+                        if (firma != null) {
+                            detector.agregar(resumen, firma);
+                        }
+                    }
+                }
+                detectorCasiDuplicados = detector;
+            } finally {
+                cerrojo.writeLock().unlock();
+            }
+            Registro.depuracion(String.format("Detector de casi duplicados construido en %.0f ms.", (System.nanoTime() - inicio) / 1e6));
+            return detector;
+        } finally {
+            construccionDetector.unlock();
+        }
+    }
+
+    /**
+     * Sets how similar the body of a new summary must be to that of one already present for the
+     * new one to be rejected as a near duplicate. Similarity is the Jaccard index of the sets of
+     * three consecutive terms of both bodies: 1 rejects only bodies with the same terms in the
+     * same order, lower values also reworded ones. The detector is rebuilt on the next addition.
+     *
+     * @param umbral A similarity in (0, 1], or 0 to accept near duplicates.
+     */
+    public void setUmbralCasiDuplicados(double umbral) {
+        if (!(umbral >= 0 && umbral <= 1)) {
+            throw new IllegalArgumentException("El umbral de similitud debe estar en [0, 1]: " + umbral);
+        }
+        cerrojo.writeLock().lock();
+        try {
+            umbralCasiDuplicados = umbral;
+            detectorCasiDuplicados = null;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the similarity from which a new summary is rejected as a near duplicate.
+     *
+     * @return The threshold, or 0 if near duplicates are accepted.
+     */
+    public double getUmbralCasiDuplicados() {
+        return umbralCasiDuplicados;
+    }
+
+    /**
+     * Reads the threshold from the system property: none turns the check off, a number in [0, 1]
+     * is the threshold and anything else, such as {@code true}, turns it on at
+     * {@link #UMBRAL_CASI_DUPLICADOS}.
+     */
+    private static double leerUmbral(String texto) {
+        if (texto == null) {
+            return 0;
+        }
+        try {
+            double umbral = Double.parseDouble(texto.trim());
+            if (umbral >= 0 && umbral <= 1) {
+                return umbral;
+            }
+        } catch (NumberFormatException e) {
+            // Se usa el umbral predeterminado
+        }
+        return UMBRAL_CASI_DUPLICADOS;
+    }
+
+    /**
+     * Builds the full-text index now instead of on the first full-text search, so that search is
+     * not the one paying for it.
+     */
+    public void prepararIndiceTextoCompleto() {
+        obtenerIndiceTextoCompleto();
+    }
+
+    /**
+     * Searches the title and body of every summary for the terms of a free-text query.
+     *
+     * @param consulta The free-text query.
+     * @param maxResultados The maximum number of results to return.
+     * @return The best matching summaries ranked by BM25, best first.
+     */
+    public MyLinkedList<ResultadoBusqueda> buscarTextoCompleto(String consulta, int maxResultados) {
+        long inicio = System.nanoTime();
+        IndiceTextoCompleto indice = obtenerIndiceTextoCompleto();
+        try {
+            // Queries with the same terms share an entry, however they were typed
+            String[] terminos = Tokenizador.tokenizar(consulta);
+            String clave = String.join(" ", terminos) + "#" + maxResultados;
+            MyLinkedList<ResultadoBusqueda> resultados = cacheTextoCompleto.obtener(clave,
+                    () -> indice.buscar(consulta, maxResultados), calculados -> terminos);
+            return copiar(resultados);
+        } finally {
+            LATENCIA_TEXTO_COMPLETO.registrarDesde(inicio);
         }
     }
 
+    private static <T> MyLinkedList<T> copiar(MyLinkedList<T> lista) {
+        MyLinkedList<T> copia = new MyLinkedList<>();
+        Iterator<T> it = lista.iterator();
+        while (it.hasNext()) {
+            copia.add(it.next());
+        }
+        return copia;
+    }
+
     public String analizarResumen(int indiceResumenSeleccionado) {
         MyLinkedList<Resumen> listaResumenes = resumenes.values();
         
@@ -149,6 +911,15 @@ public class ResumenManager {
             for (String palabraClave : resumenSeleccionado.getPalabrasClave()) {
                 infoResumen.append(palabraClave).append(", ");
             }
+            // Desglose leído del vector de frecuencias calculado al indexar, sin volver a recorrer el cuerpo;
+            // sin índice se cuenta solo este resumen en lugar de indexar todos
+            MyLinkedList<FrecuenciaTermino> terminos = terminosFrecuentes(resumenSeleccionado, TERMINOS_EN_ANALISIS);
+            boolean conCorpus = terminos.size() == 0 || terminos.get(0).getDocumentos() >= 0;
+            infoResumen.append(conCorpus ? "\nTérminos más característicos:" : "\nTérminos más frecuentes:");
+            Iterator<FrecuenciaTermino> it = terminos.iterator();
+            while (it.hasNext()) {
+                infoResumen.append("\n  ").append(it.next());
+            }
             return infoResumen.toString();
         }
     }
@@ -157,14 +928,21 @@ public class ResumenManager {
         return titulo.replaceAll("\\s+", "").toLowerCase();
     }
 
-    private int calcularFrecuencia(String palabra, String texto) {
-        String[] palabras = texto.split("\\s+");
-        int contador = 0;
-        for (String p : palabras) {
-            if (p.equalsIgnoreCase(palabra)) {
-                contador++;
-            }
+    /**
+     * Returns the terms that best characterize a summary held by the manager, from the term
+     * frequency vector computed when it was indexed for full-text search. If the full-text index
+     * has not been built, it is not built for this: only the summary's own text is counted, and
+     * the terms are ranked by frequency, since the corpus-wide frequencies are not known.
+     *
+     * @param resumen The summary.
+     * @param n The maximum number of terms.
+     * @return Up to {@code n} terms ranked by TF-IDF, or by frequency without the index, the highest first.
+     */
+    public MyLinkedList<FrecuenciaTermino> terminosFrecuentes(Resumen resumen, int n) {
+        IndiceTextoCompleto indice = indiceTextoCompleto;
+        if (indice == null) {
+            return IndiceTextoCompleto.terminosFrecuentesPropios(resumen, n);
         }
-        return contador;
+        return indice.terminosFrecuentes(resumen, n);
     }
 }
\ No newline at end of file
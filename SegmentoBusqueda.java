@@ -0,0 +1,218 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * On-disk copy of the keyword and author indexes of {@link BusquedaResumen}, written next to the
+ * binary catalog so the indexes can be loaded without going through the summaries again.
+ * <p>
+ * Postings refer to summaries by their position in the catalog written from the same snapshot.
+ * Layout, all integers big-endian:
+ * <pre>
+ *   int MAGIC, int VERSION, int cantidadResumenes
+ *   keyword section, then author section, each:
+ *     int cantidadTerminos
+ *     per term: the normalized term as in {@link CodecResumen}, a varint count, then the
+ *     ascending positions as varint gaps
+ *   the Bloom filter of the words of the keywords, then that of the authors, as written by
+ *   {@link FiltroBloom}; since version 2
+ * </pre>
+ * The summary count lets a reader detect a segment that does not belong to the catalog it sits
+ * next to, for example after a crash between writing the catalog and writing the segment.
+ */
+public final class SegmentoBusqueda {
+    /** "MMIX" in ASCII. */
+    private static final int MAGIC = 0x4D4D4958;
+    private static final int VERSION = 2;
+    private static final LongAdder BYTES_ESCRITOS = Metricas.global().contador("persistencia.bytesIndice");
+
+    /** Growable list of ascending positions. */
+    private static final class Posiciones {
+        int[] valores = new int[4];
+        int tamanio;
+
+        void agregar(int posicion) {
+            // A summary listing the same keyword or author twice is indexed once
+            if (tamanio > 0 && valores[tamanio - 1] == posicion) {
+                return;
+            }
+            if (tamanio == valores.length) {
+                int[] mayor = new int[tamanio * 2];
+                System.arraycopy(valores, 0, mayor, 0, tamanio);
+                valores = mayor;
+            }
+            valores[tamanio++] = posicion;
+        }
+    }
+
+    private SegmentoBusqueda() {
+    }
+
+    /**
+     * Writes the keyword and author indexes of the given summaries, numbered in iteration order,
+     * to a temporary file and moves it over the previous segment.
+     *
+     * @param resumenes The summaries of the snapshot, in the order they were written to the catalog.
+     * @param ruta The path of the segment.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void escribir(MyMap<String, Resumen> resumenes, Path ruta) throws IOException {
+        MyMap<String, Posiciones> porPalabraClave = new MyMap<>();
+        MyMap<String, Posiciones> porAutor = new MyMap<>();
+        int posicion = 0;
+        Iterator<Resumen> it = resumenes.iterator();
+        while (it.hasNext()) {
+            Resumen resumen = it.next();
+            if (resumen.getPalabrasClave() != null) {
+                for (String palabraClave : resumen.getPalabrasClave()) {
+                    agregar(porPalabraClave, BusquedaResumen.normalizarPalabraClave(palabraClave), posicion);
+                }
+            }
+            if (resumen.getAutores() != null) {
+                for (String autor : resumen.getAutores()) {
+                    agregar(porAutor, BusquedaResumen.normalizarAutor(autor), posicion);
+                }
+            }
+            posicion++;
+        }
+
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(resumenes.size());
+            escribirSeccion(out, porPalabraClave);
+            escribirSeccion(out, porAutor);
+            filtroPalabras(porPalabraClave).escribir(out);
+            filtroPalabras(porAutor).escribir(out);
+            out.flush();
+            BYTES_ESCRITOS.add(out.size());
+        }
+        Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void agregar(MyMap<String, Posiciones> indice, String termino, int posicion) {
+        Posiciones posiciones = indice.get(termino);
+        if (posiciones == null) {
+            posiciones = new Posiciones();
+            indice.put(termino, posiciones);
+        }
+        posiciones.agregar(posicion);
+    }
+
+    private static FiltroBloom filtroPalabras(MyMap<String, Posiciones> indice) {
+        // Sized as BusquedaResumen sizes the filters it gathers, about two words per term
+        FiltroBloom filtro = new FiltroBloom(2 * indice.size());
+        Iterator<MyMap.Entry<String, Posiciones>> it = indice.entryList().iterator();
+        while (it.hasNext()) {
+            BusquedaResumen.agregarPalabras(filtro, it.next().getKey());
+        }
+        return filtro;
+    }
+
+    private static void escribirSeccion(DataOutputStream out, MyMap<String, Posiciones> indice) throws IOException {
+        out.writeInt(indice.size());
+        Iterator<MyMap.Entry<String, Posiciones>> it = indice.entryList().iterator();
+        while (it.hasNext()) {
+            MyMap.Entry<String, Posiciones> entrada = it.next();
+            Posiciones posiciones = entrada.getValue();
+            CodecResumen.escribirTexto(out, entrada.getKey());
+            escribirVarint(out, posiciones.tamanio);
+            int anterior = 0;
+            for (int i = 0; i < posiciones.tamanio; i++) {
+                escribirVarint(out, posiciones.valores[i] - anterior);
+                anterior = posiciones.valores[i];
+            }
+        }
+    }
+
+    private static void escribirVarint(DataOutputStream out, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            out.writeByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        out.writeByte(valor);
+    }
+
+    /**
+     * Loads a segment into a search index over the given summaries. Each summary gets one
+     * {@link Investigacion}; since the document ID of a catalogued summary is its position, the
+     * positions stored in the segment are the investigation IDs of the index.
+     *
+     * @param ruta The path of the segment.
+     * @param resumenes The summaries of the catalog, by position.
+     * @return The loaded index, or {@code null} if there is no segment, it belongs to a catalog
+     *         with a different number of summaries or the summaries are not numbered by position.
+     * @throws IOException If the file cannot be read or is damaged.
+     */
+    public static BusquedaResumen leer(Path ruta, Resumen[] resumenes) throws IOException {
+        if (!Files.exists(ruta)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(ruta));
+        try {
+            int version;
+            if (buffer.getInt() != MAGIC || (version = buffer.getInt()) < 1 || version > VERSION) {
+                throw new IOException("El archivo " + ruta + " no es un índice de búsqueda compatible.");
+            }
+            if (buffer.getInt() != resumenes.length) {
+                return null;
+            }
+            MyConcurrentList<Investigacion> documentos = new MyConcurrentList<>();
+            for (int i = 0; i < resumenes.length; i++) {
+                if (resumenes[i].getId() != i) {
+                    return null;
+                }
+                documentos.add(new Investigacion(resumenes[i]));
+            }
+            MyConcurrentMap<String, ListaPostings> porPalabraClave = leerSeccion(buffer, resumenes.length);
+            MyConcurrentMap<String, ListaPostings> porAutor = leerSeccion(buffer, resumenes.length);
+            // A version 1 segment has no filters: the index gathers them from its terms
+            FiltroBloom filtroPalabrasClave = version >= 2 ? FiltroBloom.leer(buffer) : null;
+            FiltroBloom filtroAutores = version >= 2 ? FiltroBloom.leer(buffer) : null;
+            return new BusquedaResumen(documentos, porPalabraClave, porAutor, filtroPalabrasClave, filtroAutores);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Índice de búsqueda dañado: " + ruta, e);
+        }
+    }
+
+    private static MyConcurrentMap<String, ListaPostings> leerSeccion(ByteBuffer buffer, int cantidadResumenes) {
+        int cantidadTerminos = buffer.getInt();
+        MyConcurrentMap<String, ListaPostings> indice = new MyConcurrentMap<>();
+        for (int i = 0; i < cantidadTerminos; i++) {
+            int longitud = buffer.getInt();
+            String termino = new String(buffer.array(), buffer.position(), longitud, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + longitud);
+            int cantidad = leerVarint(buffer);
+            int[] posiciones = new int[cantidad];
+            int posicion = 0;
+            for (int j = 0; j < cantidad; j++) {
+                posicion += leerVarint(buffer);
+                if (posicion >= cantidadResumenes || (j > 0 && posicion <= posiciones[j - 1])) {
+                    throw new IndexOutOfBoundsException("Posición fuera de orden: " + posicion);
+                }
+                posiciones[j] = posicion;
+            }
+            indice.put(termino, new ListaPostings(posiciones, cantidad));
+        }
+        return indice;
+    }
+
+    private static int leerVarint(ByteBuffer buffer) {
+        int valor = 0;
+        for (int desplazamiento = 0; ; desplazamiento += 7) {
+            byte b = buffer.get();
+            valor |= (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+    }
+}
\ No newline at end of file
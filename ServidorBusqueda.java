@@ -0,0 +1,424 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local HTTP service answering searches over the summaries of a {@link ResumenManager}, so that
+ * other tools can query the catalog without starting the graphical interface.
+ * <p>
+ * Each request runs on its own virtual thread, so a client waiting on a slow network does not
+ * hold a platform thread. Searches read the indexes without locking and can run in parallel
+ * with additions. Responses are JSON, streamed with chunked encoding as results are written
+ * rather than built whole in memory first.
+ * <pre>
+ * GET  /buscar/palabra?q=AutoCAD&amp;desde=0&amp;max=20
+ * GET  /buscar/autor?q=Sandoval
+ * GET  /buscar/texto?q=sistema+de+informaci%C3%B3n&amp;max=10
+ * GET  /buscar/consulta?q=AutoCAD+AND+NOT+fundaciones
+ * POST /resumenes        titulo, cuerpo, autor (repeated), palabraClave (repeated), form-encoded
+ * GET  /metricas
+ * </pre>
+ * Keyword, author and boolean searches report every match in {@code total} and list a page of
+ * them. Full-text searches compute only the best {@code max} summaries, so they report how many
+ * were listed in {@code devueltos} instead.
+ * <p>
+ * Malformed requests get a 400 with an {@code error} member; adding a summary whose title, or
+ * a near duplicate of whose body, is already present gets a 409.
+ */
+public class ServidorBusqueda {
+    static final int PUERTO_PREDETERMINADO = 8080;
+    /** Results listed per search unless the request asks otherwise. */
+    static final int MAX_RESULTADOS = 20;
+    /** Largest body accepted when adding a summary. */
+    private static final int MAX_CUERPO_PETICION = 1 << 20;
+
+    private static final Histograma LATENCIA = Metricas.global().histograma("http.peticion");
+    private static final LongAdder PETICIONES = Metricas.global().contador("http.peticiones");
+    private static final LongAdder ERRORES = Metricas.global().contador("http.errores");
+
+    /** Handles a request that has the expected method. */
+    private interface Manejador {
+        void atender(HttpExchange intercambio) throws IOException;
+    }
+
+    /** A request that cannot be served, with the status to answer. */
+    private static final class PeticionInvalida extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int estado;
+
+        PeticionInvalida(int estado, String mensaje) {
+            super(mensaje);
+            this.estado = estado;
+        }
+    }
+
+    private final ResumenManager resumenManager;
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+
+    /**
+     * Creates a server over the given manager, bound but not yet accepting requests.
+     *
+     * @param resumenManager The manager holding the summaries, shared by every request.
+     * @param direccion The address and port to listen on; port 0 picks a free one.
+     * @throws IOException If the address cannot be bound.
+     */
+    public ServidorBusqueda(ResumenManager resumenManager, InetSocketAddress direccion) throws IOException {
+        // Responses go out in several small writes (headers, chunks, last chunk); with Nagle's
+        // algorithm on, each waits for the client's delayed ACK and a search takes 40 ms.
+        // The JDK server reads this property once, when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.resumenManager = resumenManager;
+        resumenManager.publicarMedidores();
+        this.servidor = HttpServer.create(direccion, 0);
+        this.ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        servidor.setExecutor(ejecutor);
+        contexto("/buscar/palabra", "GET", intercambio -> responderInvestigaciones(intercambio,
+                parametros -> resumenManager.getBusquedaResumen().instantaneaPorPalabraClave(requerido(parametros, "q"))));
+        contexto("/buscar/autor", "GET", intercambio -> responderInvestigaciones(intercambio,
+                parametros -> resumenManager.getBusquedaResumen().instantaneaPorAutor(requerido(parametros, "q"))));
+        contexto("/buscar/consulta", "GET", intercambio -> responderInvestigaciones(intercambio,
+                parametros -> resumenManager.getBusquedaResumen().buscar(requerido(parametros, "q"))));
+        contexto("/buscar/texto", "GET", this::responderTextoCompleto);
+        contexto("/resumenes", "POST", this::agregarResumen);
+        contexto("/metricas", "GET", intercambio -> {
+            byte[] json = Metricas.global().aJson().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            intercambio.sendResponseHeaders(200, json.length);
+            intercambio.getResponseBody().write(json);
+        });
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void iniciar() {
+        servidor.start();
+        Registro.info("Servidor de búsqueda escuchando en http://" + servidor.getAddress().getHostString() + ":" + getPuerto() + "/");
+    }
+
+    /**
+     * Stops accepting requests and waits for those in progress to finish.
+     *
+     * @param segundos The longest time to wait for requests in progress.
+     */
+    public void detener(int segundos) {
+        servidor.stop(segundos);
+        ejecutor.shutdown();
+        try {
+            ejecutor.awaitTermination(segundos, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The port, useful when the server was created on port 0.
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Registers a handler, answering 405 to other methods and turning failures into JSON errors.
+     */
+    private void contexto(String ruta, String metodo, Manejador manejador) {
+        servidor.createContext(ruta, intercambio -> {
+            long inicio = System.nanoTime();
+            PETICIONES.increment();
+            try {
+                if (!intercambio.getRequestURI().getPath().equals(ruta)) {
+                    throw new PeticionInvalida(404, "No existe " + intercambio.getRequestURI().getPath());
+                }
+                if (!intercambio.getRequestMethod().equalsIgnoreCase(metodo)) {
+                    intercambio.getResponseHeaders().set("Allow", metodo);
+                    throw new PeticionInvalida(405, "Método no permitido; use " + metodo + ".");
+                }
+                manejador.atender(intercambio);
+            } catch (PeticionInvalida e) {
+                responderError(intercambio, e.estado, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                responderError(intercambio, 400, e.getMessage());
+            } catch (IOException e) {
+                // El cliente cerró la conexión; no hay a quién responder
+                ERRORES.increment();
+                Registro.depuracion("Petición " + ruta + " interrumpida: " + e);
+            } catch (RuntimeException e) {
+                Registro.error("Error al atender " + intercambio.getRequestURI(), e);
+                responderError(intercambio, 500, "Error interno del servidor.");
+            } finally {
+                intercambio.close();
+                LATENCIA.registrarDesde(inicio);
+            }
+        });
+    }
+
+    private static void responderError(HttpExchange intercambio, int estado, String mensaje) {
+        ERRORES.increment();
+        if (intercambio.getResponseCode() != -1) {
+            // The response had already started; the client sees it cut short
+            return;
+        }
+        byte[] json = Json.texto(new StringBuilder("{\"error\": "), mensaje).append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            intercambio.sendResponseHeaders(estado, json.length);
+            intercambio.getResponseBody().write(json);
+        } catch (IOException e) {
+            Registro.depuracion("No se pudo enviar el error al cliente: " + e);
+        }
+    }
+
+    /** Runs a search over the parameters of a request. */
+    private interface Busqueda {
+        ResultadosConsulta buscar(MyMap<String, MyLinkedList<String>> parametros);
+    }
+
+    /**
+     * Answers a keyword, author or boolean search with the page of investigations selected by
+     * the {@code desde} and {@code max} parameters.
+     */
+    private void responderInvestigaciones(HttpExchange intercambio, Busqueda busqueda) throws IOException {
+        MyMap<String, MyLinkedList<String>> parametros = leerParametros(intercambio.getRequestURI().getRawQuery());
+        int desde = entero(parametros, "desde", 0);
+        int max = entero(parametros, "max", MAX_RESULTADOS);
+        long inicio = System.nanoTime();
+        ResultadosConsulta resultados = busqueda.buscar(parametros);
+        long nanos = System.nanoTime() - inicio;
+
+        StringBuilder json = new StringBuilder(256);
+        Json.milisegundos(json.append("{\"latenciaMs\": "), nanos)
+                .append(", \"total\": ").append(resultados.size()).append(", \"desde\": ").append(desde).append(", \"resultados\": [");
+        try (Writer salida = abrirRespuesta(intercambio)) {
+            int hasta = (int) Math.min(resultados.size(), (long) desde + max);
+            for (int i = desde; i < hasta; i++) {
+                Investigacion investigacion = resultados.get(i);
+                json.append(i == desde ? "\n" : ",\n").append("{\"id\": ").append(investigacion.getId()).append(", \"titulo\": ");
+                Json.texto(json, investigacion.getTitulo()).append(", \"autores\": ");
+                textos(json, investigacion.getAutores()).append('}');
+                vaciarSiLleno(json, salida);
+            }
+            salida.append(json).append("\n]}\n");
+        }
+    }
+
+    /**
+     * Answers a full-text search with up to {@code max} summaries ranked by relevance.
+     */
+    private void responderTextoCompleto(HttpExchange intercambio) throws IOException {
+        MyMap<String, MyLinkedList<String>> parametros = leerParametros(intercambio.getRequestURI().getRawQuery());
+        String consulta = requerido(parametros, "q");
+        int max = entero(parametros, "max", MAX_RESULTADOS);
+        long inicio = System.nanoTime();
+        MyLinkedList<ResultadoBusqueda> resultados = resumenManager.buscarTextoCompleto(consulta, max);
+        long nanos = System.nanoTime() - inicio;
+
+        StringBuilder json = new StringBuilder(256);
+        Json.milisegundos(json.append("{\"latenciaMs\": "), nanos)
+                .append(", \"devueltos\": ").append(resultados.size()).append(", \"resultados\": [");
+        try (Writer salida = abrirRespuesta(intercambio)) {
+            Iterator<ResultadoBusqueda> it = resultados.iterator();
+            for (boolean primero = true; it.hasNext(); primero = false) {
+                ResultadoBusqueda resultado = it.next();
+                Resumen resumen = resultado.getResumen();
+                json.append(primero ? "\n" : ",\n").append("{\"id\": ").append(resumen.getId()).append(", \"titulo\": ");
+                Json.texto(json, resumen.getTitulo()).append(", \"autores\": ");
+                textos(json, resumen.getAutores())
+                        .append(String.format(Locale.ROOT, ", \"puntuacion\": %.4f}", resultado.getPuntuacion()));
+                vaciarSiLleno(json, salida);
+            }
+            salida.append(json).append("\n]}\n");
+        }
+    }
+
+    /**
+     * Adds a summary from a form-encoded body, answering 201 with its id, or 409 if a summary
+     * with the same title or a near-duplicate body already exists.
+     */
+    private void agregarResumen(HttpExchange intercambio) throws IOException {
+        MyMap<String, MyLinkedList<String>> parametros = leerParametros(leerCuerpo(intercambio));
+        String titulo = requerido(parametros, "titulo");
+        String cuerpo = requerido(parametros, "cuerpo");
+        String[] autores = todos(parametros, "autor");
+        String[] palabrasClave = todos(parametros, "palabraClave");
+
+        Resumen resumen = resumenManager.agregarResumen(titulo, autores, cuerpo, null, palabrasClave);
+        if (resumen == null) {
+            throw new PeticionInvalida(409, "Ya existe un resumen con el título \"" + titulo + "\" o con un cuerpo casi igual.");
+        }
+        StringBuilder json = new StringBuilder("{\"id\": ").append(resumen.getId()).append(", \"titulo\": ");
+        byte[] respuesta = Json.texto(json, resumen.getTitulo()).append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(201, respuesta.length);
+        intercambio.getResponseBody().write(respuesta);
+    }
+
+    /**
+     * Sends the headers of a 200 response of unknown length, so the body goes out in chunks.
+     */
+    private static Writer abrirRespuesta(HttpExchange intercambio) throws IOException {
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(200, 0);
+        return new BufferedWriter(new OutputStreamWriter(intercambio.getResponseBody(), StandardCharsets.UTF_8), 8192);
+    }
+
+    private static void vaciarSiLleno(StringBuilder json, Writer salida) throws IOException {
+        if (json.length() >= 4096) {
+            salida.append(json);
+            json.setLength(0);
+        }
+    }
+
+    private static StringBuilder textos(StringBuilder json, String[] textos) {
+        if (textos == null) {
+            return json.append("[]");
+        }
+        json.append('[');
+        for (int i = 0; i < textos.length; i++) {
+            Json.texto(json.append(i == 0 ? "" : ", "), textos[i]);
+        }
+        return json.append(']');
+    }
+
+    private static StringBuilder textos(StringBuilder json, MyLinkedList<String> textos) {
+        json.append('[');
+        Iterator<String> it = textos.iterator();
+        for (boolean primero = true; it.hasNext(); primero = false) {
+            Json.texto(json.append(primero ? "" : ", "), it.next());
+        }
+        return json.append(']');
+    }
+
+    private static String leerCuerpo(HttpExchange intercambio) throws IOException {
+        try (InputStream entrada = intercambio.getRequestBody()) {
+            byte[] bytes = entrada.readNBytes(MAX_CUERPO_PETICION + 1);
+            if (bytes.length > MAX_CUERPO_PETICION) {
+                throw new PeticionInvalida(413, "El cuerpo de la petición supera " + MAX_CUERPO_PETICION + " bytes.");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Decodes a query string or form body into the values of each parameter, in order.
+     */
+    static MyMap<String, MyLinkedList<String>> leerParametros(String texto) {
+        MyMap<String, MyLinkedList<String>> parametros = new MyMap<>();
+        if (texto == null || texto.isEmpty()) {
+            return parametros;
+        }
+        for (String par : texto.split("&")) {
+            if (par.isEmpty()) {
+                continue;
+            }
+            int igual = par.indexOf('=');
+            String nombre = URLDecoder.decode(igual < 0 ? par : par.substring(0, igual), StandardCharsets.UTF_8);
+            String valor = igual < 0 ? "" : URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8);
+            MyLinkedList<String> valores = parametros.get(nombre);
+            if (valores == null) {
+                valores = new MyLinkedList<>();
+                parametros.put(nombre, valores);
+            }
+            valores.add(valor);
+        }
+        return parametros;
+    }
+
+    private static String requerido(MyMap<String, MyLinkedList<String>> parametros, String nombre) {
+        MyLinkedList<String> valores = parametros.get(nombre);
+        if (valores == null || valores.get(0).trim().isEmpty()) {
+            throw new IllegalArgumentException("Falta el parámetro \"" + nombre + "\".");
+        }
+        return valores.get(0).trim();
+    }
+
+    private static int entero(MyMap<String, MyLinkedList<String>> parametros, String nombre, int predeterminado) {
+        MyLinkedList<String> valores = parametros.get(nombre);
+        if (valores == null) {
+            return predeterminado;
+        }
+        try {
+            int valor = Integer.parseInt(valores.get(0).trim());
+            if (valor < 0) {
+                throw new IllegalArgumentException("El parámetro \"" + nombre + "\" no puede ser negativo.");
+            }
+            return valor;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El parámetro \"" + nombre + "\" debe ser un número entero.");
+        }
+    }
+
+    private static String[] todos(MyMap<String, MyLinkedList<String>> parametros, String nombre) {
+        MyLinkedList<String> valores = parametros.get(nombre);
+        if (valores == null) {
+            return new String[0];
+        }
+        String[] todos = new String[valores.size()];
+        Iterator<String> it = valores.iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            todos[i] = it.next().trim();
+        }
+        return todos;
+    }
+
+    /**
+     * Serves the summaries stored in a directory until the process is stopped.
+     *
+     * @param args The options {@code --datos <directorio>}, {@code --puerto <n>} and
+     *             {@code --todas-las-interfaces}; by default only the loopback address is bound.
+     */
+    public static void main(String[] args) throws IOException {
+        String directorio = "";
+        int puerto = PUERTO_PREDETERMINADO;
+        boolean todasLasInterfaces = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--datos":
+                        directorio = args[++i];
+                        break;
+                    case "--puerto":
+                        puerto = Integer.parseInt(args[++i]);
+                        break;
+                    case "--todas-las-interfaces":
+                        todasLasInterfaces = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Uso: java ServidorBusqueda [--datos <directorio>] [--puerto <n>] [--todas-las-interfaces]");
+            return;
+        }
+
+        ResumenManager resumenManager = new ResumenManager(Paths.get(directorio));
+        resumenManager.prepararIndiceTextoCompleto();
+        InetSocketAddress direccion = todasLasInterfaces
+                ? new InetSocketAddress(puerto)
+                : new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto);
+        ServidorBusqueda servidor = new ServidorBusqueda(resumenManager, direccion);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> servidor.detener(2), "servidor-cierre"));
+        servidor.iniciar();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+/**
+ * A completion offered while the user types, together with the number of investigations indexed under it.
+ */
+public class Sugerencia {
+    private final String termino;
+    private final int cantidad;
+
+    /**
+     * Constructs a completion.
+     *
+     * @param termino The completed keyword or author.
+     * @param cantidad The number of investigations indexed under the term.
+     */
+    public Sugerencia(String termino, int cantidad) {
+        this.termino = termino;
+        this.cantidad = cantidad;
+    }
+
+    /**
+     * Returns the completed keyword or author.
+     *
+     * @return The term.
+     */
+    public String getTermino() {
+        return termino;
+    }
+
+    /**
+     * Returns the number of investigations indexed under the term.
+     *
+     * @return The posting count.
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    @Override
+    public String toString() {
+        return termino + " (" + cantidad + ")";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+import java.util.Arrays;
+
+/**
+ * Splits free text into the terms used by the full-text index.
+ * Terms are runs of letters and digits, lower-cased and with accents removed, so that
+ * "Cálculo" and "calculo" map to the same term. A trailing '#' or '+' is kept so names
+ * such as "C#" or "C++" remain searchable.
+ */
+public final class Tokenizador {
+
+    private Tokenizador() {
+    }
+
+    /**
+     * Returns the terms of the given text in order of appearance, repetitions included.
+     *
+     * @param texto The text to split. May be null.
+     * @return The terms found in the text.
+     */
+    public static String[] tokenizar(String texto) {
+        if (texto == null) {
+            return new String[0];
+        }
+        String[] terminos = new String[16];
+        int cantidad = 0;
+        StringBuilder actual = new StringBuilder();
+        for (int i = 0; i <= texto.length(); i++) {
+            char c = i < texto.length() ? texto.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                actual.append(normalizar(c));
+            } else if ((c == '#' || c == '+') && actual.length() > 0) {
+                actual.append(c);
+            } else if (actual.length() > 0) {
+                if (cantidad == terminos.length) {
+                    terminos = Arrays.copyOf(terminos, cantidad * 2);
+                }
+                terminos[cantidad++] = actual.toString();
+                actual.setLength(0);
+            }
+        }
+        return Arrays.copyOf(terminos, cantidad);
+    }
+
+    /**
+     * Lower-cases a character and strips the accents used in Spanish and Portuguese text.
+     * The letter 'ñ' is kept as is.
+     *
+     * @param c The character to normalize.
+     * @return The normalized character.
+     */
+    static char normalizar(char c) {
+        c = Character.toLowerCase(c);
+        switch (c) {
+            case 'á': case 'à': case 'â': case 'ä': case 'ã':
+                return 'a';
+            case 'é': case 'è': case 'ê': case 'ë':
+                return 'e';
+            case 'í': case 'ì': case 'î': case 'ï':
+                return 'i';
+            case 'ó': case 'ò': case 'ô': case 'ö': case 'õ':
+                return 'o';
+            case 'ú': case 'ù': case 'û': case 'ü':
+                return 'u';
+            case 'ç':
+                return 'c';
+            default:
+                return c;
+        }
+    }
+}
\ No newline at end of file
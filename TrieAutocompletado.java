@@ -0,0 +1,346 @@
+import java.util.Arrays;
+
+/**
+ * Radix trie over normalized keywords or authors, used to suggest completions as the user types.
+ * <p>
+ * Each edge is labelled with a run of characters, so terms sharing a prefix share its nodes and
+ * chains without branches take a single node. Besides the whole term, every later word of a term
+ * is inserted as a key too (for example "perez" for "ana perez"), so a partial surname finds the
+ * full name. Such keys end in {@link #SEPARADOR} followed by the term, which keeps them distinct
+ * from a term spelled like the suffix.
+ * <p>
+ * Every node keeps the highest posting count found below it. {@link #sugerir(String, int)}
+ * explores the subtree of the prefix best-first by that bound and stops after {@code n} terms,
+ * so its cost depends on {@code n} and the length of the prefix, not on the number of terms.
+ * {@link #terminosConPalabra(String)} instead lists every term having a given word, however many.
+ * <p>
+ * Suggestions may be computed by several threads at once, but not while a term is being added.
+ */
+public class TrieAutocompletado {
+    private static final char SEPARADOR = '\u0001';
+    private static final Nodo[] SIN_HIJOS = new Nodo[0];
+
+    private static final class Nodo {
+        /** Characters on the edge from the parent. */
+        char[] etiqueta;
+        /** Children sorted by the first character of their label. */
+        Nodo[] hijos = SIN_HIJOS;
+        int cantidadHijos;
+        /** The term ending at this node, or {@code null}. */
+        String termino;
+        int cantidad;
+        /** Highest {@link #cantidad} in this subtree. */
+        int maximo;
+
+        Nodo(char[] etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+    }
+
+    private final Nodo raiz = new Nodo(new char[0]);
+    private Nodo[] camino = new Nodo[16];
+
+    /**
+     * Adds postings to a term, inserting the term if it is new.
+     *
+     * @param termino The normalized term.
+     * @param incremento The number of postings added to the term.
+     */
+    public void agregar(String termino, int incremento) {
+        if (termino.isEmpty()) {
+            return;
+        }
+        agregarClave(termino, termino, incremento);
+        for (int i = 1; i < termino.length(); i++) {
+            if (Character.isLetterOrDigit(termino.charAt(i)) && !Character.isLetterOrDigit(termino.charAt(i - 1))) {
+                agregarClave(termino.substring(i) + SEPARADOR + termino, termino, incremento);
+            }
+        }
+    }
+
+    private void agregarClave(String clave, String termino, int incremento) {
+        Nodo nodo = raiz;
+        int profundidad = 0;
+        int i = 0;
+        while (i < clave.length()) {
+            int posicion = buscarHijo(nodo, clave.charAt(i));
+            if (posicion < 0) {
+                Nodo hoja = new Nodo(clave.substring(i).toCharArray());
+                insertarHijo(nodo, -posicion - 1, hoja);
+                nodo = hoja;
+                break;
+            }
+            Nodo hijo = nodo.hijos[posicion];
+            char[] etiqueta = hijo.etiqueta;
+            int comun = 1;
+            while (comun < etiqueta.length && i + comun < clave.length() && etiqueta[comun] == clave.charAt(i + comun)) {
+                comun++;
+            }
+            if (comun < etiqueta.length) {
+                // The key leaves the edge midway: split it at the divergence.
+                Nodo intermedio = new Nodo(copiar(etiqueta, 0, comun));
+                hijo.etiqueta = copiar(etiqueta, comun, etiqueta.length);
+                intermedio.hijos = new Nodo[] {hijo};
+                intermedio.cantidadHijos = 1;
+                intermedio.maximo = hijo.maximo;
+                nodo.hijos[posicion] = intermedio;
+                hijo = intermedio;
+            }
+            if (profundidad == camino.length) {
+                Nodo[] mayor = new Nodo[profundidad * 2];
+                System.arraycopy(camino, 0, mayor, 0, profundidad);
+                camino = mayor;
+            }
+            camino[profundidad++] = nodo;
+            nodo = hijo;
+            i += comun;
+        }
+        if (nodo.termino == null) {
+            nodo.termino = termino;
+        }
+        nodo.cantidad += incremento;
+        nodo.maximo = Math.max(nodo.maximo, nodo.cantidad);
+        for (int j = 0; j < profundidad; j++) {
+            camino[j].maximo = Math.max(camino[j].maximo, nodo.cantidad);
+            camino[j] = null;
+        }
+    }
+
+    private static char[] copiar(char[] origen, int desde, int hasta) {
+        char[] copia = new char[hasta - desde];
+        System.arraycopy(origen, desde, copia, 0, copia.length);
+        return copia;
+    }
+
+    /**
+     * Returns the position of the child whose label starts with {@code c}, or
+     * {@code -(insertion point) - 1} if there is none.
+     */
+    private static int buscarHijo(Nodo nodo, char c) {
+        int bajo = 0;
+        int alto = nodo.cantidadHijos - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            char primero = nodo.hijos[medio].etiqueta[0];
+            if (primero < c) {
+                bajo = medio + 1;
+            } else if (primero > c) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -bajo - 1;
+    }
+
+    private static void insertarHijo(Nodo nodo, int posicion, Nodo hijo) {
+        if (nodo.cantidadHijos == nodo.hijos.length) {
+            Nodo[] mayor = new Nodo[Math.max(2, nodo.cantidadHijos * 2)];
+            System.arraycopy(nodo.hijos, 0, mayor, 0, nodo.cantidadHijos);
+            nodo.hijos = mayor;
+        }
+        System.arraycopy(nodo.hijos, posicion, nodo.hijos, posicion + 1, nodo.cantidadHijos - posicion);
+        nodo.hijos[posicion] = hijo;
+        nodo.cantidadHijos++;
+    }
+
+    /**
+     * Returns the terms with the most postings among those having a word that starts with the given prefix.
+     *
+     * @param prefijo The normalized prefix typed so far.
+     * @param n The maximum number of completions.
+     * @return Up to {@code n} completions, the most frequent first.
+     */
+    public MyLinkedList<Sugerencia> sugerir(String prefijo, int n) {
+        MyLinkedList<Sugerencia> sugerencias = new MyLinkedList<>();
+        Nodo inicio = buscarPrefijo(prefijo);
+        if (inicio == null || n <= 0) {
+            return sugerencias;
+        }
+        MyMap<String, Boolean> ofrecidos = new MyMap<>();
+        Monticulo pendientes = new Monticulo();
+        pendientes.agregar(inicio, false, inicio.maximo);
+        while (pendientes.tamanio > 0 && sugerencias.size() < n) {
+            boolean esTermino = pendientes.esTerminoCima();
+            Nodo nodo = pendientes.quitar();
+            if (esTermino) {
+                // A term reached through several of its words is offered once.
+                if (!ofrecidos.containsKey(nodo.termino)) {
+                    ofrecidos.put(nodo.termino, Boolean.TRUE);
+                    sugerencias.add(new Sugerencia(nodo.termino, nodo.cantidad));
+                }
+                continue;
+            }
+            if (nodo.termino != null) {
+                pendientes.agregar(nodo, true, nodo.cantidad);
+            }
+            for (int i = 0; i < nodo.cantidadHijos; i++) {
+                pendientes.agregar(nodo.hijos[i], false, nodo.hijos[i].maximo);
+            }
+        }
+        return sugerencias;
+    }
+
+    /**
+     * Returns every term in which the given text occurs starting and ending at word boundaries,
+     * for example "ana perez" and "perez gomez" for "perez", but not "perezoso". Only the
+     * branches that continue the text with a character other than a letter or digit, or end
+     * right after it, are walked, so the cost depends on the terms found, not on how many share
+     * the text as a prefix.
+     *
+     * @param palabra The normalized text, starting with a letter or digit.
+     * @return The terms, each once, in no particular order.
+     */
+    public MyLinkedList<String> terminosConPalabra(String palabra) {
+        MyLinkedList<String> encontrados = new MyLinkedList<>();
+        Nodo nodo = raiz;
+        int i = 0;
+        int enEtiqueta = 0;
+        while (i < palabra.length()) {
+            int posicion = buscarHijo(nodo, palabra.charAt(i));
+            if (posicion < 0) {
+                return encontrados;
+            }
+            nodo = nodo.hijos[posicion];
+            for (enEtiqueta = 0; enEtiqueta < nodo.etiqueta.length && i < palabra.length(); enEtiqueta++, i++) {
+                if (nodo.etiqueta[enEtiqueta] != palabra.charAt(i)) {
+                    return encontrados;
+                }
+            }
+        }
+        MyMap<String, Boolean> vistos = new MyMap<>();
+        if (i > 0 && enEtiqueta < nodo.etiqueta.length) {
+            // The text ends midway along an edge: the key goes on with the next label character
+            if (!Character.isLetterOrDigit(nodo.etiqueta[enEtiqueta])) {
+                recolectar(nodo, vistos, encontrados);
+            }
+            return encontrados;
+        }
+        if (nodo.termino != null && !vistos.containsKey(nodo.termino)) {
+            vistos.put(nodo.termino, Boolean.TRUE);
+            encontrados.add(nodo.termino);
+        }
+        for (int h = 0; h < nodo.cantidadHijos; h++) {
+            if (!Character.isLetterOrDigit(nodo.hijos[h].etiqueta[0])) {
+                recolectar(nodo.hijos[h], vistos, encontrados);
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * Adds the terms of every key in a subtree, skipping those already seen.
+     */
+    private static void recolectar(Nodo inicio, MyMap<String, Boolean> vistos, MyLinkedList<String> encontrados) {
+        Nodo[] pila = new Nodo[16];
+        int tamanio = 0;
+        pila[tamanio++] = inicio;
+        while (tamanio > 0) {
+            Nodo nodo = pila[--tamanio];
+            if (nodo.termino != null && !vistos.containsKey(nodo.termino)) {
+                vistos.put(nodo.termino, Boolean.TRUE);
+                encontrados.add(nodo.termino);
+            }
+            for (int h = 0; h < nodo.cantidadHijos; h++) {
+                if (tamanio == pila.length) {
+                    pila = Arrays.copyOf(pila, tamanio * 2);
+                }
+                pila[tamanio++] = nodo.hijos[h];
+            }
+        }
+    }
+
+    /**
+     * Returns the node whose subtree holds exactly the keys starting with the prefix, or
+     * {@code null} if no key does.
+     */
+    private Nodo buscarPrefijo(String prefijo) {
+        Nodo nodo = raiz;
+        int i = 0;
+        while (i < prefijo.length()) {
+            int posicion = buscarHijo(nodo, prefijo.charAt(i));
+            if (posicion < 0) {
+                return null;
+            }
+            Nodo hijo = nodo.hijos[posicion];
+            for (int j = 0; j < hijo.etiqueta.length && i < prefijo.length(); j++, i++) {
+                if (hijo.etiqueta[j] != prefijo.charAt(i)) {
+                    return null;
+                }
+            }
+            nodo = hijo;
+        }
+        return nodo;
+    }
+
+    /**
+     * Max-heap of nodes to visit, each either as a subtree bounded by its {@code maximo} or as
+     * the term ending at it.
+     */
+    private static final class Monticulo {
+        Nodo[] nodos = new Nodo[16];
+        boolean[] terminos = new boolean[16];
+        int[] prioridades = new int[16];
+        int tamanio;
+
+        void agregar(Nodo nodo, boolean esTermino, int prioridad) {
+            if (tamanio == nodos.length) {
+                nodos = Arrays.copyOf(nodos, tamanio * 2);
+                terminos = Arrays.copyOf(terminos, tamanio * 2);
+                prioridades = Arrays.copyOf(prioridades, tamanio * 2);
+            }
+            int i = tamanio++;
+            while (i > 0) {
+                int padre = (i - 1) / 2;
+                if (prioridades[padre] >= prioridad) {
+                    break;
+                }
+                mover(padre, i);
+                i = padre;
+            }
+            nodos[i] = nodo;
+            terminos[i] = esTermino;
+            prioridades[i] = prioridad;
+        }
+
+        boolean esTerminoCima() {
+            return terminos[0];
+        }
+
+        Nodo quitar() {
+            Nodo cima = nodos[0];
+            tamanio--;
+            Nodo ultimo = nodos[tamanio];
+            boolean ultimoEsTermino = terminos[tamanio];
+            int prioridad = prioridades[tamanio];
+            nodos[tamanio] = null;
+            int i = 0;
+            while (true) {
+                int hijo = 2 * i + 1;
+                if (hijo >= tamanio) {
+                    break;
+                }
+                if (hijo + 1 < tamanio && prioridades[hijo + 1] > prioridades[hijo]) {
+                    hijo++;
+                }
+                if (prioridades[hijo] <= prioridad) {
+                    break;
+                }
+                mover(hijo, i);
+                i = hijo;
+            }
+            if (tamanio > 0) {
+                nodos[i] = ultimo;
+                terminos[i] = ultimoEsTermino;
+                prioridades[i] = prioridad;
+            }
+            return cima;
+        }
+
+        private void mover(int desde, int hasta) {
+            nodos[hasta] = nodos[desde];
+            terminos[hasta] = terminos[desde];
+            prioridades[hasta] = prioridades[desde];
+        }
+    }
+}
\ No newline at end of file